@@ -0,0 +1,308 @@
+package top.csaf.bean;
+
+import java.lang.reflect.Array;
+import java.util.*;
+
+/**
+ * Bean 转 Map
+ * <p>
+ * 每个类的可读属性（不含 class）通过 {@link ClassValue} 缓存为 {@link PropertyAccessor} 数组；嵌套的 Bean、Map、集合、数组通过显式栈逐层展开，不递归。
+ * 嵌套时 Bean、Map 转为 {@link LinkedHashMap}，集合、数组、{@link Iterator} 转为 {@link ArrayList}；
+ * 扁平时所有叶子值写入同一个 Map，键为属性路径，如 <code>a.b</code>、<code>list[0].name</code>，空的 Map、集合保留为空的 {@link LinkedHashMap}、{@link ArrayList}。
+ * 字符串、包装类、枚举、日期等 JDK 类型原样保留
+ */
+final class BeanMapConverter {
+
+  private static final ClassValue<PropertyAccessor[]> READERS = new ClassValue<PropertyAccessor[]>() {
+    @Override
+    protected PropertyAccessor[] computeValue(Class<?> type) {
+      List<PropertyAccessor> readers = new ArrayList<>();
+      for (PropertyAccessor accessor : PropertyAccessor.forClass(type).values()) {
+        if (accessor.isReadable() && !"class".equals(accessor.getName())) {
+          readers.add(accessor);
+        }
+      }
+      return readers.toArray(new PropertyAccessor[0]);
+    }
+  };
+
+  private BeanMapConverter() {
+  }
+
+  /**
+   * Bean 转 Map
+   *
+   * @param source Bean 或 Map
+   * @param target 写入的 Map
+   * @param flat   是否扁平化为属性路径
+   * @throws IllegalArgumentException source 不是 Bean 或 Map，或存在循环引用
+   */
+  static void convert(Object source, Map<String, Object> target, boolean flat) {
+    if (!(source instanceof Map) && !isBean(source)) {
+      throw new IllegalArgumentException("source: " + source.getClass().getName() + " must be a Java Bean or Map");
+    }
+    // 当前路径上的对象，用于检测循环引用
+    Set<Object> path = Collections.newSetFromMap(new IdentityHashMap<>());
+    Deque<Frame> stack = new ArrayDeque<>();
+    path.add(source);
+    stack.push(Frame.of(source, target, ""));
+    while (!stack.isEmpty()) {
+      Frame frame = stack.peek();
+      if (!frame.next()) {
+        stack.pop();
+        path.remove(frame.source);
+        continue;
+      }
+      Object value = frame.value;
+      String key = flat ? frame.childPath() : null;
+      if (!isContainer(value)) {
+        if (flat) {
+          target.put(key, value);
+        } else {
+          frame.put(value);
+        }
+        continue;
+      }
+      if (!path.add(value)) {
+        throw new IllegalArgumentException("Circular reference: " + (flat ? key : frame.childPath()));
+      }
+      Object childTarget = value instanceof Map || isBean(value) ? new LinkedHashMap<String, Object>() : new ArrayList<>();
+      Frame child = Frame.of(value, childTarget, key);
+      if (!flat) {
+        frame.put(childTarget);
+      } else if (child.isEmpty()) {
+        target.put(key, childTarget);
+      }
+      stack.push(child);
+    }
+  }
+
+  /**
+   * 是否展开为 Map 或 List
+   */
+  private static boolean isContainer(Object value) {
+    return value != null && (value instanceof Map || value instanceof Iterable || value instanceof Iterator || value.getClass().isArray() || isBean(value));
+  }
+
+  /**
+   * 非 JDK 类型且不是枚举的对象视为 Bean
+   */
+  private static boolean isBean(Object value) {
+    Class<?> type = value.getClass();
+    return !type.isArray() && !(value instanceof Enum) && !DeepCloner.isJdkType(type);
+  }
+
+  /**
+   * 栈帧，按顺序遍历一个 Bean、Map、集合或数组的子值
+   */
+  private abstract static class Frame {
+    final Object source;
+    /**
+     * 嵌套时写入的 Map 或 List
+     */
+    final Object target;
+    /**
+     * 扁平时的属性路径前缀
+     */
+    final String path;
+    /**
+     * 当前子值
+     */
+    Object value;
+
+    Frame(Object source, Object target, String path) {
+      this.source = source;
+      this.target = target;
+      this.path = path;
+    }
+
+    static Frame of(Object source, Object target, String path) {
+      if (source instanceof Map) {
+        return new MapFrame(source, target, path);
+      }
+      if (source instanceof Iterable) {
+        return new IteratorFrame(source, ((Iterable<?>) source).iterator(), target, path);
+      }
+      if (source instanceof Iterator) {
+        return new IteratorFrame(source, (Iterator<?>) source, target, path);
+      }
+      if (source.getClass().isArray()) {
+        return new ArrayFrame(source, target, path);
+      }
+      return new BeanFrame(source, target, path);
+    }
+
+    /**
+     * 移动到下一个子值
+     *
+     * @return 是否存在下一个子值
+     */
+    abstract boolean next();
+
+    /**
+     * 是否没有子值，需在 {@link #next()} 之前调用
+     */
+    abstract boolean isEmpty();
+
+    /**
+     * 当前子值的属性路径
+     */
+    abstract String childPath();
+
+    /**
+     * 嵌套时写入当前子值
+     */
+    abstract void put(Object value);
+
+    String join(String name) {
+      return path.isEmpty() ? name : path + "." + name;
+    }
+  }
+
+  private static final class BeanFrame extends Frame {
+    private final PropertyAccessor[] readers;
+    private int index = -1;
+
+    BeanFrame(Object source, Object target, String path) {
+      super(source, target, path);
+      this.readers = READERS.get(source.getClass());
+    }
+
+    @Override
+    boolean next() {
+      if (++index >= readers.length) {
+        return false;
+      }
+      try {
+        value = readers[index].get(source);
+      } catch (Throwable e) {
+        throw new RuntimeException(e);
+      }
+      return true;
+    }
+
+    @Override
+    boolean isEmpty() {
+      return readers.length == 0;
+    }
+
+    @Override
+    String childPath() {
+      return join(readers[index].getName());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    void put(Object value) {
+      ((Map<String, Object>) target).put(readers[index].getName(), value);
+    }
+  }
+
+  private static final class MapFrame extends Frame {
+    private final Iterator<? extends Map.Entry<?, ?>> iterator;
+    private String key;
+
+    MapFrame(Object source, Object target, String path) {
+      super(source, target, path);
+      this.iterator = ((Map<?, ?>) source).entrySet().iterator();
+    }
+
+    @Override
+    boolean next() {
+      if (!iterator.hasNext()) {
+        return false;
+      }
+      Map.Entry<?, ?> entry = iterator.next();
+      key = String.valueOf(entry.getKey());
+      value = entry.getValue();
+      return true;
+    }
+
+    @Override
+    boolean isEmpty() {
+      return ((Map<?, ?>) source).isEmpty();
+    }
+
+    @Override
+    String childPath() {
+      return join(key);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    void put(Object value) {
+      ((Map<String, Object>) target).put(key, value);
+    }
+  }
+
+  private static final class IteratorFrame extends Frame {
+    private final Iterator<?> iterator;
+    private int index = -1;
+
+    IteratorFrame(Object source, Iterator<?> iterator, Object target, String path) {
+      super(source, target, path);
+      this.iterator = iterator;
+    }
+
+    @Override
+    boolean next() {
+      if (!iterator.hasNext()) {
+        return false;
+      }
+      index++;
+      value = iterator.next();
+      return true;
+    }
+
+    @Override
+    boolean isEmpty() {
+      return !iterator.hasNext();
+    }
+
+    @Override
+    String childPath() {
+      return path + "[" + index + "]";
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    void put(Object value) {
+      ((List<Object>) target).add(value);
+    }
+  }
+
+  private static final class ArrayFrame extends Frame {
+    private final int length;
+    private int index = -1;
+
+    ArrayFrame(Object source, Object target, String path) {
+      super(source, target, path);
+      this.length = Array.getLength(source);
+    }
+
+    @Override
+    boolean next() {
+      if (++index >= length) {
+        return false;
+      }
+      value = Array.get(source, index);
+      return true;
+    }
+
+    @Override
+    boolean isEmpty() {
+      return length == 0;
+    }
+
+    @Override
+    String childPath() {
+      return path + "[" + index + "]";
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    void put(Object value) {
+      ((List<Object>) target).add(value);
+    }
+  }
+}
@@ -3,120 +3,52 @@ package top.csaf.bean;
 
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.beanutils.PropertyUtils;
 import top.csaf.coll.CollUtil;
-import top.csaf.json.JsonUtil;
 import top.csaf.lang.StrUtil;
 
-import java.beans.Introspector;
-import java.beans.PropertyDescriptor;
-import java.io.Serializable;
-import java.lang.reflect.Array;
-import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * Bean 工具类
+ * <p>
+ * {@link #getProperty(Object, String)}、{@link #setProperty(Object, String, Object)} 及其 {@link PropFunc} 重载通过按类缓存的 {@link PropertyAccessor} 访问属性，
+ * Getter、Setter 在首次访问时生成为函数，之后不再反射；{@link PropFunc} 解析出的属性名、列名、属性类按 Lambda 类缓存
+ * <p>
+ * 大列表可通过 {@link #copyPropertiesParallel(List, Class, ForkJoinPool)}、{@link #toMapParallel(List, ForkJoinPool)} 分段并行转换，结果顺序与输入一致
  */
 @Slf4j
 public class BeanUtil extends org.springframework.beans.BeanUtils {
 
   /**
-   * 将 Bean（implements java.io.Serializable）深层转换为 Map 对象，支持任意深度的对象属性转换，可循环字段会被转换为 Iterator
+   * 并行转换的最小列表长度，较短的列表串行转换
+   */
+  private static final int PARALLEL_THRESHOLD = 2048;
+  /**
+   * 并行转换时每段的最小长度
+   */
+  private static final int MIN_SEGMENT_SIZE = 512;
+  /**
+   * 深克隆策略
+   */
+  private static volatile DeepCloneStrategy deepCloneStrategy = DeepCloneStrategy.PLAN;
+
+  /**
+   * 将 Bean 或 Map 深层转换为 Map，支持任意深度的对象属性转换
+   * <p>
+   * 与 {@link #toMap(Object, Map)} 相同：Bean、Map 转为 {@link LinkedHashMap}，集合、数组、{@link Iterator} 转为 {@link ArrayList}，其他 JDK 类型原样保留
    *
-   * @param object 需要转换的 Java Bean 对象
-   * @return 转换后的 Map 对象
+   * @param object 需要转换的 Java Bean 或 Map
+   * @return 转换后的 Map，按属性顺序排列
+   * @throws IllegalArgumentException object 不是 Bean 或 Map，或存在循环引用
    */
   public static Map<String, Object> toMap(@NonNull Object object) {
-    Map<String, Object> result = new HashMap<>();
-    Map map;
-    try {
-      if (object instanceof Map) {
-        map = (Map) object;
-      } else {
-        map = PropertyUtils.describe(object);
-      }
-    } catch (IllegalAccessException | InvocationTargetException | NoSuchMethodException e) {
-      throw new RuntimeException(e);
-    }
-    for (Object o : map.entrySet()) {
-      Map.Entry entry = (Map.Entry) o;
-      String key = entry.getKey().toString();
-      Object value = entry.getValue();
-      if (value == null) {
-        result.put(key, value);
-        continue;
-      }
-      // 基础类型
-      if (value instanceof String || value instanceof Number || value instanceof Boolean || value instanceof Character) {
-        result.put(key, value);
-        continue;
-      }
-      Class<?> valueClass = value.getClass();
-      // 其他类型递归调用
-      if (value instanceof Map) {
-        Map<String, Object> newValue = new HashMap<>();
-        for (Map.Entry<Object, Object> entry1 : ((Map<Object, Object>) value).entrySet()) {
-          String key1 = entry1.getKey().toString();
-          Object value1 = entry1.getValue();
-          // 如果还有深层
-          if (value1 != null && (value1 instanceof Map || (value1 instanceof Serializable && !(value1 instanceof CharSequence)) || value1 instanceof Iterable || value1 instanceof Iterator || value1.getClass().isArray())) {
-            newValue.put(key1, toMap(value1));
-          } else {
-            newValue.put(key1, value1);
-          }
-        }
-        result.put(key, newValue);
-      } else if (value instanceof Iterable) {
-        // TODO 根据 Iterable 的具体类型创建新的值
-        List newValue = new ArrayList<>();
-        for (Object value1 : (Iterable) value) {
-          // 如果还有深层
-          if (value1 != null && (value1 instanceof Map || (value1 instanceof Serializable && !(value1 instanceof CharSequence)) || value1 instanceof Iterable || value1 instanceof Iterator || value1.getClass().isArray())) {
-            newValue.add(toMap(value1));
-          } else {
-            newValue.add(value1);
-          }
-        }
-        result.put(key, newValue.iterator());
-      } else if (value instanceof Iterator) {
-        // TODO 根据 Iterator 的具体类型创建新的值
-        List newValue = new ArrayList<>();
-        Iterator iterator = (Iterator) value;
-        while (iterator.hasNext()) {
-          Object value1 = iterator.next();
-          // 如果还有深层
-          if (value1 != null && (value1 instanceof Map || (value1 instanceof Serializable && !(value1 instanceof CharSequence)) || value1 instanceof Iterable || value1 instanceof Iterator || value1.getClass().isArray())) {
-            newValue.add(toMap(value1));
-          } else {
-            newValue.add(value1);
-          }
-        }
-        result.put(key, newValue.iterator());
-      } else if (value != null && valueClass.isArray()) {
-        int arrayLen = Array.getLength(value);
-        Object newValue = Array.newInstance(Map.class, arrayLen);
-        for (int i = 0; i < arrayLen; i++) {
-          Object value1 = Array.get(value, i);
-          // 如果还有深层
-          if (value1 != null && (value1 instanceof Map || (value1 instanceof Serializable && !(value1 instanceof CharSequence)) || value1 instanceof Iterable || value1 instanceof Iterator || value1.getClass().isArray())) {
-            Array.set(newValue, i, toMap(value1));
-          } else {
-            Array.set(newValue, i, value1);
-          }
-        }
-        result.put(key, newValue);
-      } else {
-        result.put(key, toMap(value));
-      }
-    }
-    return result;
+    return toMap(object, new LinkedHashMap<>());
   }
 
   /**
-   * Bean（implements java.io.Serializable） List 深层转 Map List
+   * Bean List 深层转 Map List，元素的转换与 {@link #toMap(Object)} 相同
    *
    * @param sourceList Bean List
    * @param <T>        Bean 类型
@@ -133,6 +65,76 @@ public class BeanUtil extends org.springframework.beans.BeanUtils {
     return result;
   }
 
+  /**
+   * 将 Bean 或 Map 深层转换后写入指定的 Map
+   * <p>
+   * 按类缓存属性信息，通过显式栈展开嵌套结构：Bean、Map 转为 {@link LinkedHashMap}，集合、数组、{@link Iterator} 转为 {@link ArrayList}，其他 JDK 类型原样保留
+   *
+   * @param source Bean 或 Map
+   * @param target 写入的 Map
+   * @return 写入的 Map
+   * @throws IllegalArgumentException source 不是 Bean 或 Map，或存在循环引用
+   */
+  public static Map<String, Object> toMap(@NonNull Object source, @NonNull Map<String, Object> target) {
+    BeanMapConverter.convert(source, target, false);
+    return target;
+  }
+
+  /**
+   * 将 Bean 或 Map 深层转换为以属性路径为键的扁平 Map，如 <code>a.b</code>、<code>list[0].name</code>
+   *
+   * @param source Bean 或 Map
+   * @return 扁平 Map，按属性顺序排列
+   * @throws IllegalArgumentException source 不是 Bean 或 Map，或存在循环引用
+   */
+  public static Map<String, Object> toFlatMap(@NonNull Object source) {
+    return toFlatMap(source, new LinkedHashMap<>());
+  }
+
+  /**
+   * 将 Bean 或 Map 深层转换后以属性路径为键写入指定的 Map，如 <code>a.b</code>、<code>list[0].name</code>
+   *
+   * @param source Bean 或 Map
+   * @param target 写入的 Map
+   * @return 写入的 Map
+   * @throws IllegalArgumentException source 不是 Bean 或 Map，或存在循环引用
+   */
+  public static Map<String, Object> toFlatMap(@NonNull Object source, @NonNull Map<String, Object> target) {
+    BeanMapConverter.convert(source, target, true);
+    return target;
+  }
+
+  /**
+   * 使用 {@link ForkJoinPool} 并行将 Bean List 深层转 Map List，结果顺序与输入一致，列表较短时串行转换
+   *
+   * @param sourceList Bean List
+   * @param pool       线程池
+   * @param <T>        Bean 类型
+   * @return Map List
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> List<Map<String, Object>> toMapParallel(@NonNull List<T> sourceList, @NonNull ForkJoinPool pool) {
+    if (sourceList.size() < PARALLEL_THRESHOLD || pool.getParallelism() < 2) {
+      return toMap(sourceList);
+    }
+    return (List<Map<String, Object>>) (List<?>) mapParallel(sourceList, pool, (sources, results, from, to) -> {
+      for (int i = from; i < to; i++) {
+        results[i] = toMap(sources[i]);
+      }
+    });
+  }
+
+  /**
+   * 使用 {@link ForkJoinPool#commonPool()} 并行将 Bean List 深层转 Map List，结果顺序与输入一致，列表较短时串行转换
+   *
+   * @param sourceList Bean List
+   * @param <T>        Bean 类型
+   * @return Map List
+   */
+  public static <T> List<Map<String, Object>> toMapParallel(@NonNull List<T> sourceList) {
+    return toMapParallel(sourceList, ForkJoinPool.commonPool());
+  }
+
   /**
    * 获取属性名
    *
@@ -141,17 +143,7 @@ public class BeanUtil extends org.springframework.beans.BeanUtils {
    * @return 属性名
    */
   public static <T> String getPropertyName(@NonNull PropFunc<T, ?> fn) {
-    try {
-      Method method = fn.getClass().getDeclaredMethod("writeReplace");
-      method.setAccessible(true);
-      Object serializedLambda = method.invoke(fn);
-      Method implMethodName = serializedLambda.getClass().getDeclaredMethod("getImplMethodName");
-      implMethodName.setAccessible(true);
-      String methodName = (String) implMethodName.invoke(serializedLambda);
-      return Introspector.decapitalize(methodName.substring(3));
-    } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
-      throw new RuntimeException(e);
-    }
+    return LambdaProperty.of(fn).getName();
   }
 
   /**
@@ -162,7 +154,7 @@ public class BeanUtil extends org.springframework.beans.BeanUtils {
    * @return 列名
    */
   public static <T> String getColumnName(@NonNull PropFunc<T, ?> fn) {
-    return StrUtil.toUnderscore(getPropertyName(fn));
+    return LambdaProperty.of(fn).getColumnName();
   }
 
   /**
@@ -173,19 +165,7 @@ public class BeanUtil extends org.springframework.beans.BeanUtils {
    * @return 属性类
    */
   public static <T> Class<?> getPropertyClass(@NonNull PropFunc<T, ?> fn) {
-    try {
-      Method method = fn.getClass().getDeclaredMethod("writeReplace");
-      method.setAccessible(true);
-      Object serializedLambda = method.invoke(fn);
-      Method implMethodName = serializedLambda.getClass().getDeclaredMethod("getImplMethodName");
-      implMethodName.setAccessible(true);
-      String methodName = (String) implMethodName.invoke(serializedLambda);
-      String className = serializedLambda.getClass().getDeclaredMethod("getImplClass").invoke(serializedLambda).toString().replace("/", ".");
-      Class<T> clazz = (Class<T>) Class.forName(className);
-      return clazz.getDeclaredField(Introspector.decapitalize(methodName.substring(3))).getType();
-    } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException | ClassNotFoundException | NoSuchFieldException e) {
-      throw new RuntimeException(e);
-    }
+    return LambdaProperty.of(fn).getType();
   }
 
   /**
@@ -199,18 +179,15 @@ public class BeanUtil extends org.springframework.beans.BeanUtils {
     if (StrUtil.isBlank(fieldName)) {
       return null;
     }
+    PropertyAccessor accessor = PropertyAccessor.of(bean.getClass(), fieldName);
+    if (accessor == null || !accessor.isReadable()) {
+      return null;
+    }
     try {
-      PropertyDescriptor propertyDescriptor = org.springframework.beans.BeanUtils.getPropertyDescriptor(bean.getClass(), fieldName);
-      if (propertyDescriptor != null) {
-        Method readMethod = propertyDescriptor.getReadMethod();
-        if (readMethod != null) {
-          return readMethod.invoke(bean);
-        }
-      }
-    } catch (IllegalAccessException | InvocationTargetException e) {
+      return accessor.get(bean);
+    } catch (Exception e) {
       throw new RuntimeException(e);
     }
-    return null;
   }
 
   /**
@@ -261,16 +238,15 @@ public class BeanUtil extends org.springframework.beans.BeanUtils {
    * @return 是否设置成功
    */
   public static boolean setProperty(@NonNull Object bean, @NonNull String fieldName, Object value) {
+    PropertyAccessor accessor = PropertyAccessor.of(bean.getClass(), fieldName);
+    if (accessor == null || !accessor.isWritable()) {
+      return false;
+    }
+    accessor.checkValue(value);
     try {
-      PropertyDescriptor propertyDescriptor = org.springframework.beans.BeanUtils.getPropertyDescriptor(bean.getClass(), fieldName);
-      if (propertyDescriptor != null) {
-        Method writeMethod = propertyDescriptor.getWriteMethod();
-        if (writeMethod != null) {
-          writeMethod.invoke(bean, value);
-          return true;
-        }
-      }
-    } catch (IllegalAccessException | InvocationTargetException e) {
+      accessor.set(bean, value);
+      return true;
+    } catch (Exception e) {
       log.error(e.getMessage(), e);
     }
     return false;
@@ -298,89 +274,214 @@ public class BeanUtil extends org.springframework.beans.BeanUtils {
    * @return 指定类型的新对象
    */
   public static <T> T copyProperties(@NonNull Object source, @NonNull Class<T> targetClass) {
+    return copyProperties(source, CopyPlan.of(source.getClass(), targetClass));
+  }
+
+  /**
+   * 复制属性到新类型对象列表中，相同类型的元素复用同一个复制计划
+   *
+   * @param sourceList  对象列表
+   * @param targetClass 目标类
+   * @param <T>         目标类型
+   * @return 指定类型的对象列表
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> List<T> copyProperties(@NonNull List<?> sourceList, @NonNull Class<T> targetClass) {
     // 判断目标类是否存在无参构造函数
-    boolean hasNoArgsConstructor = false;
-    Constructor<?>[] constructors = targetClass.getConstructors();
-    for (Constructor<?> constructor : constructors) {
-      if (constructor.getParameterCount() == 0) {
-        hasNoArgsConstructor = true;
-        break;
-      }
-    }
-    if (!hasNoArgsConstructor) {
+    if (CopyPlan.constructor(targetClass) == null) {
       throw new IllegalArgumentException("targetClass: " + targetClass.getName() + " must have no args constructor");
     }
 
-    T target = null;
-    try {
-      target = targetClass.newInstance();
-      org.springframework.beans.BeanUtils.copyProperties(source, target);
-    } catch (InstantiationException | IllegalAccessException e) {
-      log.error(e.getMessage(), e);
-    }
-    return target;
+    Object[] sources = sourceList.toArray();
+    Object[] targets = new Object[sources.length];
+    copySegment(targetClass).apply(sources, targets, 0, sources.length);
+    return (List<T>) new ArrayList<>(Arrays.asList(targets));
   }
 
   /**
-   * 复制属性到新类型对象列表中
+   * 使用 {@link ForkJoinPool} 并行复制属性到新类型对象列表中，结果顺序与输入一致，列表较短时串行复制
    *
    * @param sourceList  对象列表
    * @param targetClass 目标类
+   * @param pool        线程池
    * @param <T>         目标类型
    * @return 指定类型的对象列表
    */
-  public static <T> List<T> copyProperties(@NonNull List<?> sourceList, @NonNull Class<T> targetClass) {
-    // 判断目标类是否存在无参构造函数
-    boolean hasNoArgsConstructor = false;
-    Constructor<?>[] constructors = targetClass.getConstructors();
-    for (Constructor<?> constructor : constructors) {
-      if (constructor.getParameterCount() == 0) {
-        hasNoArgsConstructor = true;
-        break;
-      }
+  @SuppressWarnings("unchecked")
+  public static <T> List<T> copyPropertiesParallel(@NonNull List<?> sourceList, @NonNull Class<T> targetClass, @NonNull ForkJoinPool pool) {
+    if (sourceList.size() < PARALLEL_THRESHOLD || pool.getParallelism() < 2) {
+      return copyProperties(sourceList, targetClass);
     }
-    if (!hasNoArgsConstructor) {
+    // 判断目标类是否存在无参构造函数
+    if (CopyPlan.constructor(targetClass) == null) {
       throw new IllegalArgumentException("targetClass: " + targetClass.getName() + " must have no args constructor");
     }
+    return (List<T>) mapParallel(sourceList, pool, (sources, results, from, to) -> copySegment(targetClass).apply(sources, results, from, to));
+  }
 
-    List<T> targetList = new ArrayList<>();
-    for (Object source : sourceList) {
-      T target = null;
-      try {
-        target = targetClass.newInstance();
-        org.springframework.beans.BeanUtils.copyProperties(source, target);
-      } catch (InstantiationException | IllegalAccessException e) {
-        log.error(e.getMessage(), e);
+  /**
+   * 使用 {@link ForkJoinPool#commonPool()} 并行复制属性到新类型对象列表中，结果顺序与输入一致，列表较短时串行复制
+   *
+   * @param sourceList  对象列表
+   * @param targetClass 目标类
+   * @param <T>         目标类型
+   * @return 指定类型的对象列表
+   */
+  public static <T> List<T> copyPropertiesParallel(@NonNull List<?> sourceList, @NonNull Class<T> targetClass) {
+    return copyPropertiesParallel(sourceList, targetClass, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * 复制一段对象，相同类型的连续元素复用同一个复制计划
+   */
+  private static <T> Segment copySegment(Class<T> targetClass) {
+    return new Segment() {
+      private CopyPlan<T> plan;
+
+      @Override
+      public void apply(Object[] sources, Object[] results, int from, int to) {
+        for (int i = from; i < to; i++) {
+          Object source = sources[i];
+          if (source == null) {
+            throw new IllegalArgumentException("Source must not be null");
+          }
+          if (plan == null || plan.getSourceClass() != source.getClass()) {
+            plan = CopyPlan.of(source.getClass(), targetClass);
+          }
+          results[i] = copyProperties(source, plan);
+        }
       }
-      targetList.add(target);
+    };
+  }
+
+  private static <T> T copyProperties(Object source, CopyPlan<T> plan) {
+    T target;
+    try {
+      target = plan.newInstance();
+    } catch (IllegalStateException e) {
+      log.error(e.getMessage(), e);
+      return null;
     }
-    return targetList;
+    plan.copy(source, target);
+    return target;
   }
 
   /**
-   * 深克隆
+   * 设置 {@link #deepClone(Object)}、{@link #deepClone(List)} 使用的深克隆策略
+   *
+   * @param strategy 深克隆策略，默认为 {@link DeepCloneStrategy#PLAN}
+   */
+  public static void setDeepCloneStrategy(@NonNull DeepCloneStrategy strategy) {
+    deepCloneStrategy = strategy;
+  }
+
+  /**
+   * 获取 {@link #deepClone(Object)}、{@link #deepClone(List)} 使用的深克隆策略
+   *
+   * @return 深克隆策略
+   */
+  public static DeepCloneStrategy getDeepCloneStrategy() {
+    return deepCloneStrategy;
+  }
+
+  /**
+   * 深克隆，默认按类缓存克隆计划，共享引用和循环引用在克隆结果中保持不变
    *
    * @param source 源对象
    * @param <T>    源对象类型
    * @return 深克隆后的对象
+   * @see #setDeepCloneStrategy(DeepCloneStrategy)
    */
   public static <T> T deepClone(T source) {
-    // return (T) JSON.parseObject(JSON.toJSONString(source), source.getClass());
-    return (T) JsonUtil.parseObject(JsonUtil.toJsonNoFeature(source), source.getClass());
+    return deepCloneStrategy.deepClone(source);
   }
 
   /**
-   * 深克隆
+   * 使用指定策略深克隆
+   *
+   * @param source   源对象
+   * @param strategy 深克隆策略
+   * @param <T>      源对象类型
+   * @return 深克隆后的对象
+   */
+  public static <T> T deepClone(T source, @NonNull DeepCloneStrategy strategy) {
+    return strategy.deepClone(source);
+  }
+
+  /**
+   * 深克隆，默认策略下元素间的共享引用在克隆结果中保持不变
    *
    * @param source 源集合
    * @param <T>    源集合元素类型
    * @return 深克隆后的集合
+   * @see #setDeepCloneStrategy(DeepCloneStrategy)
+   */
+  public static <T> List<T> deepClone(@NonNull List<T> source) {
+    return deepCloneStrategy.deepClone(source);
+  }
+
+  /**
+   * 使用指定策略深克隆
+   *
+   * @param source   源集合
+   * @param strategy 深克隆策略
+   * @param <T>      源集合元素类型
+   * @return 深克隆后的集合
+   */
+  public static <T> List<T> deepClone(@NonNull List<T> source, @NonNull DeepCloneStrategy strategy) {
+    return strategy.deepClone(source);
+  }
+
+  /**
+   * 分段转换，将 sources[from, to) 的转换结果写入 results 的相同下标
    */
-  public static <T> List<T> deepClone(List<T> source) {
-    List<T> result = new ArrayList<>();
-    for (T t : source) {
-      result.add(deepClone(t));
+  @FunctionalInterface
+  private interface Segment {
+    void apply(Object[] sources, Object[] results, int from, int to);
+  }
+
+  /**
+   * 将列表拷贝为数组后在 {@link ForkJoinPool} 中分段转换，各段写入结果数组的对应下标，保持输入顺序
+   */
+  private static List<Object> mapParallel(List<?> sourceList, ForkJoinPool pool, Segment segment) {
+    Object[] sources = sourceList.toArray();
+    Object[] results = new Object[sources.length];
+    int segmentSize = Math.max(MIN_SEGMENT_SIZE, sources.length / (pool.getParallelism() * 4));
+    pool.invoke(new SegmentTask(sources, results, 0, sources.length, segmentSize, segment));
+    return new ArrayList<>(Arrays.asList(results));
+  }
+
+  /**
+   * 分段转换任务，按下标对半拆分，直到不超过分段长度
+   */
+  private static final class SegmentTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final Object[] sources;
+    private final Object[] results;
+    private final int from;
+    private final int to;
+    private final int segmentSize;
+    private final transient Segment segment;
+
+    SegmentTask(Object[] sources, Object[] results, int from, int to, int segmentSize, Segment segment) {
+      this.sources = sources;
+      this.results = results;
+      this.from = from;
+      this.to = to;
+      this.segmentSize = segmentSize;
+      this.segment = segment;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from > segmentSize) {
+        int mid = (from + to) >>> 1;
+        invokeAll(new SegmentTask(sources, results, from, mid, segmentSize, segment),
+          new SegmentTask(sources, results, mid, to, segmentSize, segment));
+        return;
+      }
+      segment.apply(sources, results, from, to);
     }
-    return result;
   }
 }
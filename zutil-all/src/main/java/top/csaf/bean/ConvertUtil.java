@@ -1,9 +1,328 @@
 package top.csaf.bean;
 
+import lombok.NonNull;
 import org.apache.commons.beanutils.ConvertUtils;
+import org.apache.commons.beanutils.Converter;
+import org.apache.commons.beanutils.converters.NumberConverter;
+import org.springframework.util.ClassUtils;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
 /**
  * 字符串转换指定类，字符串数组转换指定类数组
+ * <p>
+ * {@link #convert(Object, Class)} 按（源类型，目标类型）缓存转换函数，查找不加锁：
+ * 优先使用 {@link #register(Class, Class, Function)} 注册的转换器（源类型的父类、接口上注册的同样适用），
+ * 其次是数字、字符串之间的直接转换，结果与 {@link ConvertUtils} 的默认转换器一致，其他情况以及转换失败时交给 {@link ConvertUtils}。
+ * <p>
+ * 目标类型在 {@link ConvertUtils} 中的转换器不是默认转换器时（无论通过本类、{@link ConvertUtils} 还是 {@link org.apache.commons.beanutils.BeanUtilsBean} 注册或移除），
+ * 该目标类型不使用直接转换。检查在（源类型，目标类型）首次转换时进行，之后绕过本类注册或移除 {@link ConvertUtils} 的转换器不会生效，
+ * 需通过本类的 {@link #register(Converter, Class)}、{@link #deregister(Class)}、{@link #deregister()} 操作以清空缓存
  */
 public class ConvertUtil extends ConvertUtils {
+
+  /**
+   * 注册的转换器，源类型到（目标类型到转换器）
+   */
+  private static final Map<Class<?>, Map<Class<?>, Function<Object, Object>>> REGISTERED = new ConcurrentHashMap<>();
+  /**
+   * 直接转换涉及的类型：目标类型，以及转换为字符串时 {@link ConvertUtils} 使用其转换器的源类型
+   */
+  private static final List<Class<?>> DIRECT_TYPES = Arrays.asList(String.class, Integer.class, int.class, Long.class, long.class,
+    Double.class, double.class, Short.class, short.class, Byte.class, byte.class, Float.class, float.class, BigDecimal.class, BigInteger.class,
+    Boolean.class, Character.class);
+  /**
+   * 类型到 {@link ConvertUtils} 的默认转换器，查找到的转换器与之不同时不使用直接转换
+   */
+  private static volatile Map<Class<?>, Converter> defaultConverters = defaultConverters();
+
+  /**
+   * 交给 {@link ConvertUtils} 转换
+   */
+  private static final Function<Object, Object> NONE = null;
+
+  /**
+   * 源类型到（目标类型到转换函数）的缓存，注册转换器时整体替换
+   */
+  private static volatile ClassValue<Map<Class<?>, Function<Object, Object>>> cache = newCache();
+
+  private static Map<Class<?>, Converter> defaultConverters() {
+    Map<Class<?>, Converter> converters = new HashMap<>();
+    for (Class<?> type : DIRECT_TYPES) {
+      Converter converter = ConvertUtils.lookup(type);
+      if (isDefault(converter)) {
+        converters.put(type, converter);
+      }
+    }
+    return converters;
+  }
+
+  /**
+   * 是否为 commons-beanutils 提供的、未设置格式的转换器
+   */
+  private static boolean isDefault(Converter converter) {
+    if (converter == null || !converter.getClass().getName().startsWith("org.apache.commons.beanutils.converters.")) {
+      return false;
+    }
+    return !(converter instanceof NumberConverter)
+      || (((NumberConverter) converter).getPattern() == null && ((NumberConverter) converter).getLocale() == null);
+  }
+
+  /**
+   * {@link ConvertUtils} 中该类型的转换器是否为默认转换器，均未注册时同样视为默认
+   */
+  private static boolean isDefault(Class<?> type) {
+    return ConvertUtils.lookup(type) == defaultConverters.get(type);
+  }
+
+  private static ClassValue<Map<Class<?>, Function<Object, Object>>> newCache() {
+    return new ClassValue<Map<Class<?>, Function<Object, Object>>>() {
+      @Override
+      protected Map<Class<?>, Function<Object, Object>> computeValue(Class<?> type) {
+        return new ConcurrentHashMap<>();
+      }
+    };
+  }
+
+  /**
+   * 转换为指定类型
+   *
+   * @param value      值
+   * @param targetType 目标类型，基本类型转换为对应的包装类
+   * @return 转换后的值
+   */
+  public static Object convert(final Object value, final Class<?> targetType) {
+    if (value == null || targetType == null) {
+      return ConvertUtils.convert(value, targetType);
+    }
+    Map<Class<?>, Function<Object, Object>> converters = cache.get(value.getClass());
+    Function<Object, Object> converter = converters.get(targetType);
+    if (converter == null) {
+      converter = resolve(value.getClass(), targetType);
+      converters.put(targetType, converter);
+    }
+    return converter.apply(value);
+  }
+
+  /**
+   * 字符串转换为指定类型
+   *
+   * @param value 值
+   * @param clazz 目标类型，基本类型转换为对应的包装类
+   * @return 转换后的值
+   */
+  public static Object convert(final String value, final Class<?> clazz) {
+    return convert((Object) value, clazz);
+  }
+
+  /**
+   * 注册转换器，已注册的（源类型，目标类型）会被覆盖
+   *
+   * @param sourceType 源类型，子类同样适用
+   * @param targetType 目标类型
+   * @param converter  转换器
+   * @param <S>        源类型
+   * @param <T>        目标类型
+   */
+  @SuppressWarnings("unchecked")
+  public static <S, T> void register(@NonNull final Class<S> sourceType, @NonNull final Class<T> targetType, @NonNull final Function<? super S, ? extends T> converter) {
+    REGISTERED.computeIfAbsent(sourceType, key -> new ConcurrentHashMap<>())
+      .put(ClassUtils.resolvePrimitiveIfNecessary(targetType), (Function<Object, Object>) converter);
+    cache = newCache();
+  }
+
+  /**
+   * 移除通过 {@link #register(Class, Class, Function)} 注册的转换器
+   *
+   * @param sourceType 源类型
+   * @param targetType 目标类型
+   */
+  public static void deregister(@NonNull final Class<?> sourceType, @NonNull final Class<?> targetType) {
+    Map<Class<?>, Function<Object, Object>> converters = REGISTERED.get(sourceType);
+    if (converters != null && converters.remove(ClassUtils.resolvePrimitiveIfNecessary(targetType)) != null) {
+      cache = newCache();
+    }
+  }
+
+  /**
+   * 注册 {@link ConvertUtils} 的转换器，转换为该类型时不再使用直接转换
+   *
+   * @param converter 转换器
+   * @param clazz     目标类型
+   */
+  public static void register(final Converter converter, final Class<?> clazz) {
+    ConvertUtils.register(converter, clazz);
+    cache = newCache();
+  }
+
+  /**
+   * 移除 {@link ConvertUtils} 中目标类型的转换器，转换为该类型时不再使用直接转换
+   *
+   * @param clazz 目标类型
+   */
+  public static void deregister(final Class<?> clazz) {
+    ConvertUtils.deregister(clazz);
+    cache = newCache();
+  }
+
+  /**
+   * 移除所有 {@link ConvertUtils} 的转换器并恢复默认转换器
+   */
+  public static void deregister() {
+    ConvertUtils.deregister();
+    defaultConverters = defaultConverters();
+    cache = newCache();
+  }
+
+  private static Function<Object, Object> resolve(Class<?> sourceType, Class<?> targetType) {
+    Class<?> boxedType = ClassUtils.resolvePrimitiveIfNecessary(targetType);
+    Function<Object, Object> converter = findRegistered(sourceType, boxedType);
+    // 转换为字符串时 ConvertUtils 使用源类型的转换器
+    if (converter == null && isDefault(targetType) && (boxedType != String.class || isDefault(sourceType))) {
+      converter = direct(sourceType, boxedType);
+    }
+    return converter != null ? converter : value -> ConvertUtils.convert(value, targetType);
+  }
+
+  /**
+   * 按源类型、父类、接口的顺序查找注册的转换器
+   */
+  private static Function<Object, Object> findRegistered(Class<?> sourceType, Class<?> targetType) {
+    if (REGISTERED.isEmpty()) {
+      return NONE;
+    }
+    for (Class<?> type = sourceType; type != null; type = type.getSuperclass()) {
+      Map<Class<?>, Function<Object, Object>> converters = REGISTERED.get(type);
+      if (converters != null && converters.containsKey(targetType)) {
+        return converters.get(targetType);
+      }
+    }
+    for (Class<?> type : ClassUtils.getAllInterfacesForClassAsSet(sourceType)) {
+      Map<Class<?>, Function<Object, Object>> converters = REGISTERED.get(type);
+      if (converters != null && converters.containsKey(targetType)) {
+        return converters.get(targetType);
+      }
+    }
+    return NONE;
+  }
+
+  /**
+   * 数字、字符串之间的直接转换，不支持时返回 null
+   */
+  private static Function<Object, Object> direct(Class<?> sourceType, Class<?> targetType) {
+    if (targetType == Object.class || (targetType.isAssignableFrom(sourceType) && !sourceType.isArray())) {
+      return Function.identity();
+    }
+    if (targetType == String.class) {
+      if (Number.class.isAssignableFrom(sourceType) || CharSequence.class.isAssignableFrom(sourceType)
+        || sourceType == Boolean.class || sourceType == Character.class) {
+        return Object::toString;
+      }
+      return NONE;
+    }
+    if (!Number.class.isAssignableFrom(targetType)) {
+      return NONE;
+    }
+    if (Number.class.isAssignableFrom(sourceType)) {
+      return value -> {
+        Number number = toNumber((Number) value, targetType);
+        return number != null ? number : ConvertUtils.convert(value, targetType);
+      };
+    }
+    if (sourceType == String.class) {
+      return value -> {
+        try {
+          Number number = parseNumber(((String) value).trim(), targetType);
+          if (number != null) {
+            return number;
+          }
+        } catch (NumberFormatException ignored) {
+          // 交给 ConvertUtils 处理默认值
+        }
+        return ConvertUtils.convert(value, targetType);
+      };
+    }
+    return NONE;
+  }
+
+  /**
+   * 数字转换为指定数字类型，与 {@link org.apache.commons.beanutils.converters.NumberConverter} 一致；超出范围或不支持时返回 null
+   */
+  private static Number toNumber(Number value, Class<?> targetType) {
+    if (targetType == Integer.class) {
+      long longValue = value.longValue();
+      return longValue > Integer.MAX_VALUE || longValue < Integer.MIN_VALUE ? null : Integer.valueOf(value.intValue());
+    }
+    if (targetType == Long.class) {
+      return value.longValue();
+    }
+    if (targetType == Double.class) {
+      return value.doubleValue();
+    }
+    if (targetType == Short.class) {
+      long longValue = value.longValue();
+      return longValue > Short.MAX_VALUE || longValue < Short.MIN_VALUE ? null : Short.valueOf(value.shortValue());
+    }
+    if (targetType == Byte.class) {
+      long longValue = value.longValue();
+      return longValue > Byte.MAX_VALUE || longValue < Byte.MIN_VALUE ? null : Byte.valueOf(value.byteValue());
+    }
+    if (targetType == Float.class) {
+      return value.doubleValue() > Float.MAX_VALUE ? null : Float.valueOf(value.floatValue());
+    }
+    if (targetType == BigDecimal.class) {
+      if (value instanceof Float || value instanceof Double) {
+        return new BigDecimal(value.toString());
+      }
+      if (value instanceof BigInteger) {
+        return new BigDecimal((BigInteger) value);
+      }
+      return BigDecimal.valueOf(value.longValue());
+    }
+    if (targetType == BigInteger.class) {
+      if (value instanceof BigDecimal) {
+        return ((BigDecimal) value).toBigInteger();
+      }
+      return BigInteger.valueOf(value.longValue());
+    }
+    return null;
+  }
+
+  /**
+   * 字符串转换为指定数字类型；不支持时返回 null
+   */
+  private static Number parseNumber(String value, Class<?> targetType) {
+    if (targetType == Integer.class) {
+      return Integer.valueOf(value);
+    }
+    if (targetType == Long.class) {
+      return Long.valueOf(value);
+    }
+    if (targetType == Double.class) {
+      return Double.valueOf(value);
+    }
+    if (targetType == Short.class) {
+      return Short.valueOf(value);
+    }
+    if (targetType == Byte.class) {
+      return Byte.valueOf(value);
+    }
+    if (targetType == Float.class) {
+      return Float.valueOf(value);
+    }
+    if (targetType == BigDecimal.class) {
+      return new BigDecimal(value);
+    }
+    if (targetType == BigInteger.class) {
+      return new BigInteger(value);
+    }
+    return null;
+  }
 }
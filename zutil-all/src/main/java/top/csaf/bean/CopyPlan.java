@@ -0,0 +1,196 @@
+package top.csaf.bean;
+
+import org.springframework.beans.FatalBeanException;
+import org.springframework.core.ResolvableType;
+import org.springframework.util.ClassUtils;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * 属性复制计划
+ * <p>
+ * 每对（源类，目标类）只解析一次：按 Spring {@link org.springframework.beans.BeanUtils#copyProperties(Object, Object)} 的规则匹配同名且类型可赋值的属性，
+ * 记录源属性的 Getter 和目标属性的 Setter（{@link PropertyAccessor}），并将目标类的 public 无参构造方法通过 {@link LambdaMetafactory} 生成为 {@link Supplier}。
+ * 之后每次复制只依次调用已生成的函数
+ *
+ * @param <T> 目标类型
+ */
+final class CopyPlan<T> {
+
+  private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+  /**
+   * 源类到（目标类到复制计划）的缓存
+   * <p>
+   * 两层都是 {@link ClassValue}，复制计划保存在目标类上，源类不强引用目标类，目标类所在的类加载器（如重新部署的 Web 应用、插件）可以被卸载
+   */
+  private static final ClassValue<ClassValue<CopyPlan<?>>> CACHE = new ClassValue<ClassValue<CopyPlan<?>>>() {
+    @Override
+    protected ClassValue<CopyPlan<?>> computeValue(Class<?> sourceClass) {
+      return new ClassValue<CopyPlan<?>>() {
+        @Override
+        protected CopyPlan<?> computeValue(Class<?> targetClass) {
+          return new CopyPlan<>(sourceClass, targetClass);
+        }
+      };
+    }
+  };
+
+  /**
+   * 目标类到无参构造方法的缓存
+   */
+  private static final ClassValue<Supplier<?>> CONSTRUCTORS = new ClassValue<Supplier<?>>() {
+    @Override
+    protected Supplier<?> computeValue(Class<?> type) {
+      return createConstructor(type);
+    }
+  };
+
+  private final Class<?> sourceClass;
+  private final Class<T> targetClass;
+  /**
+   * 目标类的无参构造方法，不存在 public 无参构造方法时为 null
+   */
+  private final Supplier<T> constructor;
+  /**
+   * 源属性访问器，与 {@link #writers} 一一对应
+   */
+  private final PropertyAccessor[] readers;
+  /**
+   * 目标属性访问器
+   */
+  private final PropertyAccessor[] writers;
+
+  private CopyPlan(Class<?> sourceClass, Class<T> targetClass) {
+    this.sourceClass = sourceClass;
+    this.targetClass = targetClass;
+    this.constructor = constructor(targetClass);
+    Map<String, PropertyAccessor> sourceAccessors = PropertyAccessor.forClass(sourceClass);
+    List<PropertyAccessor> readerList = new ArrayList<>();
+    List<PropertyAccessor> writerList = new ArrayList<>();
+    for (PropertyAccessor writer : PropertyAccessor.forClass(targetClass).values()) {
+      if (!writer.isWritable()) {
+        continue;
+      }
+      PropertyAccessor reader = sourceAccessors.get(writer.getName());
+      if (reader != null && reader.isReadable() && isAssignable(reader.getReadMethod(), writer.getWriteMethod())) {
+        readerList.add(reader);
+        writerList.add(writer);
+      }
+    }
+    this.readers = readerList.toArray(new PropertyAccessor[0]);
+    this.writers = writerList.toArray(new PropertyAccessor[0]);
+  }
+
+  /**
+   * 获取复制计划
+   *
+   * @param sourceClass 源类
+   * @param targetClass 目标类
+   * @param <T>         目标类型
+   * @return 复制计划
+   */
+  @SuppressWarnings("unchecked")
+  static <T> CopyPlan<T> of(Class<?> sourceClass, Class<T> targetClass) {
+    return (CopyPlan<T>) CACHE.get(sourceClass).get(targetClass);
+  }
+
+  /**
+   * 获取目标类的无参构造方法
+   *
+   * @param targetClass 目标类
+   * @param <T>         目标类型
+   * @return 无参构造方法，不存在 public 无参构造方法时为 null
+   */
+  @SuppressWarnings("unchecked")
+  static <T> Supplier<T> constructor(Class<T> targetClass) {
+    return (Supplier<T>) CONSTRUCTORS.get(targetClass);
+  }
+
+  /**
+   * 与 Spring 一致的类型匹配：泛型可解析时按泛型判断，否则按原始类型（含基本类型与包装类型）判断
+   */
+  private static boolean isAssignable(Method readMethod, Method writeMethod) {
+    ResolvableType sourceType = ResolvableType.forMethodReturnType(readMethod);
+    ResolvableType targetType = ResolvableType.forMethodParameter(writeMethod, 0);
+    if (sourceType.hasUnresolvableGenerics() || targetType.hasUnresolvableGenerics()) {
+      return ClassUtils.isAssignable(writeMethod.getParameterTypes()[0], readMethod.getReturnType());
+    }
+    return targetType.isAssignableFrom(sourceType);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> Supplier<T> createConstructor(Class<T> targetClass) {
+    Constructor<T> constructor;
+    try {
+      constructor = targetClass.getConstructor();
+    } catch (NoSuchMethodException e) {
+      return null;
+    }
+    if (Modifier.isPublic(targetClass.getModifiers()) && !Modifier.isAbstract(targetClass.getModifiers())
+      && ClassUtils.isVisible(targetClass, CopyPlan.class.getClassLoader())) {
+      try {
+        CallSite callSite = LambdaMetafactory.metafactory(LOOKUP, "get", MethodType.methodType(Supplier.class),
+          MethodType.methodType(Object.class), LOOKUP.unreflectConstructor(constructor), MethodType.methodType(targetClass));
+        return (Supplier<T>) callSite.getTarget().invokeExact();
+      } catch (Throwable ignored) {
+        // 退回到反射调用
+      }
+    }
+    return () -> {
+      try {
+        return constructor.newInstance();
+      } catch (InstantiationException | IllegalAccessException e) {
+        throw new IllegalStateException(e.getMessage(), e);
+      } catch (InvocationTargetException e) {
+        throw new IllegalStateException(e.getCause().getMessage(), e.getCause());
+      }
+    };
+  }
+
+  Class<?> getSourceClass() {
+    return sourceClass;
+  }
+
+  /**
+   * 创建目标对象
+   *
+   * @return 目标对象
+   */
+  T newInstance() {
+    if (constructor == null) {
+      throw new IllegalArgumentException("targetClass: " + targetClass.getName() + " must have no args constructor");
+    }
+    return constructor.get();
+  }
+
+  /**
+   * 复制属性
+   *
+   * @param source 源对象
+   * @param target 目标对象
+   */
+  void copy(Object source, Object target) {
+    for (int i = 0; i < writers.length; i++) {
+      PropertyAccessor writer = writers[i];
+      try {
+        Object value = readers[i].get(source);
+        writer.checkValue(value);
+        writer.set(target, value);
+      } catch (Throwable e) {
+        throw new FatalBeanException("Could not copy property '" + writer.getName() + "' from source to target", e);
+      }
+    }
+  }
+}
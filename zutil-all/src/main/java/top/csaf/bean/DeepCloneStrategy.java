@@ -0,0 +1,69 @@
+package top.csaf.bean;
+
+import top.csaf.json.JsonUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 深克隆策略
+ * <p>
+ * 通过 {@link BeanUtil#setDeepCloneStrategy(DeepCloneStrategy)} 替换 {@link BeanUtil#deepClone(Object)} 的默认策略，
+ * 或通过 {@link BeanUtil#deepClone(Object, DeepCloneStrategy)} 指定单次克隆的策略。
+ * 克隆开销随对象结构差异很大，可基于 DeepCloneTest 的基准测试为具体的对象结构选择策略，基于 Kryo、protostuff 的策略见 {@link KryoDeepCloneStrategy}、{@link ProtostuffDeepCloneStrategy}，其他序列化库可自行实现本接口接入
+ */
+public interface DeepCloneStrategy {
+
+  /**
+   * 按类缓存克隆计划逐字段复制，共享引用和循环引用在克隆结果中保持不变，默认策略
+   */
+  DeepCloneStrategy PLAN = new DeepCloneStrategy() {
+    @Override
+    public <T> T deepClone(T source) {
+      return DeepCloner.deepClone(source);
+    }
+
+    @Override
+    public <T> List<T> deepClone(List<T> source) {
+      return DeepCloner.deepClone(source);
+    }
+  };
+
+  /**
+   * 序列化为 JSON 后再解析为源对象的类型，只复制可序列化的属性
+   */
+  DeepCloneStrategy JSON = new DeepCloneStrategy() {
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T deepClone(T source) {
+      if (source == null) {
+        return null;
+      }
+      return (T) JsonUtil.parseObject(JsonUtil.toJsonNoFeature(source), source.getClass());
+    }
+  };
+
+  /**
+   * 深克隆
+   *
+   * @param source 源对象
+   * @param <T>    源对象类型
+   * @return 深克隆后的对象，源对象为 null 时返回 null
+   */
+  <T> T deepClone(T source);
+
+  /**
+   * 深克隆列表中的每个元素
+   *
+   * @param source 源列表
+   * @param <T>    元素类型
+   * @return 深克隆后的列表
+   */
+  default <T> List<T> deepClone(List<T> source) {
+    List<T> result = new ArrayList<>(source.size());
+    for (T t : source) {
+      result.add(deepClone(t));
+    }
+    return result;
+  }
+}
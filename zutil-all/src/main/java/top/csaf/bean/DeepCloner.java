@@ -0,0 +1,564 @@
+package top.csaf.bean;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.*;
+import java.util.function.Function;
+
+/**
+ * 深克隆引擎
+ * <p>
+ * 每个类首次克隆时生成克隆计划并通过 {@link ClassValue} 缓存：
+ * <ul>
+ *   <li>不可变类型（字符串、包装类、枚举、java.time、{@link java.nio.file.Path}、实现 {@link Immutable} 的类等）直接共享</li>
+ *   <li>数组按组件类型复制，基本类型数组直接拷贝</li>
+ *   <li>JDK 集合、Map 创建同类型（无法创建时为 {@link ArrayList}、{@link LinkedHashSet}、{@link TreeSet}、{@link LinkedHashMap}、{@link TreeMap} 等）的新实例后逐个克隆元素，保留排序比较器</li>
+ *   <li>实现 {@link Cloneable} 且有 public clone 方法的其他 JDK 类型（{@link Date} 等）调用 clone</li>
+ *   <li>Atomic*、{@link StringBuilder}、{@link StringBuffer} 创建新实例，其他无法复制的 JDK 类型克隆时抛出 {@link IllegalArgumentException}</li>
+ *   <li>其他类型通过无参构造方法创建实例后逐个复制字段，继承 JDK 集合、Map 的类再复制其中的元素</li>
+ * </ul>
+ * 一次克隆中同一对象只克隆一次，对象间的共享引用和循环引用在克隆结果中保持不变
+ */
+final class DeepCloner {
+
+  private static final ClassValue<ClonePlan> PLANS = new ClassValue<ClonePlan>() {
+    @Override
+    protected ClonePlan computeValue(Class<?> type) {
+      return createPlan(type);
+    }
+  };
+
+  /**
+   * 不可变类型
+   */
+  private static final Set<Class<?>> IMMUTABLE_TYPES = new HashSet<>(Arrays.asList(
+    String.class, Boolean.class, Character.class, Byte.class, Short.class, Integer.class, Long.class, Float.class, Double.class,
+    BigInteger.class, BigDecimal.class, Class.class, Object.class, UUID.class, Locale.class, Currency.class,
+    java.net.URI.class, java.net.URL.class, java.util.regex.Pattern.class, java.io.File.class, java.nio.charset.Charset.class,
+    Optional.class, OptionalInt.class, OptionalLong.class, OptionalDouble.class));
+
+  /**
+   * 源对象到克隆结果
+   */
+  private final Map<Object, Object> cloned = new IdentityHashMap<>();
+
+  /**
+   * 深克隆
+   *
+   * @param source 源对象
+   * @param <T>    源对象类型
+   * @return 深克隆后的对象
+   */
+  static <T> T deepClone(T source) {
+    return new DeepCloner().clone(source);
+  }
+
+  /**
+   * 深克隆列表中的每个元素，元素间的共享引用在克隆结果中保持不变
+   *
+   * @param source 源列表
+   * @param <T>    元素类型
+   * @return 深克隆后的列表
+   */
+  static <T> List<T> deepClone(List<T> source) {
+    DeepCloner cloner = new DeepCloner();
+    List<T> result = new ArrayList<>(source.size());
+    for (T t : source) {
+      result.add(cloner.clone(t));
+    }
+    return result;
+  }
+
+  @SuppressWarnings("unchecked")
+  <T> T clone(T source) {
+    if (source == null) {
+      return null;
+    }
+    ClonePlan plan = PLANS.get(source.getClass());
+    if (plan == SHARED) {
+      return source;
+    }
+    Object target = cloned.get(source);
+    if (target == null) {
+      target = plan.copy(source, this);
+    }
+    return (T) target;
+  }
+
+  /**
+   * 记录克隆结果，需在复制子对象之前调用，使循环引用指向同一个克隆结果
+   */
+  private void register(Object source, Object target) {
+    cloned.put(source, target);
+  }
+
+  /**
+   * 是否为 JDK 类型，JDK 类型的字段不能通过反射复制
+   */
+  static boolean isJdkType(Class<?> type) {
+    String name = type.getName();
+    return name.startsWith("java.") || name.startsWith("javax.") || name.startsWith("jdk.") || name.startsWith("sun.") || name.startsWith("com.sun.");
+  }
+
+  private static ClonePlan createPlan(Class<?> type) {
+    if (IMMUTABLE_TYPES.contains(type) || Immutable.class.isAssignableFrom(type) || type.isEnum() || Enum.class.isAssignableFrom(type)
+      || type.getName().startsWith("java.time.") || type.isSynthetic() || Proxy.isProxyClass(type)) {
+      return SHARED;
+    }
+    if (type.isArray()) {
+      return type.getComponentType().isPrimitive() ? PRIMITIVE_ARRAY : OBJECT_ARRAY;
+    }
+    if (isJdkType(type)) {
+      if (EnumSet.class.isAssignableFrom(type)) {
+        return createCloneablePlan(EnumSet.class);
+      }
+      if (EnumMap.class.isAssignableFrom(type)) {
+        return new MapPlan(DeepCloner::newEnumMap);
+      }
+      if (Collection.class.isAssignableFrom(type)) {
+        return new CollectionPlan(collectionFactory(type));
+      }
+      if (Map.class.isAssignableFrom(type)) {
+        return new MapPlan(mapFactory(type));
+      }
+      // 实现类为 JDK 内部类的不可变类型
+      if (java.nio.file.Path.class.isAssignableFrom(type) || java.net.InetAddress.class.isAssignableFrom(type)
+        || java.nio.charset.Charset.class.isAssignableFrom(type)) {
+        return SHARED;
+      }
+      ClonePlan plan = createMutablePlan(type);
+      if (plan != null) {
+        return plan;
+      }
+      if (Cloneable.class.isAssignableFrom(type)) {
+        return createCloneablePlan(type);
+      }
+      return unsupportedPlan(type);
+    }
+    return new BeanPlan(type);
+  }
+
+  /**
+   * 无法复制的类型，克隆时抛出异常，避免源对象和克隆结果共享可变状态
+   */
+  private static ClonePlan unsupportedPlan(Class<?> type) {
+    return (source, cloner) -> {
+      throw new IllegalArgumentException("class: " + type.getName() + " can not be deep cloned");
+    };
+  }
+
+  /**
+   * 常见的可变 JDK 类型，不存在时为 null
+   */
+  private static ClonePlan createMutablePlan(Class<?> type) {
+    if (type == StringBuilder.class) {
+      return registered(source -> new StringBuilder((StringBuilder) source));
+    }
+    if (type == StringBuffer.class) {
+      return registered(source -> new StringBuffer((StringBuffer) source));
+    }
+    if (type == AtomicBoolean.class) {
+      return registered(source -> new AtomicBoolean(((AtomicBoolean) source).get()));
+    }
+    if (type == AtomicInteger.class) {
+      return registered(source -> new AtomicInteger(((AtomicInteger) source).get()));
+    }
+    if (type == AtomicLong.class) {
+      return registered(source -> new AtomicLong(((AtomicLong) source).get()));
+    }
+    if (type == AtomicIntegerArray.class) {
+      return registered(source -> {
+        AtomicIntegerArray array = (AtomicIntegerArray) source;
+        AtomicIntegerArray target = new AtomicIntegerArray(array.length());
+        for (int i = 0; i < array.length(); i++) {
+          target.set(i, array.get(i));
+        }
+        return target;
+      });
+    }
+    if (type == AtomicLongArray.class) {
+      return registered(source -> {
+        AtomicLongArray array = (AtomicLongArray) source;
+        AtomicLongArray target = new AtomicLongArray(array.length());
+        for (int i = 0; i < array.length(); i++) {
+          target.set(i, array.get(i));
+        }
+        return target;
+      });
+    }
+    if (type == AtomicReference.class) {
+      return (source, cloner) -> {
+        AtomicReference<Object> target = new AtomicReference<>();
+        cloner.register(source, target);
+        target.set(cloner.clone(((AtomicReference<?>) source).get()));
+        return target;
+      };
+    }
+    if (type == AtomicReferenceArray.class) {
+      return (source, cloner) -> {
+        AtomicReferenceArray<?> array = (AtomicReferenceArray<?>) source;
+        AtomicReferenceArray<Object> target = new AtomicReferenceArray<>(array.length());
+        cloner.register(source, target);
+        for (int i = 0; i < array.length(); i++) {
+          target.set(i, cloner.clone(array.get(i)));
+        }
+        return target;
+      };
+    }
+    return null;
+  }
+
+  /**
+   * 没有子对象的类型，创建后记录克隆结果
+   */
+  private static ClonePlan registered(Function<Object, Object> factory) {
+    return (source, cloner) -> {
+      Object target = factory.apply(source);
+      cloner.register(source, target);
+      return target;
+    };
+  }
+
+  private static ClonePlan createCloneablePlan(Class<?> type) {
+    Method cloneMethod;
+    try {
+      cloneMethod = type.getMethod("clone");
+    } catch (NoSuchMethodException e) {
+      return unsupportedPlan(type);
+    }
+    return (source, cloner) -> {
+      try {
+        Object target = cloneMethod.invoke(source);
+        cloner.register(source, target);
+        return target;
+      } catch (IllegalAccessException e) {
+        throw new IllegalStateException(e.getMessage(), e);
+      } catch (InvocationTargetException e) {
+        throw new IllegalStateException(e.getCause().getMessage(), e.getCause());
+      }
+    };
+  }
+
+  /**
+   * 创建与源 {@link EnumMap} 键类型相同的空 {@link EnumMap}，元素由 {@link MapPlan} 逐个克隆
+   */
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private static Map<Object, Object> newEnumMap(Object source) {
+    EnumMap enumMap = new EnumMap((EnumMap) source);
+    enumMap.clear();
+    return enumMap;
+  }
+
+  /**
+   * 获取 public 类的 public 构造方法，不存在时为 null
+   */
+  private static Constructor<?> publicConstructor(Class<?> type, Class<?>... parameterTypes) {
+    if (!Modifier.isPublic(type.getModifiers()) || Modifier.isAbstract(type.getModifiers())) {
+      return null;
+    }
+    try {
+      return type.getConstructor(parameterTypes);
+    } catch (NoSuchMethodException e) {
+      return null;
+    }
+  }
+
+  private static Object newInstance(Constructor<?> constructor, Object... args) {
+    try {
+      return constructor.newInstance(args);
+    } catch (InstantiationException | IllegalAccessException e) {
+      throw new IllegalStateException(e.getMessage(), e);
+    } catch (InvocationTargetException e) {
+      throw new IllegalStateException(e.getCause().getMessage(), e.getCause());
+    }
+  }
+
+  /**
+   * 获取有排序比较器的集合、Map 的比较器
+   */
+  private static Comparator<?> comparator(Object source) {
+    if (source instanceof SortedSet) {
+      return ((SortedSet<?>) source).comparator();
+    }
+    if (source instanceof SortedMap) {
+      return ((SortedMap<?, ?>) source).comparator();
+    }
+    if (source instanceof PriorityQueue) {
+      return ((PriorityQueue<?>) source).comparator();
+    }
+    return null;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Function<Object, Collection<Object>> collectionFactory(Class<?> type) {
+    boolean sorted = SortedSet.class.isAssignableFrom(type) || PriorityQueue.class.isAssignableFrom(type);
+    Constructor<?> comparatorConstructor = sorted ? publicConstructor(type, Comparator.class) : null;
+    if (comparatorConstructor != null) {
+      return source -> (Collection<Object>) newInstance(comparatorConstructor, comparator(source));
+    }
+    Constructor<?> constructor = sorted ? null : publicConstructor(type);
+    if (constructor != null) {
+      return source -> (Collection<Object>) newInstance(constructor);
+    }
+    // 不可修改、单元素等无法创建同类型实例的集合
+    if (SortedSet.class.isAssignableFrom(type)) {
+      return source -> new TreeSet<>((Comparator<Object>) comparator(source));
+    }
+    if (Set.class.isAssignableFrom(type)) {
+      return source -> new LinkedHashSet<>(Math.max((int) (((Collection<?>) source).size() / .75f) + 1, 16));
+    }
+    if (Queue.class.isAssignableFrom(type) && !List.class.isAssignableFrom(type)) {
+      return source -> new LinkedList<>();
+    }
+    return source -> new ArrayList<>(((Collection<?>) source).size());
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Function<Object, Map<Object, Object>> mapFactory(Class<?> type) {
+    boolean sorted = SortedMap.class.isAssignableFrom(type);
+    Constructor<?> comparatorConstructor = sorted ? publicConstructor(type, Comparator.class) : null;
+    if (comparatorConstructor != null) {
+      return source -> (Map<Object, Object>) newInstance(comparatorConstructor, comparator(source));
+    }
+    Constructor<?> constructor = sorted ? null : publicConstructor(type);
+    if (constructor != null) {
+      return source -> (Map<Object, Object>) newInstance(constructor);
+    }
+    // 不可修改、单元素等无法创建同类型实例的 Map
+    if (sorted) {
+      return source -> new TreeMap<>((Comparator<Object>) comparator(source));
+    }
+    if (ConcurrentMap.class.isAssignableFrom(type)) {
+      return source -> new ConcurrentHashMap<>();
+    }
+    return source -> new LinkedHashMap<>(Math.max((int) (((Map<?, ?>) source).size() / .75f) + 1, 16));
+  }
+
+  /**
+   * 克隆计划
+   */
+  @FunctionalInterface
+  private interface ClonePlan {
+    /**
+     * 克隆对象，需在复制子对象之前通过 {@link #register(Object, Object)} 记录克隆结果
+     */
+    Object copy(Object source, DeepCloner cloner);
+  }
+
+  /**
+   * 直接共享，不克隆
+   */
+  private static final ClonePlan SHARED = (source, cloner) -> source;
+
+  private static final ClonePlan PRIMITIVE_ARRAY = (source, cloner) -> {
+    int length = Array.getLength(source);
+    Object target = Array.newInstance(source.getClass().getComponentType(), length);
+    System.arraycopy(source, 0, target, 0, length);
+    cloner.register(source, target);
+    return target;
+  };
+
+  private static final ClonePlan OBJECT_ARRAY = (source, cloner) -> {
+    Object[] sourceArray = (Object[]) source;
+    Object[] target = (Object[]) Array.newInstance(source.getClass().getComponentType(), sourceArray.length);
+    cloner.register(source, target);
+    for (int i = 0; i < sourceArray.length; i++) {
+      target[i] = cloner.clone(sourceArray[i]);
+    }
+    return target;
+  };
+
+  private static final class CollectionPlan implements ClonePlan {
+    private final Function<Object, Collection<Object>> factory;
+
+    CollectionPlan(Function<Object, Collection<Object>> factory) {
+      this.factory = factory;
+    }
+
+    @Override
+    public Object copy(Object source, DeepCloner cloner) {
+      Collection<Object> target = factory.apply(source);
+      cloner.register(source, target);
+      for (Object element : (Collection<?>) source) {
+        target.add(cloner.clone(element));
+      }
+      return target;
+    }
+  }
+
+  private static final class MapPlan implements ClonePlan {
+    private final Function<Object, Map<Object, Object>> factory;
+
+    MapPlan(Function<Object, Map<Object, Object>> factory) {
+      this.factory = factory;
+    }
+
+    @Override
+    public Object copy(Object source, DeepCloner cloner) {
+      Map<Object, Object> target = factory.apply(source);
+      cloner.register(source, target);
+      for (Map.Entry<?, ?> entry : ((Map<?, ?>) source).entrySet()) {
+        target.put(cloner.clone(entry.getKey()), cloner.clone(entry.getValue()));
+      }
+      return target;
+    }
+  }
+
+  /**
+   * 逐个复制字段，包括非 JDK 父类的字段；继承 JDK 集合、Map 的类再复制其中的元素
+   */
+  private static final class BeanPlan implements ClonePlan {
+    private final Class<?> type;
+    /**
+     * 无参构造方法，不存在时为 null
+     */
+    private final Constructor<?> constructor;
+    private final Field[] primitiveFields;
+    private final Field[] referenceFields;
+    private final boolean isCollection;
+    private final boolean isMap;
+    /**
+     * 有实例字段的 JDK 父类（集合、Map 除外），不存在时为 null
+     */
+    private final Class<?> statefulJdkSuperclass;
+    /**
+     * 继承有状态的 JDK 父类时用于复制父类状态的 public clone 方法，不存在时为 null
+     */
+    private final Method cloneMethod;
+
+    BeanPlan(Class<?> type) {
+      this.type = type;
+      Constructor<?> noArgsConstructor;
+      try {
+        noArgsConstructor = type.getDeclaredConstructor();
+        noArgsConstructor.setAccessible(true);
+      } catch (NoSuchMethodException e) {
+        noArgsConstructor = null;
+      }
+      this.constructor = noArgsConstructor;
+      List<Field> primitives = new ArrayList<>();
+      List<Field> references = new ArrayList<>();
+      Class<?> c = type;
+      for (; c != null && !isJdkType(c); c = c.getSuperclass()) {
+        for (Field field : c.getDeclaredFields()) {
+          if (Modifier.isStatic(field.getModifiers())) {
+            continue;
+          }
+          field.setAccessible(true);
+          (field.getType().isPrimitive() ? primitives : references).add(field);
+        }
+      }
+      this.primitiveFields = primitives.toArray(new Field[0]);
+      this.referenceFields = references.toArray(new Field[0]);
+      this.isCollection = Collection.class.isAssignableFrom(type);
+      this.isMap = Map.class.isAssignableFrom(type);
+      // 集合、Map 的父类状态通过复制元素重建，其他 JDK 父类的字段无法通过反射复制
+      this.statefulJdkSuperclass = isCollection || isMap || !hasInstanceFields(c) ? null : c;
+      Method publicClone = null;
+      if (statefulJdkSuperclass != null && Cloneable.class.isAssignableFrom(type)) {
+        try {
+          publicClone = type.getMethod("clone");
+        } catch (NoSuchMethodException e) {
+          // 没有 public clone 方法，克隆时抛出异常
+        }
+      }
+      this.cloneMethod = publicClone;
+    }
+
+    /**
+     * JDK 类及其父类是否有实例字段
+     */
+    private static boolean hasInstanceFields(Class<?> type) {
+      for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+        for (Field field : c.getDeclaredFields()) {
+          if (!Modifier.isStatic(field.getModifiers())) {
+            return true;
+          }
+        }
+      }
+      return false;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object copy(Object source, DeepCloner cloner) {
+      Object target;
+      if (statefulJdkSuperclass != null) {
+        // 通过 clone 复制 JDK 父类的状态，再深克隆自身声明的字段
+        if (cloneMethod == null) {
+          throw new IllegalArgumentException("class: " + type.getName() + " extends " + statefulJdkSuperclass.getName()
+            + " and has no public clone method, its superclass state can not be deep cloned");
+        }
+        try {
+          target = cloneMethod.invoke(source);
+        } catch (IllegalAccessException e) {
+          throw new IllegalStateException(e.getMessage(), e);
+        } catch (InvocationTargetException e) {
+          throw new IllegalStateException(e.getCause().getMessage(), e.getCause());
+        }
+      } else {
+        if (constructor == null) {
+          throw new IllegalArgumentException("class: " + type.getName() + " must have no args constructor");
+        }
+        target = newInstance(constructor);
+      }
+      cloner.register(source, target);
+      try {
+        for (Field field : primitiveFields) {
+          copyPrimitive(field, source, target);
+        }
+        for (Field field : referenceFields) {
+          field.set(target, cloner.clone(field.get(source)));
+        }
+      } catch (IllegalAccessException e) {
+        throw new IllegalStateException(e.getMessage(), e);
+      }
+      if (isMap) {
+        Map<Object, Object> targetMap = (Map<Object, Object>) target;
+        for (Map.Entry<?, ?> entry : ((Map<?, ?>) source).entrySet()) {
+          targetMap.put(cloner.clone(entry.getKey()), cloner.clone(entry.getValue()));
+        }
+      } else if (isCollection) {
+        Collection<Object> targetCollection = (Collection<Object>) target;
+        for (Object element : (Collection<?>) source) {
+          targetCollection.add(cloner.clone(element));
+        }
+      }
+      return target;
+    }
+
+    /**
+     * 按类型复制基本类型字段，避免装箱
+     */
+    private static void copyPrimitive(Field field, Object source, Object target) throws IllegalAccessException {
+      Class<?> fieldType = field.getType();
+      if (fieldType == int.class) {
+        field.setInt(target, field.getInt(source));
+      } else if (fieldType == long.class) {
+        field.setLong(target, field.getLong(source));
+      } else if (fieldType == boolean.class) {
+        field.setBoolean(target, field.getBoolean(source));
+      } else if (fieldType == double.class) {
+        field.setDouble(target, field.getDouble(source));
+      } else if (fieldType == float.class) {
+        field.setFloat(target, field.getFloat(source));
+      } else if (fieldType == char.class) {
+        field.setChar(target, field.getChar(source));
+      } else if (fieldType == short.class) {
+        field.setShort(target, field.getShort(source));
+      } else {
+        field.setByte(target, field.getByte(source));
+      }
+    }
+  }
+}
@@ -0,0 +1,9 @@
+package top.csaf.bean;
+
+/**
+ * 不可变类型标记
+ * <p>
+ * 实现本接口的类在 {@link BeanUtil#deepClone(Object)} 的默认策略中直接共享，不复制；实现类需保证创建后状态不再改变，或只包含不影响相等性的缓存
+ */
+public interface Immutable {
+}
@@ -0,0 +1,28 @@
+package top.csaf.bean;
+
+import com.esotericsoftware.kryo.Kryo;
+
+/**
+ * 基于 <a href="https://github.com/EsotericSoftware/kryo">Kryo</a> {@link Kryo#copy(Object)} 的深克隆策略
+ * <p>
+ * Kryo 实例非线程安全，每个线程一个实例；开启引用跟踪以支持共享引用和循环引用
+ * <p>
+ * 依赖为可选依赖，使用时需自行引入 com.esotericsoftware:kryo
+ */
+public class KryoDeepCloneStrategy implements DeepCloneStrategy {
+
+  private static final ThreadLocal<Kryo> KRYO = ThreadLocal.withInitial(() -> {
+    Kryo kryo = new Kryo();
+    kryo.setReferences(true);
+    kryo.setRegistrationRequired(false);
+    return kryo;
+  });
+
+  @Override
+  public <T> T deepClone(T source) {
+    if (source == null) {
+      return null;
+    }
+    return KRYO.get().copy(source);
+  }
+}
@@ -0,0 +1,120 @@
+package top.csaf.bean;
+
+import top.csaf.lang.StrUtil;
+
+import java.beans.Introspector;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.SerializedLambda;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * {@link PropFunc} 解析出的属性信息
+ * <p>
+ * 同一处方法引用生成的 Lambda 类相同，解析结果通过 {@link ClassValue} 按 Lambda 类缓存，只在首次使用时调用 writeReplace 解析 {@link SerializedLambda}，
+ * 缓存不阻止 Lambda 类及其类加载器的卸载
+ */
+final class LambdaProperty {
+
+  private static final ClassValue<Holder> CACHE = new ClassValue<Holder>() {
+    @Override
+    protected Holder computeValue(Class<?> type) {
+      return new Holder();
+    }
+  };
+
+  /**
+   * 缓存的解析结果，{@link ClassValue} 计算时只有 Lambda 类没有实例，首次使用时再解析
+   */
+  private static final class Holder {
+    private volatile LambdaProperty value;
+  }
+
+  /**
+   * 属性名
+   */
+  private final String name;
+  /**
+   * 列名
+   */
+  private final String columnName;
+  /**
+   * Getter 方法描述符，用于解析属性类
+   */
+  private final String implMethodSignature;
+  /**
+   * Lambda 类的类加载器，用于解析属性类
+   */
+  private final ClassLoader classLoader;
+  /**
+   * 属性类，首次获取时解析
+   */
+  private volatile Class<?> type;
+
+  private LambdaProperty(PropFunc<?, ?> fn) {
+    SerializedLambda serializedLambda;
+    try {
+      Method writeReplace = fn.getClass().getDeclaredMethod("writeReplace");
+      writeReplace.setAccessible(true);
+      serializedLambda = (SerializedLambda) writeReplace.invoke(fn);
+    } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+      throw new RuntimeException(e);
+    }
+    this.name = toPropertyName(serializedLambda.getImplMethodName());
+    this.columnName = StrUtil.toUnderscore(name);
+    this.implMethodSignature = serializedLambda.getImplMethodSignature();
+    this.classLoader = fn.getClass().getClassLoader();
+  }
+
+  /**
+   * 获取 {@link PropFunc} 的属性信息
+   *
+   * @param fn 属性 Getter
+   * @return 属性信息
+   */
+  static LambdaProperty of(PropFunc<?, ?> fn) {
+    Holder holder = CACHE.get(fn.getClass());
+    LambdaProperty property = holder.value;
+    if (property == null) {
+      // 并发时可能重复解析，结果相同
+      property = new LambdaProperty(fn);
+      holder.value = property;
+    }
+    return property;
+  }
+
+  /**
+   * Getter 方法名转属性名，去掉 get、is 前缀
+   */
+  private static String toPropertyName(String methodName) {
+    if (methodName.startsWith("get") && methodName.length() > 3) {
+      return Introspector.decapitalize(methodName.substring(3));
+    }
+    if (methodName.startsWith("is") && methodName.length() > 2 && Character.isUpperCase(methodName.charAt(2))) {
+      return Introspector.decapitalize(methodName.substring(2));
+    }
+    return Introspector.decapitalize(methodName);
+  }
+
+  String getName() {
+    return name;
+  }
+
+  String getColumnName() {
+    return columnName;
+  }
+
+  /**
+   * 获取属性类，即 Getter 的返回类型
+   *
+   * @return 属性类
+   */
+  Class<?> getType() {
+    Class<?> result = type;
+    if (result == null) {
+      result = MethodType.fromMethodDescriptorString(implMethodSignature, classLoader).returnType();
+      type = result;
+    }
+    return result;
+  }
+}
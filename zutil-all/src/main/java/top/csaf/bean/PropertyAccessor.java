@@ -0,0 +1,236 @@
+package top.csaf.bean;
+
+import org.springframework.util.ClassUtils;
+
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * 属性访问器
+ * <p>
+ * 每个类首次访问时通过 Spring 的 {@link org.springframework.beans.BeanUtils#getPropertyDescriptors(Class)} 解析所有属性，
+ * 并通过 {@link LambdaMetafactory} 将 Getter、Setter 生成为 {@link Function}、{@link BiConsumer}，之后的访问等同于直接调用方法。
+ * 无法生成时（非 public 类、Bean 类对本类的类加载器不可见等）退回到反射调用。
+ * <p>
+ * 解析结果通过 {@link ClassValue} 按类缓存，不阻止类的卸载
+ */
+final class PropertyAccessor {
+
+  private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+  private static final ClassValue<Map<String, PropertyAccessor>> CACHE = new ClassValue<Map<String, PropertyAccessor>>() {
+    @Override
+    protected Map<String, PropertyAccessor> computeValue(Class<?> type) {
+      PropertyDescriptor[] propertyDescriptors = org.springframework.beans.BeanUtils.getPropertyDescriptors(type);
+      Map<String, PropertyAccessor> accessors = new LinkedHashMap<>(propertyDescriptors.length * 2);
+      boolean visible = isVisible(type);
+      for (PropertyDescriptor propertyDescriptor : propertyDescriptors) {
+        accessors.put(propertyDescriptor.getName(), new PropertyAccessor(propertyDescriptor, visible));
+      }
+      return Collections.unmodifiableMap(accessors);
+    }
+  };
+
+  /**
+   * 属性名
+   */
+  private final String name;
+  /**
+   * 属性类型
+   */
+  private final Class<?> type;
+  /**
+   * Getter，不存在时为 null
+   */
+  private final Method readMethod;
+  /**
+   * Setter，不存在时为 null
+   */
+  private final Method writeMethod;
+  /**
+   * Setter 的参数类型，不存在 Setter 时为 null
+   */
+  private final Class<?> writeType;
+  private final Function<Object, Object> getter;
+  private final BiConsumer<Object, Object> setter;
+
+  private PropertyAccessor(PropertyDescriptor propertyDescriptor, boolean visible) {
+    this.name = propertyDescriptor.getName();
+    this.type = propertyDescriptor.getPropertyType();
+    this.readMethod = propertyDescriptor.getReadMethod();
+    this.writeMethod = propertyDescriptor.getWriteMethod();
+    this.writeType = writeMethod == null ? null : writeMethod.getParameterTypes()[0];
+    this.getter = readMethod == null ? null : createGetter(readMethod, visible);
+    this.setter = writeMethod == null ? null : createSetter(writeMethod, visible);
+  }
+
+  /**
+   * 获取类的所有属性访问器
+   *
+   * @param beanClass 类
+   * @return 属性名到访问器的只读 Map，按属性描述顺序排列
+   */
+  static Map<String, PropertyAccessor> forClass(Class<?> beanClass) {
+    return CACHE.get(beanClass);
+  }
+
+  /**
+   * 获取类的属性访问器
+   *
+   * @param beanClass 类
+   * @param name      属性名
+   * @return 属性访问器，不存在时为 null
+   */
+  static PropertyAccessor of(Class<?> beanClass, String name) {
+    return CACHE.get(beanClass).get(name);
+  }
+
+  /**
+   * 类对本类的类加载器是否可见，生成的 Lambda 类定义在本类的类加载器中
+   */
+  private static boolean isVisible(Class<?> type) {
+    while (type.isArray()) {
+      type = type.getComponentType();
+    }
+    return type.isPrimitive() || ClassUtils.isVisible(type, PropertyAccessor.class.getClassLoader());
+  }
+
+  /**
+   * 方法及其所属类是否都为 public
+   */
+  private static boolean isPublic(Method method) {
+    return Modifier.isPublic(method.getModifiers()) && Modifier.isPublic(method.getDeclaringClass().getModifiers());
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Function<Object, Object> createGetter(Method readMethod, boolean visible) {
+    if (visible && isPublic(readMethod) && isVisible(readMethod.getReturnType())) {
+      try {
+        MethodHandle handle = LOOKUP.unreflect(readMethod);
+        CallSite callSite = LambdaMetafactory.metafactory(LOOKUP, "apply", MethodType.methodType(Function.class),
+          MethodType.methodType(Object.class, Object.class), handle,
+          MethodType.methodType(ClassUtils.resolvePrimitiveIfNecessary(readMethod.getReturnType()), readMethod.getDeclaringClass()));
+        return (Function<Object, Object>) callSite.getTarget().invokeExact();
+      } catch (Throwable ignored) {
+        // 退回到反射调用
+      }
+    }
+    if (!isPublic(readMethod)) {
+      readMethod.setAccessible(true);
+    }
+    return bean -> {
+      try {
+        return readMethod.invoke(bean);
+      } catch (IllegalAccessException e) {
+        throw new IllegalStateException(e.getMessage(), e);
+      } catch (InvocationTargetException e) {
+        throw sneakyThrow(e.getCause());
+      }
+    };
+  }
+
+  @SuppressWarnings("unchecked")
+  private static BiConsumer<Object, Object> createSetter(Method writeMethod, boolean visible) {
+    Class<?> parameterType = writeMethod.getParameterTypes()[0];
+    if (visible && isPublic(writeMethod) && isVisible(parameterType)) {
+      try {
+        MethodHandle handle = LOOKUP.unreflect(writeMethod);
+        CallSite callSite = LambdaMetafactory.metafactory(LOOKUP, "accept", MethodType.methodType(BiConsumer.class),
+          MethodType.methodType(void.class, Object.class, Object.class), handle,
+          MethodType.methodType(void.class, writeMethod.getDeclaringClass(), ClassUtils.resolvePrimitiveIfNecessary(parameterType)));
+        return (BiConsumer<Object, Object>) callSite.getTarget().invokeExact();
+      } catch (Throwable ignored) {
+        // 退回到反射调用
+      }
+    }
+    if (!isPublic(writeMethod)) {
+      writeMethod.setAccessible(true);
+    }
+    return (bean, value) -> {
+      try {
+        writeMethod.invoke(bean, value);
+      } catch (IllegalAccessException e) {
+        throw new IllegalStateException(e.getMessage(), e);
+      } catch (InvocationTargetException e) {
+        throw sneakyThrow(e.getCause());
+      }
+    };
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <E extends Throwable> RuntimeException sneakyThrow(Throwable e) throws E {
+    throw (E) e;
+  }
+
+  String getName() {
+    return name;
+  }
+
+  Class<?> getType() {
+    return type;
+  }
+
+  Class<?> getWriteType() {
+    return writeType;
+  }
+
+  Method getReadMethod() {
+    return readMethod;
+  }
+
+  Method getWriteMethod() {
+    return writeMethod;
+  }
+
+  boolean isReadable() {
+    return getter != null;
+  }
+
+  boolean isWritable() {
+    return setter != null;
+  }
+
+  /**
+   * 获取属性值，Getter 抛出的异常原样抛出
+   *
+   * @param bean 对象
+   * @return 属性值
+   */
+  Object get(Object bean) {
+    return getter.apply(bean);
+  }
+
+  /**
+   * 设置属性值，Setter 抛出的异常原样抛出，调用前需通过 {@link #checkValue(Object)} 校验类型
+   *
+   * @param bean  对象
+   * @param value 属性值
+   */
+  void set(Object bean, Object value) {
+    setter.accept(bean, value);
+  }
+
+  /**
+   * 校验属性值能否传给 Setter，与 {@link Method#invoke(Object, Object...)} 的参数校验一致
+   *
+   * @param value 属性值
+   * @throws IllegalArgumentException 属性值类型不匹配，或为基本类型设置 null
+   */
+  void checkValue(Object value) {
+    if (value == null ? writeType.isPrimitive() : !ClassUtils.isAssignableValue(writeType, value)) {
+      throw new IllegalArgumentException("argument type mismatch: " + name);
+    }
+  }
+}
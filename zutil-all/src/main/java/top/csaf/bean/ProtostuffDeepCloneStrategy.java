@@ -0,0 +1,38 @@
+package top.csaf.bean;
+
+import io.protostuff.GraphIOUtil;
+import io.protostuff.LinkedBuffer;
+import io.protostuff.Schema;
+import io.protostuff.runtime.RuntimeSchema;
+
+/**
+ * 基于 <a href="https://github.com/protostuff/protostuff">protostuff</a> 的深克隆策略
+ * <p>
+ * 使用 {@link GraphIOUtil} 序列化后再反序列化以支持共享引用和循环引用，每个线程复用一个 {@link LinkedBuffer}。
+ * 只复制字段，继承 Map 的类（如 TreeNode）不复制其中的键值对
+ * <p>
+ * 依赖为可选依赖，使用时需自行引入 io.protostuff:protostuff-core、io.protostuff:protostuff-runtime
+ */
+public class ProtostuffDeepCloneStrategy implements DeepCloneStrategy {
+
+  private static final ThreadLocal<LinkedBuffer> BUFFER = ThreadLocal.withInitial(() -> LinkedBuffer.allocate(512));
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> T deepClone(T source) {
+    if (source == null) {
+      return null;
+    }
+    Schema<T> schema = RuntimeSchema.getSchema((Class<T>) source.getClass());
+    LinkedBuffer buffer = BUFFER.get();
+    byte[] data;
+    try {
+      data = GraphIOUtil.toByteArray(source, schema, buffer);
+    } finally {
+      buffer.clear();
+    }
+    T target = schema.newMessage();
+    GraphIOUtil.mergeFrom(data, target, schema);
+    return target;
+  }
+}
@@ -6,6 +6,8 @@ import top.csaf.crypto.enums.EncodingType;
 import top.csaf.crypto.enums.Mode;
 import top.csaf.crypto.enums.Padding;
 
+import java.util.List;
+
 /**
  * AES 加解密工具类
  * <p>
@@ -273,4 +275,60 @@ public class AesUtil {
   public static String decryptHex(String encryptedData, @NonNull String key, String iv, @NonNull Mode mode, @NonNull Padding padding) {
     return decrypt(encryptedData, key, iv, mode, padding, EncodingType.HEX);
   }
+
+  /**
+   * 创建会话，同一密钥多次加解密时复用已初始化的 Cipher
+   *
+   * @param key         密钥
+   * @param keyEncoding 密钥编码
+   * @param iv          初始化向量，ECB 模式可为 null
+   * @param ivEncoding  初始化向量编码
+   * @param mode        加密模式
+   * @param padding     填充方式
+   * @return 分组密码会话
+   */
+  public static BlockCipherSession session(@NonNull String key, EncodingType keyEncoding, String iv, EncodingType ivEncoding, @NonNull Mode mode, @NonNull Padding padding) {
+    return BlockCipher.builder(BlockCipherType.AES).keyEncoding(keyEncoding).ivEncoding(ivEncoding).build().session(key, iv, mode, padding);
+  }
+
+  /**
+   * 创建会话，同一密钥多次加解密时复用已初始化的 Cipher
+   *
+   * @param key     密钥
+   * @param iv      初始化向量，ECB 模式可为 null
+   * @param mode    加密模式
+   * @param padding 填充方式
+   * @return 分组密码会话
+   */
+  public static BlockCipherSession session(@NonNull String key, String iv, @NonNull Mode mode, @NonNull Padding padding) {
+    return session(key, null, iv, null, mode, padding);
+  }
+
+  /**
+   * 批量加密为 Hex 字符串，密钥和初始化向量只解析一次
+   *
+   * @param data    明文列表，元素为 null 时结果为 null
+   * @param key     密钥
+   * @param iv      初始化向量
+   * @param mode    加密模式
+   * @param padding 填充方式
+   * @return 密文列表，与明文一一对应
+   */
+  public static List<String> encryptHex(@NonNull List<String> data, @NonNull String key, String iv, @NonNull Mode mode, @NonNull Padding padding) {
+    return session(key, iv, mode, padding).encryptHex(data);
+  }
+
+  /**
+   * 批量解密 Hex 字符串，密钥和初始化向量只解析一次
+   *
+   * @param encryptedData 密文列表，元素为 null 时结果为 null
+   * @param key           密钥
+   * @param iv            初始化向量
+   * @param mode          加密模式
+   * @param padding       填充方式
+   * @return 明文列表，与密文一一对应
+   */
+  public static List<String> decryptHex(@NonNull List<String> encryptedData, @NonNull String key, String iv, @NonNull Mode mode, @NonNull Padding padding) {
+    return session(key, iv, mode, padding).decryptHex(encryptedData);
+  }
 }
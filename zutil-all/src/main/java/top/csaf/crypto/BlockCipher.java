@@ -14,13 +14,9 @@ import top.csaf.crypto.enums.Padding;
 import top.csaf.lang.NumberUtil;
 import top.csaf.lang.StrUtil;
 
-import javax.crypto.BadPaddingException;
 import javax.crypto.Cipher;
-import javax.crypto.IllegalBlockSizeException;
-import javax.crypto.NoSuchPaddingException;
-import javax.crypto.spec.IvParameterSpec;
-import javax.crypto.spec.SecretKeySpec;
-import java.security.*;
+import java.security.GeneralSecurityException;
+import java.security.Security;
 import java.util.Arrays;
 import java.util.Base64;
 
@@ -228,19 +224,33 @@ public class BlockCipher {
    * @return 加解密结果的字节数组
    */
   private byte[] encryptOrDecrypt(byte @NonNull [] data, @NonNull Object key, Object iv, @NonNull Mode mode, @NonNull Padding padding, int cipherMode) {
+    byte[] keyBytes = decodeAndPad(key, this.keyEncoding, this.keyLength);
+    byte[] ivBytes = "ECB".equals(mode.getValue()) ? null : decodeAndPad(iv, this.ivEncoding, this.ivLength);
     try {
-      SecretKeySpec keySpec = new SecretKeySpec(decodeAndPad(key, this.keyEncoding, this.keyLength), this.type.getValue());
-      IvParameterSpec ivSpec = "ECB".equals(mode.getValue()) ? null : new IvParameterSpec(decodeAndPad(iv, this.ivEncoding, this.ivLength));
-      String transformation = this.type + "/" + mode + "/" + padding.getValue();
-      Cipher cipher = Cipher.getInstance(transformation, "BC");
-      cipher.init(cipherMode, keySpec, ivSpec);
-      return cipher.doFinal(data);
-    } catch (IllegalBlockSizeException | BadPaddingException | NoSuchAlgorithmException | NoSuchProviderException | NoSuchPaddingException | InvalidKeyException | InvalidAlgorithmParameterException e) {
+      // 使用当前线程缓存的已初始化 Cipher
+      return BlockCipherSession.threadCipher(this.type, mode, padding, keyBytes, ivBytes, cipherMode).doFinal(data);
+    } catch (GeneralSecurityException | IllegalStateException e) {
+      BlockCipherSession.removeThreadCipher(this.type, mode, padding, keyBytes, ivBytes, cipherMode);
       log.error(e.getMessage(), e);
       return new byte[0];
     }
   }
 
+  /**
+   * 创建会话，解析好密钥和初始化向量，每个线程复用已初始化的 Cipher
+   *
+   * @param key     密钥
+   * @param iv      初始化向量，ECB 模式可为 null
+   * @param mode    加密模式
+   * @param padding 填充方式
+   * @return 分组密码会话
+   */
+  public BlockCipherSession session(@NonNull Object key, Object iv, @NonNull Mode mode, @NonNull Padding padding) {
+    byte[] keyBytes = decodeAndPad(key, this.keyEncoding, this.keyLength);
+    byte[] ivBytes = "ECB".equals(mode.getValue()) ? null : decodeAndPad(iv, this.ivEncoding, this.ivLength);
+    return new BlockCipherSession(this.type, this.keyLength, keyBytes, ivBytes, mode, padding);
+  }
+
   /**
    * 将内容按照编码转换后，填充 0 到指定长度
    *
@@ -270,7 +280,7 @@ public class BlockCipher {
    * @param encoding 编码
    * @return 字符串
    */
-  private String encode(byte[] data, EncodingType encoding) {
+  static String encode(byte[] data, EncodingType encoding) {
     if (encoding == null) {
       return new String(data);
     }
@@ -293,7 +303,7 @@ public class BlockCipher {
    * @param encoding            编码
    * @return 字节数组
    */
-  private byte[] decode(String keyOrIvOrCiphertext, EncodingType encoding) {
+  static byte[] decode(String keyOrIvOrCiphertext, EncodingType encoding) {
     if (StrUtil.isBlank(keyOrIvOrCiphertext)) {
       return new byte[0];
     }
@@ -0,0 +1,883 @@
+package top.csaf.crypto;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.output.CloseShieldOutputStream;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.bouncycastle.util.encoders.Hex;
+import top.csaf.crypto.enums.BlockCipherType;
+import top.csaf.crypto.enums.EncodingType;
+import top.csaf.crypto.enums.Mode;
+import top.csaf.crypto.enums.Padding;
+import top.csaf.lang.StrUtil;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.security.GeneralSecurityException;
+import java.security.Provider;
+import java.security.Security;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * 分组密码会话
+ * <p>
+ * 创建时解析好 Provider、transformation、密钥和初始化向量，每个线程缓存已初始化的 {@link Cipher} 并重复使用，避免每次加解密都 {@link Cipher#getInstance(String, String)} 和 {@link Cipher#init(int, java.security.Key, java.security.spec.AlgorithmParameterSpec)}
+ * <p>
+ * 批量加解密（{@link #encrypt(List, EncodingType)}、{@link #decrypt(List, EncodingType)}）时所有元素共用 Cipher 和输出缓冲
+ * <p>
+ * ECB、CTR 模式可通过 {@link #encryptParallel(byte[], ForkJoinPool)}、{@link #decryptParallel(byte[], ForkJoinPool)} 分段并行加解密
+ * <p>
+ * 流式加解密时每次创建独立的 Cipher，按 {@link #STREAM_BUFFER_SIZE} 分块调用 {@link Cipher#update(byte[], int, int, byte[])}，内存占用与数据大小无关
+ * <p>
+ * 线程缓存的 Cipher 持有已初始化的密钥，线程池中的线程会一直保留这些 Cipher（包括会话不再使用之后），
+ * 需要尽快释放密钥时在使用过的线程中调用 {@link #clear()}，或调用 {@link #clearThreadCache()} 清空当前线程 {@link BlockCipher} 缓存的所有 Cipher
+ * <p>
+ * 通过 {@link BlockCipher#session(Object, Object, Mode, Padding)} 创建
+ */
+@Slf4j
+public class BlockCipherSession {
+
+  /**
+   * BouncyCastle Provider，只解析一次
+   */
+  static final Provider PROVIDER;
+
+  static {
+    Provider provider = Security.getProvider(BouncyCastleProvider.PROVIDER_NAME);
+    if (provider == null) {
+      provider = new BouncyCastleProvider();
+      Security.addProvider(provider);
+    }
+    PROVIDER = provider;
+  }
+
+  /**
+   * 每个线程缓存的 Cipher 个数
+   */
+  private static final int THREAD_CACHE_SIZE = 16;
+  /**
+   * 流式加解密的分块大小
+   */
+  public static final int STREAM_BUFFER_SIZE = 8192;
+  /**
+   * Hex 小写字符
+   */
+  private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+  /**
+   * 每个线程最近使用的 Cipher，供 {@link BlockCipher} 的加解密方法使用
+   * <p>
+   * 静态缓存，每个线程最多保留 {@link #THREAD_CACHE_SIZE} 个，直到线程结束或调用 {@link #clear()}、{@link #clearThreadCache()}
+   */
+  private static final ThreadLocal<Map<CacheKey, Cipher>> THREAD_CACHE = ThreadLocal.withInitial(() -> new LinkedHashMap<CacheKey, Cipher>(THREAD_CACHE_SIZE * 2, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<CacheKey, Cipher> eldest) {
+      return size() > THREAD_CACHE_SIZE;
+    }
+  });
+
+  /**
+   * 加解密算法
+   */
+  @Getter
+  private final BlockCipherType type;
+  /**
+   * 加密模式
+   */
+  @Getter
+  private final Mode mode;
+  /**
+   * 填充方式
+   */
+  @Getter
+  private final Padding padding;
+  /**
+   * 密钥长度，NoPadding 模式下数据长度必须是其整数倍
+   */
+  private final int keyLength;
+  private final String transformation;
+  private final SecretKeySpec keySpec;
+  private final IvParameterSpec ivSpec;
+  /**
+   * 当前线程的加密 Cipher
+   * <p>
+   * 其他线程中的 Cipher 在会话不可达后才随线程的 ThreadLocal 清理一起释放，需要立即释放时在对应线程中调用 {@link #clear()}
+   */
+  private final ThreadLocal<Cipher> encryptCipher;
+  /**
+   * 当前线程的解密 Cipher，释放时机同 {@link #encryptCipher}
+   */
+  private final ThreadLocal<Cipher> decryptCipher;
+
+  BlockCipherSession(BlockCipherType type, int keyLength, byte[] key, byte[] iv, Mode mode, Padding padding) {
+    this.type = type;
+    this.mode = mode;
+    this.padding = padding;
+    this.keyLength = keyLength;
+    this.transformation = transformation(type, mode, padding);
+    this.keySpec = new SecretKeySpec(key, type.getValue());
+    this.ivSpec = iv == null ? null : new IvParameterSpec(iv);
+    this.encryptCipher = ThreadLocal.withInitial(() -> newCipher(Cipher.ENCRYPT_MODE));
+    this.decryptCipher = ThreadLocal.withInitial(() -> newCipher(Cipher.DECRYPT_MODE));
+  }
+
+  /**
+   * 释放当前线程中该会话缓存的 Cipher，包括会话自身的加解密 Cipher 和 {@link BlockCipher} 以相同算法、密钥、初始化向量缓存的 Cipher
+   * <p>
+   * 只影响当前线程，线程池中的每个工作线程需各自调用；清理后会话仍可使用，下次加解密时重新创建 Cipher
+   */
+  public void clear() {
+    encryptCipher.remove();
+    decryptCipher.remove();
+    byte[] key = keySpec.getEncoded();
+    byte[] iv = ivSpec == null ? null : ivSpec.getIV();
+    removeThreadCipher(type, mode, padding, key, iv, Cipher.ENCRYPT_MODE);
+    removeThreadCipher(type, mode, padding, key, iv, Cipher.DECRYPT_MODE);
+    Arrays.fill(key, (byte) 0);
+  }
+
+  /**
+   * 清空当前线程中 {@link BlockCipher} 缓存的所有 Cipher，不影响会话自身的 Cipher
+   */
+  public static void clearThreadCache() {
+    THREAD_CACHE.remove();
+  }
+
+  /**
+   * 拼接 transformation
+   */
+  static String transformation(BlockCipherType type, Mode mode, Padding padding) {
+    return type + "/" + mode + "/" + padding.getValue();
+  }
+
+  /**
+   * 是否为认证加密模式，这些模式不允许以相同的密钥和初始化向量重复初始化加密 Cipher，不缓存 Cipher，每次新建
+   */
+  static boolean isAead(Mode mode) {
+    switch (mode) {
+      case GCM:
+      case GCM_SIV:
+      case CCM:
+      case OCB:
+      case EAX:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  private Cipher newCipher(int cipherMode) {
+    try {
+      Cipher cipher = Cipher.getInstance(transformation, PROVIDER);
+      cipher.init(cipherMode, keySpec, ivSpec);
+      return cipher;
+    } catch (GeneralSecurityException e) {
+      throw new IllegalArgumentException(e.getMessage(), e);
+    }
+  }
+
+  /**
+   * 获取当前线程的 Cipher，认证加密模式每次新建
+   */
+  private Cipher cipher(ThreadLocal<Cipher> threadCipher, int cipherMode) {
+    return isAead(mode) ? newCipher(cipherMode) : threadCipher.get();
+  }
+
+  /**
+   * 使用当前线程的 Cipher 加解密，出错时丢弃该 Cipher
+   */
+  private byte[] doFinal(ThreadLocal<Cipher> threadCipher, int cipherMode, byte[] data, int off, int len) {
+    try {
+      return cipher(threadCipher, cipherMode).doFinal(data, off, len);
+    } catch (GeneralSecurityException | IllegalArgumentException | IllegalStateException e) {
+      threadCipher.remove();
+      log.error(e.getMessage(), e);
+      return new byte[0];
+    }
+  }
+
+  /**
+   * 加密
+   *
+   * @param plaintext 明文
+   * @param off       开始下标
+   * @param len       长度
+   * @return 密文
+   */
+  public byte[] encrypt(byte @NonNull [] plaintext, int off, int len) {
+    checkLength(len);
+    return doFinal(encryptCipher, Cipher.ENCRYPT_MODE, plaintext, off, len);
+  }
+
+  /**
+   * 加密
+   *
+   * @param plaintext 明文
+   * @return 密文
+   */
+  public byte[] encrypt(byte @NonNull [] plaintext) {
+    return encrypt(plaintext, 0, plaintext.length);
+  }
+
+  /**
+   * 加密
+   *
+   * @param plaintext 明文
+   * @param encoding  密文编码
+   * @return 密文
+   */
+  public String encrypt(@NonNull String plaintext, EncodingType encoding) {
+    return BlockCipher.encode(encrypt(plaintext.getBytes()), encoding);
+  }
+
+  /**
+   * 加密为 Hex 字符串
+   *
+   * @param plaintext 明文
+   * @return 密文
+   */
+  public String encryptHex(@NonNull String plaintext) {
+    return encrypt(plaintext, EncodingType.HEX);
+  }
+
+  /**
+   * 加密为 Base64 字符串
+   *
+   * @param plaintext 明文
+   * @return 密文
+   */
+  public String encryptBase64(@NonNull String plaintext) {
+    return encrypt(plaintext, EncodingType.BASE_64);
+  }
+
+  /**
+   * 解密
+   *
+   * @param ciphertext 密文
+   * @param off        开始下标
+   * @param len        长度
+   * @return 明文
+   */
+  public byte[] decrypt(byte @NonNull [] ciphertext, int off, int len) {
+    checkLength(len);
+    return doFinal(decryptCipher, Cipher.DECRYPT_MODE, ciphertext, off, len);
+  }
+
+  /**
+   * 解密
+   *
+   * @param ciphertext 密文
+   * @return 明文
+   */
+  public byte[] decrypt(byte @NonNull [] ciphertext) {
+    return decrypt(ciphertext, 0, ciphertext.length);
+  }
+
+  /**
+   * 解密
+   *
+   * @param ciphertext 密文
+   * @param encoding   密文编码
+   * @return 明文
+   */
+  public String decrypt(@NonNull String ciphertext, EncodingType encoding) {
+    return new String(decrypt(BlockCipher.decode(ciphertext, encoding)));
+  }
+
+  /**
+   * 解密 Hex 字符串
+   *
+   * @param ciphertext 密文
+   * @return 明文
+   */
+  public String decryptHex(@NonNull String ciphertext) {
+    return decrypt(ciphertext, EncodingType.HEX);
+  }
+
+  /**
+   * 解密 Base64 字符串
+   *
+   * @param ciphertext 密文
+   * @return 明文
+   */
+  public String decryptBase64(@NonNull String ciphertext) {
+    return decrypt(ciphertext, EncodingType.BASE_64);
+  }
+
+  /**
+   * 使用 {@link ForkJoinPool} 并行加解密，不支持并行的模式或数据较小时串行加解密
+   */
+  private byte[] doFinalParallel(ThreadLocal<Cipher> threadCipher, int cipherMode, byte[] data, ForkJoinPool pool) {
+    if (!ParallelBlockCipher.isSupported(mode)) {
+      throw new IllegalArgumentException("Parallel mode must be ECB or CTR");
+    }
+    if (data.length < ParallelBlockCipher.PARALLEL_THRESHOLD || pool.getParallelism() < 2) {
+      return doFinal(threadCipher, cipherMode, data, 0, data.length);
+    }
+    try {
+      return ParallelBlockCipher.doFinal(type, mode, padding, keySpec, ivSpec == null ? null : ivSpec.getIV(), cipherMode, data, pool);
+    } catch (GeneralSecurityException | IllegalArgumentException | IllegalStateException e) {
+      log.error(e.getMessage(), e);
+      return new byte[0];
+    }
+  }
+
+  /**
+   * 并行加密，仅支持 ECB、CTR 模式，结果与 {@link #encrypt(byte[])} 相同
+   *
+   * @param plaintext 明文
+   * @param pool      线程池
+   * @return 密文
+   */
+  public byte[] encryptParallel(byte @NonNull [] plaintext, @NonNull ForkJoinPool pool) {
+    checkLength(plaintext.length);
+    return doFinalParallel(encryptCipher, Cipher.ENCRYPT_MODE, plaintext, pool);
+  }
+
+  /**
+   * 使用 {@link ForkJoinPool#commonPool()} 并行加密，仅支持 ECB、CTR 模式，结果与 {@link #encrypt(byte[])} 相同
+   *
+   * @param plaintext 明文
+   * @return 密文
+   */
+  public byte[] encryptParallel(byte @NonNull [] plaintext) {
+    return encryptParallel(plaintext, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * 并行解密，仅支持 ECB、CTR 模式，结果与 {@link #decrypt(byte[])} 相同
+   *
+   * @param ciphertext 密文
+   * @param pool       线程池
+   * @return 明文
+   */
+  public byte[] decryptParallel(byte @NonNull [] ciphertext, @NonNull ForkJoinPool pool) {
+    checkLength(ciphertext.length);
+    return doFinalParallel(decryptCipher, Cipher.DECRYPT_MODE, ciphertext, pool);
+  }
+
+  /**
+   * 使用 {@link ForkJoinPool#commonPool()} 并行解密，仅支持 ECB、CTR 模式，结果与 {@link #decrypt(byte[])} 相同
+   *
+   * @param ciphertext 密文
+   * @return 明文
+   */
+  public byte[] decryptParallel(byte @NonNull [] ciphertext) {
+    return decryptParallel(ciphertext, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * 批量加解密，共用当前线程的 Cipher 和输出缓冲，Hex 编解码直接读写复用的缓冲
+   * <p>
+   * 单个元素解码、长度校验或加解密失败时记录日志并返回空字符串，不影响其他元素；元素为 null 时返回 null
+   */
+  private String[] doFinalBatch(ThreadLocal<Cipher> threadCipher, int cipherMode, List<String> data, EncodingType encoding) {
+    String[] result = new String[data.size()];
+    boolean encrypt = cipherMode == Cipher.ENCRYPT_MODE;
+    Cipher cipher = isAead(mode) ? null : threadCipher.get();
+    byte[] inBuffer = new byte[0];
+    byte[] outBuffer = new byte[0];
+    char[] hexBuffer = new char[0];
+    for (int i = 0; i < result.length; i++) {
+      String item = data.get(i);
+      if (item == null) {
+        continue;
+      }
+      int outLen;
+      try {
+        byte[] in;
+        int inLen;
+        if (encrypt) {
+          in = item.getBytes();
+          inLen = in.length;
+        } else if (encoding == EncodingType.HEX && !StrUtil.isBlank(item)) {
+          inLen = item.length() / 2;
+          if (inLen > inBuffer.length) {
+            inBuffer = new byte[Math.max(inLen, inBuffer.length * 2)];
+          }
+          in = decodeHex(item, inBuffer);
+        } else {
+          in = BlockCipher.decode(item, encoding);
+          inLen = in.length;
+        }
+        checkLength(inLen);
+        if (isAead(mode)) {
+          cipher = newCipher(cipherMode);
+        }
+        int outSize = cipher.getOutputSize(inLen);
+        if (outSize > outBuffer.length) {
+          outBuffer = new byte[Math.max(outSize, outBuffer.length * 2)];
+        }
+        outLen = cipher.doFinal(in, 0, inLen, outBuffer, 0);
+      } catch (GeneralSecurityException | IllegalArgumentException | IllegalStateException e) {
+        if (!isAead(mode)) {
+          threadCipher.remove();
+          cipher = threadCipher.get();
+        }
+        log.error(e.getMessage(), e);
+        outLen = 0;
+      }
+      if (!encrypt) {
+        result[i] = new String(outBuffer, 0, outLen);
+      } else if (encoding == EncodingType.HEX) {
+        if (outLen * 2 > hexBuffer.length) {
+          hexBuffer = new char[Math.max(outLen * 2, hexBuffer.length * 2)];
+        }
+        result[i] = encodeHex(outBuffer, outLen, hexBuffer);
+      } else {
+        result[i] = BlockCipher.encode(Arrays.copyOf(outBuffer, outLen), encoding);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Hex 编码到复用的字符缓冲
+   */
+  private static String encodeHex(byte[] data, int len, char[] hexBuffer) {
+    for (int i = 0, j = 0; i < len; i++) {
+      hexBuffer[j++] = HEX_DIGITS[(data[i] >> 4) & 0x0f];
+      hexBuffer[j++] = HEX_DIGITS[data[i] & 0x0f];
+    }
+    return new String(hexBuffer, 0, len * 2);
+  }
+
+  /**
+   * Hex 解码到复用的字节缓冲
+   */
+  private static byte[] decodeHex(String hex, byte[] buffer) {
+    if ((hex.length() & 1) != 0) {
+      throw new IllegalArgumentException("Hex string length must be even: " + hex.length());
+    }
+    for (int i = 0, j = 0; j < hex.length(); i++, j += 2) {
+      int high = Character.digit(hex.charAt(j), 16);
+      int low = Character.digit(hex.charAt(j + 1), 16);
+      if (high < 0 || low < 0) {
+        throw new IllegalArgumentException("Invalid hex character at index " + (high < 0 ? j : j + 1));
+      }
+      buffer[i] = (byte) (high << 4 | low);
+    }
+    return buffer;
+  }
+
+  /**
+   * 批量加密，密钥和初始化向量只解析一次，所有元素共用 Cipher 和输出缓冲
+   *
+   * @param plaintexts 明文数组，元素为 null 时结果为 null
+   * @param encoding   密文编码
+   * @return 密文数组，与明文一一对应
+   */
+  public String[] encrypt(@NonNull String[] plaintexts, EncodingType encoding) {
+    return doFinalBatch(encryptCipher, Cipher.ENCRYPT_MODE, Arrays.asList(plaintexts), encoding);
+  }
+
+  /**
+   * 批量加密，密钥和初始化向量只解析一次，所有元素共用 Cipher 和输出缓冲
+   *
+   * @param plaintexts 明文列表，元素为 null 时结果为 null
+   * @param encoding   密文编码
+   * @return 密文列表，与明文一一对应
+   */
+  public List<String> encrypt(@NonNull List<String> plaintexts, EncodingType encoding) {
+    return new ArrayList<>(Arrays.asList(doFinalBatch(encryptCipher, Cipher.ENCRYPT_MODE, plaintexts, encoding)));
+  }
+
+  /**
+   * 批量加密为 Hex 字符串
+   *
+   * @param plaintexts 明文列表，元素为 null 时结果为 null
+   * @return 密文列表，与明文一一对应
+   */
+  public List<String> encryptHex(@NonNull List<String> plaintexts) {
+    return encrypt(plaintexts, EncodingType.HEX);
+  }
+
+  /**
+   * 批量解密
+   *
+   * @param ciphertexts 密文数组，元素为 null 时结果为 null
+   * @param encoding    密文编码
+   * @return 明文数组，与密文一一对应
+   */
+  public String[] decrypt(@NonNull String[] ciphertexts, EncodingType encoding) {
+    return doFinalBatch(decryptCipher, Cipher.DECRYPT_MODE, Arrays.asList(ciphertexts), encoding);
+  }
+
+  /**
+   * 批量解密
+   *
+   * @param ciphertexts 密文列表，元素为 null 时结果为 null
+   * @param encoding    密文编码
+   * @return 明文列表，与密文一一对应
+   */
+  public List<String> decrypt(@NonNull List<String> ciphertexts, EncodingType encoding) {
+    return new ArrayList<>(Arrays.asList(doFinalBatch(decryptCipher, Cipher.DECRYPT_MODE, ciphertexts, encoding)));
+  }
+
+  /**
+   * 批量解密 Hex 字符串
+   *
+   * @param ciphertexts 密文列表，元素为 null 时结果为 null
+   * @return 明文列表，与密文一一对应
+   */
+  public List<String> decryptHex(@NonNull List<String> ciphertexts) {
+    return decrypt(ciphertexts, EncodingType.HEX);
+  }
+
+  /**
+   * 分块加解密输入流并写入输出流
+   */
+  private long update(int cipherMode, InputStream in, OutputStream out) throws IOException {
+    Cipher cipher = newCipher(cipherMode);
+    byte[] buffer = new byte[STREAM_BUFFER_SIZE];
+    byte[] outBuffer = new byte[cipher.getOutputSize(STREAM_BUFFER_SIZE)];
+    long total = 0;
+    try {
+      int n;
+      while ((n = in.read(buffer)) != -1) {
+        // 加上上次缓冲的不足一个分组的数据后，输出可能大于分块大小
+        int outSize = cipher.getOutputSize(n);
+        if (outSize > outBuffer.length) {
+          outBuffer = new byte[outSize];
+        }
+        int outLen = cipher.update(buffer, 0, n, outBuffer);
+        out.write(outBuffer, 0, outLen);
+        total += outLen;
+      }
+      byte[] last = cipher.doFinal();
+      out.write(last);
+      total += last.length;
+    } catch (GeneralSecurityException e) {
+      throw new IOException(e.getMessage(), e);
+    }
+    out.flush();
+    return total;
+  }
+
+  /**
+   * 分块加解密输入通道并写入输出通道
+   */
+  private long update(int cipherMode, ReadableByteChannel in, WritableByteChannel out) throws IOException {
+    Cipher cipher = newCipher(cipherMode);
+    ByteBuffer buffer = ByteBuffer.allocate(STREAM_BUFFER_SIZE);
+    ByteBuffer outBuffer = ByteBuffer.allocate(cipher.getOutputSize(STREAM_BUFFER_SIZE));
+    long total = 0;
+    try {
+      while (in.read(buffer) != -1) {
+        ((Buffer) buffer).flip();
+        int outSize = cipher.getOutputSize(buffer.remaining());
+        if (outSize > outBuffer.capacity()) {
+          outBuffer = ByteBuffer.allocate(outSize);
+        }
+        ((Buffer) outBuffer).clear();
+        cipher.update(buffer, outBuffer);
+        ((Buffer) buffer).clear();
+        total += writeFully(outBuffer, out);
+      }
+      outBuffer = ByteBuffer.wrap(cipher.doFinal());
+      total += outBuffer.remaining();
+      while (outBuffer.hasRemaining()) {
+        out.write(outBuffer);
+      }
+    } catch (GeneralSecurityException e) {
+      throw new IOException(e.getMessage(), e);
+    }
+    return total;
+  }
+
+  private static int writeFully(ByteBuffer outBuffer, WritableByteChannel out) throws IOException {
+    ((Buffer) outBuffer).flip();
+    int len = outBuffer.remaining();
+    while (outBuffer.hasRemaining()) {
+      out.write(outBuffer);
+    }
+    return len;
+  }
+
+  /**
+   * 流式加密，不关闭输入输出流
+   *
+   * @param in  明文输入流
+   * @param out 密文输出流
+   * @return 写入的密文字节数
+   * @throws IOException 读写或加密失败
+   */
+  public long encrypt(@NonNull InputStream in, @NonNull OutputStream out) throws IOException {
+    return update(Cipher.ENCRYPT_MODE, in, out);
+  }
+
+  /**
+   * 流式加密，密文按编码写入输出流，不关闭输入输出流
+   *
+   * @param in       明文输入流
+   * @param out      密文输出流
+   * @param encoding 密文编码，支持 HEX、BASE_64，为 null 或 UTF_8 时不编码
+   * @return 加密后编码前的密文字节数
+   * @throws IOException 读写或加密失败
+   */
+  public long encrypt(@NonNull InputStream in, @NonNull OutputStream out, EncodingType encoding) throws IOException {
+    if (encoding == EncodingType.HEX) {
+      return encrypt(in, new HexOutputStream(out));
+    }
+    if (encoding == EncodingType.BASE_64) {
+      // 关闭 Base64 编码流以写入末尾的填充，但不关闭原输出流
+      try (OutputStream base64Out = Base64.getEncoder().wrap(CloseShieldOutputStream.wrap(out))) {
+        return encrypt(in, base64Out);
+      } finally {
+        out.flush();
+      }
+    }
+    return encrypt(in, out);
+  }
+
+  /**
+   * 流式解密，不关闭输入输出流
+   *
+   * @param in  密文输入流
+   * @param out 明文输出流
+   * @return 写入的明文字节数
+   * @throws IOException 读写或解密失败
+   */
+  public long decrypt(@NonNull InputStream in, @NonNull OutputStream out) throws IOException {
+    return update(Cipher.DECRYPT_MODE, in, out);
+  }
+
+  /**
+   * 流式解密，按编码读取密文，不关闭输入输出流
+   *
+   * @param in       密文输入流
+   * @param out      明文输出流
+   * @param encoding 密文编码，支持 HEX、BASE_64，为 null 或 UTF_8 时不解码
+   * @return 写入的明文字节数
+   * @throws IOException 读写或解密失败
+   */
+  public long decrypt(@NonNull InputStream in, @NonNull OutputStream out, EncodingType encoding) throws IOException {
+    if (encoding == EncodingType.HEX) {
+      return decrypt(new HexInputStream(in), out);
+    }
+    if (encoding == EncodingType.BASE_64) {
+      return decrypt(Base64.getDecoder().wrap(in), out);
+    }
+    return decrypt(in, out);
+  }
+
+  /**
+   * 通道加密，不关闭通道
+   *
+   * @param in  明文输入通道
+   * @param out 密文输出通道
+   * @return 写入的密文字节数
+   * @throws IOException 读写或加密失败
+   */
+  public long encrypt(@NonNull ReadableByteChannel in, @NonNull WritableByteChannel out) throws IOException {
+    return update(Cipher.ENCRYPT_MODE, in, out);
+  }
+
+  /**
+   * 通道解密，不关闭通道
+   *
+   * @param in  密文输入通道
+   * @param out 明文输出通道
+   * @return 写入的明文字节数
+   * @throws IOException 读写或解密失败
+   */
+  public long decrypt(@NonNull ReadableByteChannel in, @NonNull WritableByteChannel out) throws IOException {
+    return update(Cipher.DECRYPT_MODE, in, out);
+  }
+
+  /**
+   * Hex 编码输出流，不关闭原输出流
+   */
+  private static final class HexOutputStream extends OutputStream {
+    private final OutputStream out;
+
+    HexOutputStream(OutputStream out) {
+      this.out = out;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      Hex.encode(new byte[]{(byte) b}, 0, 1, out);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      Hex.encode(b, off, len, out);
+    }
+
+    @Override
+    public void flush() throws IOException {
+      out.flush();
+    }
+  }
+
+  /**
+   * Hex 解码输入流，跳过 ASCII 空白字符（如按行分隔的 Hex 文本），不关闭原输入流
+   */
+  private static final class HexInputStream extends InputStream {
+    private final InputStream in;
+    private final byte[] hexBuffer = new byte[STREAM_BUFFER_SIZE * 2];
+    /**
+     * 上次读取剩余的奇数个字符对应的高 4 位
+     */
+    private int pending = -1;
+
+    HexInputStream(InputStream in) {
+      this.in = in;
+    }
+
+    @Override
+    public int read() throws IOException {
+      byte[] b = new byte[1];
+      return read(b, 0, 1) == -1 ? -1 : b[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      if (len == 0) {
+        return 0;
+      }
+      // 最多读取 len * 2 个字符，加上剩余的 1 个字符也不会解码出超过 len 个字节
+      int toRead = len >= hexBuffer.length / 2 ? hexBuffer.length : len * 2;
+      int count = 0;
+      // 读到的字符不足一个字节（单个字符或空白字符）时继续读取，至少返回 1 个字节或 -1
+      while (count == 0) {
+        int n = in.read(hexBuffer, 0, toRead);
+        if (n == -1) {
+          if (pending != -1) {
+            throw new IOException("Invalid hex length");
+          }
+          return -1;
+        }
+        for (int i = 0; i < n; i++) {
+          byte c = hexBuffer[i];
+          if (isWhitespace(c)) {
+            continue;
+          }
+          if (pending == -1) {
+            pending = digit(c);
+          } else {
+            b[off + count++] = (byte) (pending << 4 | digit(c));
+            pending = -1;
+          }
+        }
+      }
+      return count;
+    }
+
+    private static boolean isWhitespace(byte c) {
+      return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f' || c == 0x0b;
+    }
+
+    private static int digit(byte c) throws IOException {
+      int digit = Character.digit(c, 16);
+      if (digit == -1) {
+        throw new IOException("Invalid hex character: " + (char) c);
+      }
+      return digit;
+    }
+  }
+
+  /**
+   * NoPadding 模式下，数据长度必须是密钥长度的整数倍
+   */
+  private void checkLength(int len) {
+    if (Padding.NO.equals(padding) && len % keyLength != 0) {
+      throw new IllegalArgumentException("Data not of proper length for NoPadding mode, length must be multiple of " + keyLength);
+    }
+  }
+
+  /**
+   * 获取当前线程缓存的已初始化 Cipher，不存在时创建；认证加密模式每次新建，不缓存
+   *
+   * @param type       加解密算法
+   * @param mode       加密模式
+   * @param padding    填充方式
+   * @param key        密钥
+   * @param iv         初始化向量，ECB 模式为 null
+   * @param cipherMode Cipher 模式，ENCRYPT_MODE 或 DECRYPT_MODE
+   * @return 已初始化的 Cipher
+   * @throws GeneralSecurityException 创建或初始化失败
+   */
+  static Cipher threadCipher(BlockCipherType type, Mode mode, Padding padding, byte[] key, byte[] iv, int cipherMode) throws GeneralSecurityException {
+    if (isAead(mode)) {
+      Cipher cipher = Cipher.getInstance(transformation(type, mode, padding), PROVIDER);
+      cipher.init(cipherMode, new SecretKeySpec(key, type.getValue()), iv == null ? null : new IvParameterSpec(iv));
+      return cipher;
+    }
+    Map<CacheKey, Cipher> cache = THREAD_CACHE.get();
+    CacheKey cacheKey = new CacheKey(type, mode, padding, key, iv, cipherMode);
+    Cipher cipher = cache.get(cacheKey);
+    if (cipher == null) {
+      cipher = Cipher.getInstance(transformation(type, mode, padding), PROVIDER);
+      cipher.init(cipherMode, new SecretKeySpec(key, type.getValue()), iv == null ? null : new IvParameterSpec(iv));
+      // 密钥和初始化向量复制一份，避免调用方修改
+      cache.put(new CacheKey(type, mode, padding, key.clone(), iv == null ? null : iv.clone(), cipherMode), cipher);
+    }
+    return cipher;
+  }
+
+  /**
+   * 丢弃当前线程缓存的 Cipher，在加解密出错后调用
+   */
+  static void removeThreadCipher(BlockCipherType type, Mode mode, Padding padding, byte[] key, byte[] iv, int cipherMode) {
+    THREAD_CACHE.get().remove(new CacheKey(type, mode, padding, key, iv, cipherMode));
+  }
+
+  /**
+   * 线程缓存的键
+   */
+  private static final class CacheKey {
+    private final BlockCipherType type;
+    private final Mode mode;
+    private final Padding padding;
+    private final byte[] key;
+    private final byte[] iv;
+    private final int cipherMode;
+    private final int hash;
+
+    CacheKey(BlockCipherType type, Mode mode, Padding padding, byte[] key, byte[] iv, int cipherMode) {
+      this.type = type;
+      this.mode = mode;
+      this.padding = padding;
+      this.key = key;
+      this.iv = iv;
+      this.cipherMode = cipherMode;
+      this.hash = Objects.hash(type, mode, padding, Arrays.hashCode(key), Arrays.hashCode(iv), cipherMode);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof CacheKey)) {
+        return false;
+      }
+      CacheKey that = (CacheKey) o;
+      return hash == that.hash && cipherMode == that.cipherMode && type == that.type && mode == that.mode && padding == that.padding
+        && Arrays.equals(key, that.key) && Arrays.equals(iv, that.iv);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+}
@@ -7,6 +7,12 @@ import top.csaf.crypto.enums.Mode;
 import top.csaf.crypto.enums.Padding;
 import top.csaf.lang.StrUtil;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
 /**
  * 分组密码工具类
  */
@@ -274,4 +280,89 @@ public class BlockCipherUtil {
     return decrypt(type, encryptedData, key, iv, mode, padding, EncodingType.HEX);
   }
 
+  /**
+   * 创建会话，同一密钥多次加解密时复用已初始化的 Cipher
+   *
+   * @param type        算法类型
+   * @param key         密钥
+   * @param keyEncoding 密钥编码
+   * @param iv          初始化向量，ECB 模式可为 null
+   * @param ivEncoding  初始化向量编码
+   * @param mode        加密模式
+   * @param padding     填充方式
+   * @return 分组密码会话
+   */
+  public static BlockCipherSession session(@NonNull BlockCipherType type, @NonNull String key, EncodingType keyEncoding, String iv, EncodingType ivEncoding, @NonNull Mode mode, @NonNull Padding padding) {
+    return BlockCipher.builder(type).keyLength(StrUtil.length(key)).ivLength(StrUtil.length(iv)).keyEncoding(keyEncoding).ivEncoding(ivEncoding).build().session(key, iv, mode, padding);
+  }
+
+  /**
+   * 流式加密，按 {@link BlockCipherSession#STREAM_BUFFER_SIZE} 分块处理，不关闭输入输出流
+   *
+   * @param type     算法类型
+   * @param in       明文输入流
+   * @param out      密文输出流
+   * @param key      密钥
+   * @param iv       初始化向量
+   * @param mode     加密模式
+   * @param padding  填充方式
+   * @param encoding 密文编码，支持 HEX、BASE_64，为 null 时不编码
+   * @return 加密后编码前的密文字节数
+   * @throws IOException 读写或加密失败
+   */
+  public static long encrypt(@NonNull BlockCipherType type, @NonNull InputStream in, @NonNull OutputStream out, @NonNull String key, String iv, @NonNull Mode mode, @NonNull Padding padding, EncodingType encoding) throws IOException {
+    return session(type, key, null, iv, null, mode, padding).encrypt(in, out, encoding);
+  }
+
+  /**
+   * 流式解密，按 {@link BlockCipherSession#STREAM_BUFFER_SIZE} 分块处理，不关闭输入输出流
+   *
+   * @param type     算法类型
+   * @param in       密文输入流
+   * @param out      明文输出流
+   * @param key      密钥
+   * @param iv       初始化向量
+   * @param mode     加密模式
+   * @param padding  填充方式
+   * @param encoding 密文编码，支持 HEX、BASE_64，为 null 时不解码
+   * @return 写入的明文字节数
+   * @throws IOException 读写或解密失败
+   */
+  public static long decrypt(@NonNull BlockCipherType type, @NonNull InputStream in, @NonNull OutputStream out, @NonNull String key, String iv, @NonNull Mode mode, @NonNull Padding padding, EncodingType encoding) throws IOException {
+    return session(type, key, null, iv, null, mode, padding).decrypt(in, out, encoding);
+  }
+
+  /**
+   * 通道加密，按 {@link BlockCipherSession#STREAM_BUFFER_SIZE} 分块处理，不关闭通道
+   *
+   * @param type    算法类型
+   * @param in      明文输入通道
+   * @param out     密文输出通道
+   * @param key     密钥
+   * @param iv      初始化向量
+   * @param mode    加密模式
+   * @param padding 填充方式
+   * @return 写入的密文字节数
+   * @throws IOException 读写或加密失败
+   */
+  public static long encrypt(@NonNull BlockCipherType type, @NonNull ReadableByteChannel in, @NonNull WritableByteChannel out, @NonNull String key, String iv, @NonNull Mode mode, @NonNull Padding padding) throws IOException {
+    return session(type, key, null, iv, null, mode, padding).encrypt(in, out);
+  }
+
+  /**
+   * 通道解密，按 {@link BlockCipherSession#STREAM_BUFFER_SIZE} 分块处理，不关闭通道
+   *
+   * @param type    算法类型
+   * @param in      密文输入通道
+   * @param out     明文输出通道
+   * @param key     密钥
+   * @param iv      初始化向量
+   * @param mode    加密模式
+   * @param padding 填充方式
+   * @return 写入的明文字节数
+   * @throws IOException 读写或解密失败
+   */
+  public static long decrypt(@NonNull BlockCipherType type, @NonNull ReadableByteChannel in, @NonNull WritableByteChannel out, @NonNull String key, String iv, @NonNull Mode mode, @NonNull Padding padding) throws IOException {
+    return session(type, key, null, iv, null, mode, padding).decrypt(in, out);
+  }
 }
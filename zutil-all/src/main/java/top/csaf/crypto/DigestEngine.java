@@ -0,0 +1,359 @@
+package top.csaf.crypto;
+
+import lombok.NonNull;
+import top.csaf.crypto.enums.DigestType;
+
+import java.nio.charset.StandardCharsets;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * 摘要引擎
+ * <p>
+ * 每个线程缓存各自的 {@link MessageDigest}、摘要缓冲和字符串编码缓冲，Hex 编码通过查表直接写入字符数组，
+ * {@link #digestInto(byte[], int, int, char[])} 等方法在调用方复用字符数组时不产生临时对象
+ * <p>
+ * JDK 自带的算法使用默认 Provider，SM3 等 JDK 不支持的算法使用 BouncyCastle
+ */
+public final class DigestEngine {
+
+  /**
+   * 字节到两位小写 Hex 字符的查找表
+   */
+  private static final char[] HEX_LOWER = hexTable("0123456789abcdef");
+  /**
+   * 字节到两位大写 Hex 字符的查找表
+   */
+  private static final char[] HEX_UPPER = hexTable("0123456789ABCDEF");
+  /**
+   * 字符串编码缓冲的最大大小，超过时直接使用 {@link String#getBytes(java.nio.charset.Charset)}
+   */
+  private static final int MAX_BUFFER_SIZE = 64 * 1024;
+
+  private static final Map<DigestType, DigestEngine> ENGINES = new EnumMap<>(DigestType.class);
+
+  static {
+    for (DigestType type : DigestType.values()) {
+      ENGINES.put(type, new DigestEngine(type));
+    }
+  }
+
+  public static final DigestEngine MD5 = of(DigestType.MD5);
+  public static final DigestEngine SHA_1 = of(DigestType.SHA_1);
+  public static final DigestEngine SHA_256 = of(DigestType.SHA_256);
+  public static final DigestEngine SM3 = of(DigestType.SM3);
+
+  /**
+   * 摘要算法
+   */
+  private final DigestType type;
+  /**
+   * 摘要字节长度
+   */
+  private final int digestLength;
+  /**
+   * 当前线程的摘要状态
+   */
+  private final ThreadLocal<State> state;
+
+  private DigestEngine(DigestType type) {
+    this.type = type;
+    this.digestLength = newMessageDigest(type).getDigestLength();
+    this.state = ThreadLocal.withInitial(() -> new State(newMessageDigest(type), digestLength));
+  }
+
+  /**
+   * 线程内的摘要状态
+   */
+  private static final class State {
+    private final MessageDigest messageDigest;
+    private final byte[] digest;
+    private byte[] bytes = new byte[256];
+    private char[] hex;
+
+    State(MessageDigest messageDigest, int digestLength) {
+      this.messageDigest = messageDigest;
+      this.digest = new byte[digestLength];
+      this.hex = new char[digestLength * 2];
+    }
+  }
+
+  private static char[] hexTable(String digits) {
+    char[] table = new char[512];
+    for (int i = 0; i < 256; i++) {
+      table[i * 2] = digits.charAt(i >>> 4);
+      table[i * 2 + 1] = digits.charAt(i & 0x0f);
+    }
+    return table;
+  }
+
+  /**
+   * 创建 MessageDigest，JDK 不支持时使用 BouncyCastle
+   */
+  static MessageDigest newMessageDigest(DigestType type) {
+    try {
+      return MessageDigest.getInstance(type.getValue());
+    } catch (NoSuchAlgorithmException e) {
+      try {
+        return MessageDigest.getInstance(type.getValue(), BlockCipherSession.PROVIDER);
+      } catch (NoSuchAlgorithmException ex) {
+        throw new IllegalStateException(ex.getMessage(), ex);
+      }
+    }
+  }
+
+  /**
+   * 获取摘要引擎
+   *
+   * @param type 摘要算法
+   * @return 摘要引擎
+   */
+  public static DigestEngine of(@NonNull DigestType type) {
+    return ENGINES.get(type);
+  }
+
+  public DigestType getType() {
+    return type;
+  }
+
+  /**
+   * 获取摘要字节长度
+   *
+   * @return 摘要字节长度
+   */
+  public int getDigestLength() {
+    return digestLength;
+  }
+
+  /**
+   * 获取 Hex 摘要字符长度
+   *
+   * @return Hex 摘要字符长度
+   */
+  public int getHexLength() {
+    return digestLength * 2;
+  }
+
+  /**
+   * 获取当前线程已重置的 MessageDigest，仅供同一线程内连续使用，不可跨线程传递
+   *
+   * @return MessageDigest
+   */
+  MessageDigest threadDigest() {
+    MessageDigest messageDigest = state.get().messageDigest;
+    messageDigest.reset();
+    return messageDigest;
+  }
+
+  /**
+   * 计算摘要并写入字节数组
+   *
+   * @param in     输入
+   * @param off    输入开始下标
+   * @param len    输入长度
+   * @param out    输出字节数组
+   * @param outOff 输出开始下标
+   * @return 写入的字节数
+   */
+  public int digestInto(byte @NonNull [] in, int off, int len, byte @NonNull [] out, int outOff) {
+    checkRange(in.length, off, len);
+    checkRange(out.length, outOff, digestLength);
+    MessageDigest messageDigest = threadDigest();
+    messageDigest.update(in, off, len);
+    try {
+      return messageDigest.digest(out, outOff, digestLength);
+    } catch (DigestException e) {
+      messageDigest.reset();
+      throw new IllegalStateException(e.getMessage(), e);
+    }
+  }
+
+  /**
+   * 计算摘要
+   *
+   * @param in  输入
+   * @param off 开始下标
+   * @param len 长度
+   * @return 摘要
+   */
+  public byte[] digest(byte @NonNull [] in, int off, int len) {
+    byte[] digest = new byte[digestLength];
+    digestInto(in, off, len, digest, 0);
+    return digest;
+  }
+
+  /**
+   * 计算摘要
+   *
+   * @param in 输入
+   * @return 摘要
+   */
+  public byte[] digest(byte @NonNull [] in) {
+    return digest(in, 0, in.length);
+  }
+
+  /**
+   * 计算摘要并以 Hex 写入字符数组
+   *
+   * @param in        输入
+   * @param off       输入开始下标
+   * @param len       输入长度
+   * @param out       输出字符数组，长度不小于 {@link #getHexLength()} + outOff
+   * @param outOff    输出开始下标
+   * @param upperCase 是否大写
+   * @return 写入的字符数
+   */
+  public int digestInto(byte @NonNull [] in, int off, int len, char @NonNull [] out, int outOff, boolean upperCase) {
+    checkRange(out.length, outOff, digestLength * 2);
+    byte[] digest = state.get().digest;
+    digestInto(in, off, len, digest, 0);
+    return encodeHex(digest, out, outOff, upperCase);
+  }
+
+  /**
+   * 计算摘要并以小写 Hex 写入字符数组开头
+   *
+   * @param in  输入
+   * @param off 输入开始下标
+   * @param len 输入长度
+   * @param out 输出字符数组，长度不小于 {@link #getHexLength()}
+   * @return 写入的字符数
+   */
+  public int digestInto(byte @NonNull [] in, int off, int len, char @NonNull [] out) {
+    return digestInto(in, off, len, out, 0, false);
+  }
+
+  /**
+   * 将字符串按 UTF-8 编码后计算摘要，并以 Hex 写入字符数组
+   * <p>
+   * 编码使用线程内复用的缓冲，不创建临时的 byte[]
+   *
+   * @param in        输入
+   * @param out       输出字符数组，长度不小于 {@link #getHexLength()} + outOff
+   * @param outOff    输出开始下标
+   * @param upperCase 是否大写
+   * @return 写入的字符数
+   */
+  public int digestInto(@NonNull CharSequence in, char @NonNull [] out, int outOff, boolean upperCase) {
+    State current = state.get();
+    int maxLength = in.length() * 3;
+    if (maxLength > MAX_BUFFER_SIZE) {
+      byte[] bytes = in.toString().getBytes(StandardCharsets.UTF_8);
+      return digestInto(bytes, 0, bytes.length, out, outOff, upperCase);
+    }
+    if (maxLength > current.bytes.length) {
+      current.bytes = new byte[Math.max(maxLength, current.bytes.length * 2)];
+    }
+    int len = encodeUtf8(in, current.bytes);
+    return digestInto(current.bytes, 0, len, out, outOff, upperCase);
+  }
+
+  /**
+   * 计算摘要并转为 Hex 字符串
+   *
+   * @param in        输入
+   * @param off       开始下标
+   * @param len       长度
+   * @param upperCase 是否大写
+   * @return Hex 摘要
+   */
+  public String digestHex(byte @NonNull [] in, int off, int len, boolean upperCase) {
+    char[] hex = state.get().hex;
+    digestInto(in, off, len, hex, 0, upperCase);
+    return new String(hex);
+  }
+
+  /**
+   * 计算摘要并转为小写 Hex 字符串
+   *
+   * @param in 输入
+   * @return Hex 摘要
+   */
+  public String digestHex(byte @NonNull [] in) {
+    return digestHex(in, 0, in.length, false);
+  }
+
+  /**
+   * 将字符串按 UTF-8 编码后计算摘要并转为 Hex 字符串
+   *
+   * @param in        输入
+   * @param upperCase 是否大写
+   * @return Hex 摘要
+   */
+  public String digestHex(@NonNull CharSequence in, boolean upperCase) {
+    char[] hex = state.get().hex;
+    digestInto(in, hex, 0, upperCase);
+    return new String(hex);
+  }
+
+  /**
+   * 将字符串按 UTF-8 编码后计算摘要并转为小写 Hex 字符串
+   *
+   * @param in 输入
+   * @return Hex 摘要
+   */
+  public String digestHex(@NonNull CharSequence in) {
+    return digestHex(in, false);
+  }
+
+  /**
+   * 查表将字节数组编码为 Hex 写入字符数组
+   *
+   * @param data      字节数组
+   * @param out       输出字符数组
+   * @param outOff    输出开始下标
+   * @param upperCase 是否大写
+   * @return 写入的字符数
+   */
+  static int encodeHex(byte[] data, char[] out, int outOff, boolean upperCase) {
+    char[] table = upperCase ? HEX_UPPER : HEX_LOWER;
+    for (int i = 0, j = outOff; i < data.length; i++, j += 2) {
+      int index = (data[i] & 0xff) << 1;
+      out[j] = table[index];
+      out[j + 1] = table[index + 1];
+    }
+    return data.length * 2;
+  }
+
+  /**
+   * UTF-8 编码，缓冲长度需不小于字符数的 3 倍，不成对的代理字符编码为 '?'，与 {@link String#getBytes(java.nio.charset.Charset)} 一致
+   *
+   * @return 编码后的字节数
+   */
+  private static int encodeUtf8(CharSequence in, byte[] out) {
+    int j = 0;
+    for (int i = 0, n = in.length(); i < n; i++) {
+      char c = in.charAt(i);
+      if (c < 0x80) {
+        out[j++] = (byte) c;
+      } else if (c < 0x800) {
+        out[j++] = (byte) (0xc0 | c >> 6);
+        out[j++] = (byte) (0x80 | c & 0x3f);
+      } else if (Character.isSurrogate(c)) {
+        if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(in.charAt(i + 1))) {
+          int codePoint = Character.toCodePoint(c, in.charAt(++i));
+          out[j++] = (byte) (0xf0 | codePoint >> 18);
+          out[j++] = (byte) (0x80 | codePoint >> 12 & 0x3f);
+          out[j++] = (byte) (0x80 | codePoint >> 6 & 0x3f);
+          out[j++] = (byte) (0x80 | codePoint & 0x3f);
+        } else {
+          out[j++] = '?';
+        }
+      } else {
+        out[j++] = (byte) (0xe0 | c >> 12);
+        out[j++] = (byte) (0x80 | c >> 6 & 0x3f);
+        out[j++] = (byte) (0x80 | c & 0x3f);
+      }
+    }
+    return j;
+  }
+
+  private static void checkRange(int length, int off, int len) {
+    if (off < 0 || len < 0 || off > length - len) {
+      throw new IndexOutOfBoundsException("off: " + off + ", len: " + len + ", length: " + length);
+    }
+  }
+}
@@ -1,9 +1,316 @@
 package top.csaf.crypto;
 
+import lombok.NonNull;
 import org.apache.commons.codec.digest.DigestUtils;
+import top.csaf.crypto.enums.DigestType;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * 摘要工具类
+ * <p>
+ * 文件摘要按窗口通过 {@link FileChannel#map(FileChannel.MapMode, long, long)} 映射读取，多个算法在同一次读取中计算，每个字节只读取一次
+ * <p>
+ * 超大文件可通过 {@link #treeDigest(Path, DigestType, int, ForkJoinPool)} 分块并行计算树摘要，并保留各块摘要用于逐块校验
  */
 public class DigestUtil extends DigestUtils {
+
+  /**
+   * 文件映射窗口大小
+   */
+  private static final long MAP_WINDOW_SIZE = 64L * 1024 * 1024;
+  /**
+   * 小于该大小的文件不映射，直接分块读取
+   */
+  private static final long MAP_THRESHOLD = 4L * 1024 * 1024;
+  /**
+   * 多个算法依次计算同一块数据的分块大小，使数据仍在 CPU 缓存中
+   */
+  private static final int SLICE_SIZE = 256 * 1024;
+  /**
+   * 分块读取的缓冲大小
+   */
+  private static final int READ_BUFFER_SIZE = 64 * 1024;
+  /**
+   * 树摘要默认分块大小
+   */
+  public static final int DEFAULT_TREE_CHUNK_SIZE = 8 * 1024 * 1024;
+
+  /**
+   * 获取各算法当前线程的 MessageDigest，重复的算法只计算一次
+   */
+  private static Map<DigestType, MessageDigest> digests(DigestType[] types) {
+    if (types.length == 0) {
+      throw new IllegalArgumentException("types cannot be empty");
+    }
+    Map<DigestType, MessageDigest> digests = new EnumMap<>(DigestType.class);
+    for (DigestType type : types) {
+      if (type == null) {
+        throw new IllegalArgumentException("types cannot contain null");
+      }
+      digests.put(type, DigestEngine.of(type).threadDigest());
+    }
+    return digests;
+  }
+
+  /**
+   * 依次以各算法计算缓冲区中剩余的数据，计算后缓冲区位置移到末尾
+   */
+  private static void update(Map<DigestType, MessageDigest> digests, ByteBuffer buffer) {
+    int position = buffer.position();
+    int limit = buffer.limit();
+    for (int sliceStart = position; sliceStart < limit; sliceStart += SLICE_SIZE) {
+      int sliceEnd = Math.min(limit, sliceStart + SLICE_SIZE);
+      for (MessageDigest digest : digests.values()) {
+        ((Buffer) buffer).limit(sliceEnd).position(sliceStart);
+        digest.update(buffer);
+      }
+    }
+    ((Buffer) buffer).limit(limit).position(limit);
+  }
+
+  private static Map<DigestType, byte[]> finish(Map<DigestType, MessageDigest> digests) {
+    Map<DigestType, byte[]> result = new EnumMap<>(DigestType.class);
+    for (Map.Entry<DigestType, MessageDigest> entry : digests.entrySet()) {
+      result.put(entry.getKey(), entry.getValue().digest());
+    }
+    return result;
+  }
+
+  /**
+   * 一次读取通道中的所有数据，同时计算多个算法的摘要，不关闭通道
+   *
+   * @param channel 输入通道
+   * @param types   摘要算法
+   * @return 各算法的摘要，按算法声明顺序排列
+   * @throws IOException 读取失败
+   */
+  public static Map<DigestType, byte[]> digest(@NonNull ReadableByteChannel channel, @NonNull DigestType... types) throws IOException {
+    Map<DigestType, MessageDigest> digests = digests(types);
+    ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+    while (channel.read(buffer) != -1) {
+      ((Buffer) buffer).flip();
+      update(digests, buffer);
+      ((Buffer) buffer).clear();
+    }
+    return finish(digests);
+  }
+
+  /**
+   * 一次读取文件，同时计算多个算法的摘要
+   * <p>
+   * 大文件按 64 MiB 窗口映射读取，小文件分块读取
+   *
+   * @param path  文件路径
+   * @param types 摘要算法
+   * @return 各算法的摘要，按算法声明顺序排列
+   * @throws IOException 读取失败
+   */
+  public static Map<DigestType, byte[]> digest(@NonNull Path path, @NonNull DigestType... types) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      long size = channel.size();
+      if (size < MAP_THRESHOLD) {
+        return digest((ReadableByteChannel) channel, types);
+      }
+      Map<DigestType, MessageDigest> digests = digests(types);
+      for (long position = 0; position < size; position += MAP_WINDOW_SIZE) {
+        MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MAP_WINDOW_SIZE, size - position));
+        update(digests, window);
+      }
+      return finish(digests);
+    }
+  }
+
+  /**
+   * 一次读取文件，同时计算多个算法的小写 Hex 摘要
+   *
+   * @param path  文件路径
+   * @param types 摘要算法
+   * @return 各算法的 Hex 摘要，按算法声明顺序排列
+   * @throws IOException 读取失败
+   */
+  public static Map<DigestType, String> digestHex(@NonNull Path path, @NonNull DigestType... types) throws IOException {
+    Map<DigestType, String> result = new EnumMap<>(DigestType.class);
+    for (Map.Entry<DigestType, byte[]> entry : digest(path, types).entrySet()) {
+      char[] hex = new char[entry.getValue().length * 2];
+      DigestEngine.encodeHex(entry.getValue(), hex, 0, false);
+      result.put(entry.getKey(), new String(hex));
+    }
+    return result;
+  }
+
+  /**
+   * 计算文件的小写 Hex 摘要
+   *
+   * @param path 文件路径
+   * @param type 摘要算法
+   * @return Hex 摘要
+   * @throws IOException 读取失败
+   */
+  public static String fileHex(@NonNull Path path, @NonNull DigestType type) throws IOException {
+    return digestHex(path, type).get(type);
+  }
+
+  /**
+   * 计算文件的 MD5 小写 Hex 摘要
+   *
+   * @param path 文件路径
+   * @return Hex 摘要
+   * @throws IOException 读取失败
+   */
+  public static String fileMd5Hex(@NonNull Path path) throws IOException {
+    return fileHex(path, DigestType.MD5);
+  }
+
+  /**
+   * 计算文件的 SHA-256 小写 Hex 摘要
+   *
+   * @param path 文件路径
+   * @return Hex 摘要
+   * @throws IOException 读取失败
+   */
+  public static String fileSha256Hex(@NonNull Path path) throws IOException {
+    return fileHex(path, DigestType.SHA_256);
+  }
+
+  /**
+   * 计算文件的 SM3 小写 Hex 摘要
+   *
+   * @param path 文件路径
+   * @return Hex 摘要
+   * @throws IOException 读取失败
+   */
+  public static String fileSm3Hex(@NonNull Path path) throws IOException {
+    return fileHex(path, DigestType.SM3);
+  }
+
+  /**
+   * 在线程池中并行计算文件的分块树摘要
+   * <p>
+   * 各块通过 {@link FileChannel#read(ByteBuffer, long)} 按位置并发读取，互不影响
+   *
+   * @param path      文件路径
+   * @param type      摘要算法
+   * @param chunkSize 分块大小
+   * @param pool      线程池
+   * @return 树摘要
+   * @throws IOException 读取失败
+   */
+  public static TreeDigest treeDigest(@NonNull Path path, @NonNull DigestType type, int chunkSize, @NonNull ForkJoinPool pool) throws IOException {
+    if (chunkSize < 1) {
+      throw new IllegalArgumentException("chunkSize must be greater than 0");
+    }
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      long size = channel.size();
+      long chunkCount = (size + chunkSize - 1) / chunkSize;
+      if (chunkCount > Integer.MAX_VALUE - 8) {
+        throw new IllegalArgumentException("chunkSize is too small for file size " + size);
+      }
+      byte[][] chunkDigests = new byte[(int) chunkCount][];
+      if (chunkDigests.length > 0) {
+        try {
+          pool.invoke(new ChunkTask(channel, type, chunkSize, size, chunkDigests, 0, chunkDigests.length));
+        } catch (UncheckedIOException e) {
+          throw e.getCause();
+        }
+      }
+      return new TreeDigest(type, chunkSize, size, chunkDigests);
+    }
+  }
+
+  /**
+   * 使用 {@link ForkJoinPool#commonPool()} 并行计算文件的分块树摘要
+   *
+   * @param path      文件路径
+   * @param type      摘要算法
+   * @param chunkSize 分块大小
+   * @return 树摘要
+   * @throws IOException 读取失败
+   */
+  public static TreeDigest treeDigest(@NonNull Path path, @NonNull DigestType type, int chunkSize) throws IOException {
+    return treeDigest(path, type, chunkSize, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * 以默认分块大小 {@link #DEFAULT_TREE_CHUNK_SIZE} 并行计算文件的分块树摘要
+   *
+   * @param path 文件路径
+   * @param type 摘要算法
+   * @return 树摘要
+   * @throws IOException 读取失败
+   */
+  public static TreeDigest treeDigest(@NonNull Path path, @NonNull DigestType type) throws IOException {
+    return treeDigest(path, type, DEFAULT_TREE_CHUNK_SIZE);
+  }
+
+  /**
+   * 分块摘要任务，按块下标对半拆分，每个叶子计算一块
+   */
+  private static final class ChunkTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final transient FileChannel channel;
+    private final DigestType type;
+    private final int chunkSize;
+    private final long size;
+    private final byte[][] chunkDigests;
+    private final int from;
+    private final int to;
+
+    ChunkTask(FileChannel channel, DigestType type, int chunkSize, long size, byte[][] chunkDigests, int from, int to) {
+      this.channel = channel;
+      this.type = type;
+      this.chunkSize = chunkSize;
+      this.size = size;
+      this.chunkDigests = chunkDigests;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from > 1) {
+        int mid = (from + to) >>> 1;
+        invokeAll(new ChunkTask(channel, type, chunkSize, size, chunkDigests, from, mid),
+          new ChunkTask(channel, type, chunkSize, size, chunkDigests, mid, to));
+        return;
+      }
+      MessageDigest messageDigest = DigestEngine.of(type).threadDigest();
+      ByteBuffer buffer = ByteBuffer.allocate(Math.min(READ_BUFFER_SIZE, chunkSize));
+      long position = (long) from * chunkSize;
+      long end = Math.min(size, position + chunkSize);
+      try {
+        while (position < end) {
+          ((Buffer) buffer).clear();
+          if (end - position < buffer.capacity()) {
+            ((Buffer) buffer).limit((int) (end - position));
+          }
+          int n = channel.read(buffer, position);
+          if (n < 0) {
+            throw new EOFException("Unexpected end of file at position " + position);
+          }
+          messageDigest.update(buffer.array(), 0, n);
+          position += n;
+        }
+      } catch (IOException e) {
+        messageDigest.reset();
+        throw new UncheckedIOException(e);
+      }
+      chunkDigests[from] = messageDigest.digest();
+    }
+  }
 }
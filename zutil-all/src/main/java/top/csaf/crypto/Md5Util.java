@@ -1,12 +1,11 @@
 package top.csaf.crypto;
 
-import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import lombok.NonNull;
+import top.csaf.crypto.enums.DigestType;
 import top.csaf.lang.StrUtil;
 
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
-import java.security.NoSuchProviderException;
-import java.security.Security;
+import java.io.IOException;
+import java.nio.file.Path;
 
 /**
  * MD5 工具类
@@ -27,34 +26,11 @@ public class Md5Util {
     if (!(in instanceof String) && !(in instanceof byte[])) {
       throw new IllegalArgumentException("in must be String or byte[]");
     }
-
-    Security.addProvider(new BouncyCastleProvider());
-    MessageDigest md;
-    try {
-      md = MessageDigest.getInstance("MD5", "BC");
-    } catch (NoSuchAlgorithmException | NoSuchProviderException e) {
-      throw new RuntimeException(e);
-    }
-    byte[] messageDigest = md.digest(in instanceof String ? ((String) in).getBytes() : (byte[]) in);
-    StringBuilder hexString = new StringBuilder();
-
-    for (byte b : messageDigest) {
-      String hex = Integer.toHexString(0xff & b);
-      // 保证生成的十六进制字符串长度为32位（每个字节转换后的十六进制是两位才行），需要在长度为1的十六进制字符串前补充0
-      if (in instanceof byte[] && hex.length() == 1) {
-        hexString.append('0');
-      }
-      hexString.append(hex);
-    }
-    // 是否转大写
-    if (isUpperCase) {
-      return hexString.toString().toUpperCase();
-    } else {
-      return hexString.toString();
-    }
+    // 使用当前线程缓存的 MessageDigest，查表转为 32 位十六进制字符串
+    byte[] bytes = in instanceof String ? ((String) in).getBytes() : (byte[]) in;
+    return DigestEngine.MD5.digestHex(bytes, 0, bytes.length, isUpperCase);
   }
 
-
   /**
    * MD5 加密后转大写
    *
@@ -134,4 +110,28 @@ public class Md5Util {
   public static String toLowerCaseShort(byte[] in) {
     return to(in, false).substring(8, 24);
   }
+
+  /**
+   * 并行计算文件的 MD5 分块树摘要，各块摘要可用于逐块校验
+   *
+   * @param path      文件路径
+   * @param chunkSize 分块大小
+   * @return 树摘要
+   * @throws IOException 读取失败
+   * @see DigestUtil#treeDigest(Path, DigestType, int, java.util.concurrent.ForkJoinPool)
+   */
+  public static TreeDigest toTreeDigest(@NonNull Path path, int chunkSize) throws IOException {
+    return DigestUtil.treeDigest(path, DigestType.MD5, chunkSize);
+  }
+
+  /**
+   * 以默认分块大小并行计算文件的 MD5 分块树摘要
+   *
+   * @param path 文件路径
+   * @return 树摘要
+   * @throws IOException 读取失败
+   */
+  public static TreeDigest toTreeDigest(@NonNull Path path) throws IOException {
+    return DigestUtil.treeDigest(path, DigestType.MD5);
+  }
 }
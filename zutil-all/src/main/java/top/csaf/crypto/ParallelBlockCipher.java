@@ -0,0 +1,144 @@
+package top.csaf.crypto;
+
+import top.csaf.crypto.enums.BlockCipherType;
+import top.csaf.crypto.enums.Mode;
+import top.csaf.crypto.enums.Padding;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.GeneralSecurityException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * 分组密码并行加解密引擎，仅支持分组间没有依赖的 ECB、CTR 模式
+ * <p>
+ * 将数据按分组大小对齐切分为多段，在 {@link ForkJoinPool} 中以 NoPadding 并行加解密，CTR 模式按段的偏移分组数计算各段的计数器；
+ * 最后一个分组（含填充）使用原填充方式处理，结果与串行加解密逐字节相同
+ */
+final class ParallelBlockCipher {
+
+  /**
+   * 小于该大小时串行加解密
+   */
+  static final int PARALLEL_THRESHOLD = 256 * 1024;
+  /**
+   * 每段最小大小
+   */
+  private static final int MIN_SEGMENT_SIZE = 64 * 1024;
+
+  private ParallelBlockCipher() {
+  }
+
+  /**
+   * 是否支持并行
+   *
+   * @param mode 加密模式
+   * @return 是否支持
+   */
+  static boolean isSupported(Mode mode) {
+    return mode == Mode.ECB || mode == Mode.CTR || mode == Mode.SIC;
+  }
+
+  /**
+   * 并行加解密
+   *
+   * @param type       加解密算法
+   * @param mode       加密模式，ECB 或 CTR
+   * @param padding    填充方式
+   * @param keySpec    密钥
+   * @param iv         初始化向量，ECB 模式为 null
+   * @param cipherMode Cipher 模式，ENCRYPT_MODE 或 DECRYPT_MODE
+   * @param data       数据
+   * @param pool       线程池
+   * @return 加解密结果
+   * @throws GeneralSecurityException 加解密失败
+   */
+  static byte[] doFinal(BlockCipherType type, Mode mode, Padding padding, SecretKeySpec keySpec, byte[] iv, int cipherMode, byte[] data, ForkJoinPool pool) throws GeneralSecurityException {
+    String noPaddingTransformation = BlockCipherSession.transformation(type, mode, Padding.NO);
+    Cipher tailCipher = Cipher.getInstance(BlockCipherSession.transformation(type, mode, padding), BlockCipherSession.PROVIDER);
+    int blockSize = tailCipher.getBlockSize();
+    // 最后一个分组（不足一个分组时为剩余部分）单独按原填充方式处理，之前的部分按分组大小对齐
+    int tailStart = data.length == 0 ? 0 : (data.length - 1) / blockSize * blockSize;
+    tailCipher.init(cipherMode, keySpec, iv == null ? null : new IvParameterSpec(counter(iv, tailStart / blockSize)));
+    byte[] tail = tailCipher.doFinal(data, tailStart, data.length - tailStart);
+
+    byte[] out = new byte[tailStart + tail.length];
+    System.arraycopy(tail, 0, out, tailStart, tail.length);
+    if (tailStart > 0) {
+      // 每段大小按分组大小对齐
+      int segmentSize = Math.max(MIN_SEGMENT_SIZE, tailStart / pool.getParallelism() + 1);
+      segmentSize = (segmentSize + blockSize - 1) / blockSize * blockSize;
+      pool.invoke(new SegmentTask(noPaddingTransformation, keySpec, iv, cipherMode, blockSize, segmentSize, data, out, 0, tailStart));
+    }
+    return out;
+  }
+
+  /**
+   * CTR 模式的计数器向后偏移指定分组数，按大端序整体相加
+   *
+   * @param iv     初始计数器
+   * @param blocks 偏移的分组数
+   * @return 偏移后的计数器
+   */
+  static byte[] counter(byte[] iv, long blocks) {
+    byte[] counter = iv.clone();
+    long carry = blocks;
+    for (int i = counter.length - 1; i >= 0 && carry != 0; i--) {
+      long sum = (counter[i] & 0xff) + (carry & 0xff);
+      counter[i] = (byte) sum;
+      carry = (carry >>> 8) + (sum >>> 8);
+    }
+    return counter;
+  }
+
+  /**
+   * 分段任务，超过段大小时对半拆分
+   */
+  private static final class SegmentTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final String transformation;
+    private final SecretKeySpec keySpec;
+    private final byte[] iv;
+    private final int cipherMode;
+    private final int blockSize;
+    private final int segmentSize;
+    private final byte[] in;
+    private final byte[] out;
+    private final int from;
+    private final int to;
+
+    SegmentTask(String transformation, SecretKeySpec keySpec, byte[] iv, int cipherMode, int blockSize, int segmentSize, byte[] in, byte[] out, int from, int to) {
+      this.transformation = transformation;
+      this.keySpec = keySpec;
+      this.iv = iv;
+      this.cipherMode = cipherMode;
+      this.blockSize = blockSize;
+      this.segmentSize = segmentSize;
+      this.in = in;
+      this.out = out;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from > segmentSize) {
+        // 按分组数对半拆分，保证拆分点按分组大小对齐
+        int mid = from + (to - from) / blockSize / 2 * blockSize;
+        invokeAll(new SegmentTask(transformation, keySpec, iv, cipherMode, blockSize, segmentSize, in, out, from, mid),
+          new SegmentTask(transformation, keySpec, iv, cipherMode, blockSize, segmentSize, in, out, mid, to));
+        return;
+      }
+      try {
+        Cipher cipher = Cipher.getInstance(transformation, BlockCipherSession.PROVIDER);
+        cipher.init(cipherMode, keySpec, iv == null ? null : new IvParameterSpec(counter(iv, from / blockSize)));
+        cipher.doFinal(in, from, to - from, out, from);
+      } catch (GeneralSecurityException e) {
+        throw new IllegalStateException(e.getMessage(), e);
+      }
+    }
+  }
+}
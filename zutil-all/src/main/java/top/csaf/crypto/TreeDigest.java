@@ -0,0 +1,145 @@
+package top.csaf.crypto;
+
+import lombok.Getter;
+import lombok.NonNull;
+import top.csaf.crypto.enums.DigestType;
+
+import java.io.Serializable;
+import java.security.MessageDigest;
+
+/**
+ * 分块树摘要
+ * <p>
+ * 文件按固定大小分块，各块分别计算摘要，根摘要为所有块摘要按顺序拼接后的摘要。可通过 {@link #verifyChunk(int, byte[], int, int)} 逐块校验
+ *
+ * <p>
+ * 摘要只通过副本对外提供，调用方修改返回的数组不影响校验结果
+ *
+ * @see DigestUtil#treeDigest(java.nio.file.Path, DigestType, int)
+ */
+public class TreeDigest implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * 摘要算法
+   */
+  @Getter
+  private final DigestType type;
+  /**
+   * 分块大小，最后一块可能较小
+   */
+  @Getter
+  private final int chunkSize;
+  /**
+   * 数据总大小
+   */
+  @Getter
+  private final long size;
+  /**
+   * 各块的摘要
+   */
+  private final byte[][] chunkDigests;
+  /**
+   * 根摘要
+   */
+  private final byte[] rootDigest;
+
+  TreeDigest(DigestType type, int chunkSize, long size, byte[][] chunkDigests) {
+    this.type = type;
+    this.chunkSize = chunkSize;
+    this.size = size;
+    this.chunkDigests = chunkDigests;
+    MessageDigest messageDigest = DigestEngine.of(type).threadDigest();
+    for (byte[] chunkDigest : chunkDigests) {
+      messageDigest.update(chunkDigest);
+    }
+    this.rootDigest = messageDigest.digest();
+  }
+
+  /**
+   * 获取块数
+   *
+   * @return 块数
+   */
+  public int getChunkCount() {
+    return chunkDigests.length;
+  }
+
+  /**
+   * 获取根摘要
+   *
+   * @return 根摘要的副本
+   */
+  public byte[] getRootDigest() {
+    return rootDigest.clone();
+  }
+
+  /**
+   * 获取块摘要
+   *
+   * @param index 块下标
+   * @return 块摘要的副本
+   */
+  public byte[] getChunkDigest(int index) {
+    checkIndex(index);
+    return chunkDigests[index].clone();
+  }
+
+  /**
+   * 获取根摘要的小写 Hex
+   *
+   * @return Hex 摘要
+   */
+  public String getRootHex() {
+    return toHex(rootDigest);
+  }
+
+  /**
+   * 获取块摘要的小写 Hex
+   *
+   * @param index 块下标
+   * @return Hex 摘要
+   */
+  public String getChunkHex(int index) {
+    checkIndex(index);
+    return toHex(chunkDigests[index]);
+  }
+
+  /**
+   * 校验块数据
+   *
+   * @param index 块下标
+   * @param data  块数据
+   * @param off   开始下标
+   * @param len   长度
+   * @return 是否一致
+   */
+  public boolean verifyChunk(int index, byte @NonNull [] data, int off, int len) {
+    checkIndex(index);
+    return MessageDigest.isEqual(chunkDigests[index], DigestEngine.of(type).digest(data, off, len));
+  }
+
+  /**
+   * 校验块数据
+   *
+   * @param index 块下标
+   * @param data  块数据
+   * @return 是否一致
+   */
+  public boolean verifyChunk(int index, byte @NonNull [] data) {
+    return verifyChunk(index, data, 0, data.length);
+  }
+
+  private void checkIndex(int index) {
+    if (index < 0 || index >= chunkDigests.length) {
+      throw new IndexOutOfBoundsException("index: " + index + ", chunkCount: " + chunkDigests.length);
+    }
+  }
+
+  private static String toHex(byte[] digest) {
+    char[] hex = new char[digest.length * 2];
+    DigestEngine.encodeHex(digest, hex, 0, false);
+    return new String(hex);
+  }
+}
@@ -0,0 +1,38 @@
+package top.csaf.crypto.enums;
+
+/**
+ * 摘要算法类型
+ */
+public enum DigestType {
+  /**
+   * MD5 消息摘要算法，摘要长度 16 字节
+   */
+  MD5("MD5"),
+  /**
+   * SHA-1 安全散列算法，摘要长度 20 字节
+   */
+  SHA_1("SHA-1"),
+  /**
+   * SHA-256 安全散列算法，摘要长度 32 字节
+   */
+  SHA_256("SHA-256"),
+  /**
+   * 信息安全技术 SM3 密码杂凑算法，摘要长度 32 字节
+   */
+  SM3("SM3"),
+  ;
+
+  private String value;
+
+  public String getValue() {
+    return value;
+  }
+
+  public void setValue(String value) {
+    this.value = value;
+  }
+
+  DigestType(String value) {
+    this.value = value;
+  }
+}
@@ -0,0 +1,401 @@
+package top.csaf.id;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * 无锁雪花算法
+ * <p>
+ * 二进制：0 - 41 位时间戳 - 5 位数据中心 ID - 5 位机器 ID - 12 位序列号
+ * <p>
+ * 将最后时间戳和序列号打包在一个 {@link AtomicLong} 中，通过 CAS 更新，替代 {@link SnowFlake#next()} 的 synchronized；各部分左移位数在构建时计算好
+ * <p>
+ * 设置 {@link AtomicSnowFlakeBuilder#maxBorrowMillis(long)} 后开启借用时间模式：最后时间戳作为逻辑时钟，时钟回拨或序列号用尽时继续递增生成。
+ * 序列号用尽时借用的超前量最多为指定毫秒数；回拨程度按见过的最大系统时间计算，与借用的超前量分开，回拨不超过指定毫秒数时不会抛出异常
+ */
+public class AtomicSnowFlake {
+
+  /**
+   * 默认开始时间戳
+   */
+  public static final long DEFAULT_START_TIME_MILLIS = 1640966400000L;
+  /**
+   * 默认数据中心 ID 或机器 ID 二进制位数
+   */
+  static final int DEFAULT_DATA_CENTER_OR_MACHINE_BIT = 5;
+  /**
+   * 数据中心 ID 和机器 ID 二进制位数之和
+   */
+  static final int MAX_DATA_CENTER_AND_MACHINE_BIT = 10;
+  /**
+   * 序列号二进制位数
+   */
+  public static final int SEQUENCE_BIT = 12;
+  /**
+   * 序列号最大值
+   */
+  public static final long SEQUENCE_MAX_NUMBER = ~(-1L << SEQUENCE_BIT);
+
+  /**
+   * 开始时间戳
+   */
+  private final long startTimeMillis;
+  /**
+   * 本实例使用的序列号二进制位数，{@link StripedSnowFlake} 的条带会小于 {@link #SEQUENCE_BIT}
+   */
+  private final int sequenceBit;
+  /**
+   * 本实例使用的序列号最大值
+   */
+  private final long sequenceMaxNumber;
+  /**
+   * 时间戳左移 = 序列号二进制位数 + 机器 ID 二进制位数 + 数据中心 ID 二进制位数
+   */
+  private final int timeMillisLeft;
+  /**
+   * 数据中心 ID、机器 ID 等左移后的值，每次生成时直接或运算
+   */
+  private final long nodeBits;
+  /**
+   * 逻辑时钟最多超前系统时钟的毫秒数，0 为不借用
+   */
+  private final long maxBorrowMillis;
+  /**
+   * 系统时钟
+   */
+  private final LongSupplier clock;
+  /**
+   * 见过的最大系统时间戳（相对开始时间戳），用于计算时钟回拨的程度
+   */
+  private final AtomicLong maxWallMillis = new AtomicLong(-1L);
+  /**
+   * 借用的总毫秒数
+   */
+  private final LongAdder borrowedMillis = new LongAdder();
+  /**
+   * 等待时钟的次数
+   */
+  private final LongAdder stalls = new LongAdder();
+  /**
+   * 最后时间戳（相对开始时间戳） << 序列号二进制位数 | 序列号
+   */
+  private final AtomicLong state;
+
+  /**
+   * @param startTimeMillis 开始时间戳
+   * @param sequenceBit     序列号二进制位数
+   * @param timeMillisLeft  时间戳左移
+   * @param nodeBits        数据中心 ID、机器 ID 等左移后的值
+   * @param maxBorrowMillis 逻辑时钟最多超前系统时钟的毫秒数
+   * @param clock           系统时钟
+   */
+  AtomicSnowFlake(long startTimeMillis, int sequenceBit, int timeMillisLeft, long nodeBits, long maxBorrowMillis, LongSupplier clock) {
+    this.startTimeMillis = startTimeMillis;
+    this.sequenceBit = sequenceBit;
+    this.sequenceMaxNumber = ~(-1L << sequenceBit);
+    this.timeMillisLeft = timeMillisLeft;
+    this.nodeBits = nodeBits;
+    this.maxBorrowMillis = maxBorrowMillis;
+    this.clock = clock;
+    this.state = new AtomicLong(-1L << sequenceBit | sequenceMaxNumber);
+  }
+
+  private AtomicSnowFlake(AtomicSnowFlakeBuilder builder) {
+    this(builder.startTimeMillis, SEQUENCE_BIT, SEQUENCE_BIT + builder.machineBit + builder.dataCenterBit,
+      builder.dataCenterId << (SEQUENCE_BIT + builder.machineBit) | builder.machineId << SEQUENCE_BIT, builder.maxBorrowMillis, builder.clock);
+  }
+
+  /**
+   * 无锁雪花算法类 Builder
+   * <p>
+   * 默认数据中心 ID 二进制位数和机器 ID 二进制位数为 5
+   */
+  public static class AtomicSnowFlakeBuilder {
+    private int dataCenterBit = DEFAULT_DATA_CENTER_OR_MACHINE_BIT;
+    private int machineBit = DEFAULT_DATA_CENTER_OR_MACHINE_BIT;
+    private long dataCenterId;
+    private long machineId;
+    private long startTimeMillis = DEFAULT_START_TIME_MILLIS;
+    private long maxBorrowMillis;
+    private LongSupplier clock = System::currentTimeMillis;
+
+    /**
+     * 设置数据中心 ID 二进制位数，和机器 ID 二进制位数同时只需设置一个即可
+     *
+     * @param dataCenterBit 数据中心 ID 二进制位数
+     * @return 无锁雪花算法类 Builder
+     */
+    public AtomicSnowFlakeBuilder dataCenterBit(int dataCenterBit) {
+      if (dataCenterBit > MAX_DATA_CENTER_AND_MACHINE_BIT || dataCenterBit < 0) {
+        throw new IllegalArgumentException("dataCenterBit cannot be greater than " + MAX_DATA_CENTER_AND_MACHINE_BIT + " or less than 0");
+      }
+      this.dataCenterBit = dataCenterBit;
+      this.machineBit = MAX_DATA_CENTER_AND_MACHINE_BIT - dataCenterBit;
+      return this;
+    }
+
+    /**
+     * 设置机器 ID 二进制位数，和数据中心 ID 二进制位数同时只需设置一个即可
+     *
+     * @param machineBit 机器 ID 二进制位数
+     * @return 无锁雪花算法类 Builder
+     */
+    public AtomicSnowFlakeBuilder machineBit(int machineBit) {
+      if (machineBit > MAX_DATA_CENTER_AND_MACHINE_BIT || machineBit < 0) {
+        throw new IllegalArgumentException("machineBit cannot be greater than " + MAX_DATA_CENTER_AND_MACHINE_BIT + " or less than 0");
+      }
+      this.dataCenterBit = MAX_DATA_CENTER_AND_MACHINE_BIT - machineBit;
+      this.machineBit = machineBit;
+      return this;
+    }
+
+    public AtomicSnowFlakeBuilder dataCenterId(long dataCenterId) {
+      this.dataCenterId = dataCenterId;
+      return this;
+    }
+
+    public AtomicSnowFlakeBuilder machineId(long machineId) {
+      this.machineId = machineId;
+      return this;
+    }
+
+    /**
+     * 设置开始时间戳，默认为 2022-01-01 00:00:00 +08:00
+     *
+     * @param startTimeMillis 开始时间戳
+     * @return 无锁雪花算法类 Builder
+     */
+    public AtomicSnowFlakeBuilder startTimeMillis(long startTimeMillis) {
+      if (startTimeMillis < 0 || startTimeMillis > System.currentTimeMillis()) {
+        throw new IllegalArgumentException("startTimeMillis cannot be greater than current time millis or less than 0");
+      }
+      this.startTimeMillis = startTimeMillis;
+      return this;
+    }
+
+    /**
+     * 设置逻辑时钟最多超前系统时钟的毫秒数，默认为 0
+     * <p>
+     * 大于 0 时，回拨不超过该值不会抛出异常，同一毫秒序列号用尽时借用下一毫秒而不等待；
+     * 回拨程度按见过的最大系统时间计算，已借用到上限后再发生小的回拨时，序列号用尽会等待时钟追上并计入 {@link #getStalls()}
+     *
+     * @param maxBorrowMillis 最多超前毫秒数
+     * @return 无锁雪花算法类 Builder
+     */
+    public AtomicSnowFlakeBuilder maxBorrowMillis(long maxBorrowMillis) {
+      if (maxBorrowMillis < 0) {
+        throw new IllegalArgumentException("maxBorrowMillis cannot be less than 0");
+      }
+      this.maxBorrowMillis = maxBorrowMillis;
+      return this;
+    }
+
+    /**
+     * 设置系统时钟，默认为 {@link System#currentTimeMillis()}，可用于测试时钟回拨
+     *
+     * @param clock 返回当前时间戳的时钟
+     * @return 无锁雪花算法类 Builder
+     */
+    public AtomicSnowFlakeBuilder clock(LongSupplier clock) {
+      if (clock == null) {
+        throw new IllegalArgumentException("clock cannot be null");
+      }
+      this.clock = clock;
+      return this;
+    }
+
+    public AtomicSnowFlake build() {
+      // 数据中心 ID 判断
+      long dataCenterMaxNumber = ~(-1L << dataCenterBit);
+      if (dataCenterId > dataCenterMaxNumber || dataCenterId < 0) {
+        throw new IllegalArgumentException("dataCenterId cannot be greater than " + dataCenterMaxNumber + " or less than 0");
+      }
+      // 机器 ID 判断
+      long machineMaxNumber = ~(-1L << machineBit);
+      if (machineId > machineMaxNumber || machineId < 0) {
+        throw new IllegalArgumentException("machineId cannot be greater than " + machineMaxNumber + " or less than 0");
+      }
+      return new AtomicSnowFlake(this);
+    }
+  }
+
+  public static AtomicSnowFlakeBuilder builder() {
+    return new AtomicSnowFlakeBuilder();
+  }
+
+  /**
+   * 当前时间戳（相对开始时间戳）
+   */
+  private long currentTimeMillis() {
+    return clock.getAsLong() - startTimeMillis;
+  }
+
+  /**
+   * 获取借用的总毫秒数
+   * <p>
+   * 只统计序列号用尽时借用的下一毫秒；时钟回拨期间沿用最后时间戳生成不计入，回拨的程度可通过 {@link #getLeadMillis()} 获取
+   *
+   * @return 借用的总毫秒数
+   */
+  public long getBorrowedMillis() {
+    return borrowedMillis.sum();
+  }
+
+  /**
+   * 获取等待时钟的次数，包括未开启借用时间模式时序列号用尽的等待
+   *
+   * @return 等待时钟的次数
+   */
+  public long getStalls() {
+    return stalls.sum();
+  }
+
+  /**
+   * 获取逻辑时钟当前超前系统时钟的毫秒数
+   *
+   * @return 超前毫秒数，未超前时为 0
+   */
+  public long getLeadMillis() {
+    return Math.max(0, (state.get() >> sequenceBit) - currentTimeMillis());
+  }
+
+  /**
+   * 自旋等待到指定时间的下一毫秒
+   *
+   * @param lastTimeMillis 时间戳（相对开始时间戳）
+   */
+  private void waitNextMillis(long lastTimeMillis) {
+    while (currentTimeMillis() <= lastTimeMillis) {
+      // 自旋
+    }
+  }
+
+  /**
+   * 组合 ID
+   *
+   * @param timeMillis 时间戳（相对开始时间戳）
+   * @param sequence   序列号
+   * @return ID
+   */
+  private long compose(long timeMillis, long sequence) {
+    // 时间戳 | 数据中心 ID | 机器 ID | 序列号
+    return timeMillis << timeMillisLeft | nodeBits | sequence;
+  }
+
+  /**
+   * 预留序列号，每次 CAS 预留当前毫秒内尽可能多的连续序列号
+   * <p>
+   * 当前时间不大于最后时间（时钟回拨或已借用未来时间）时，沿用最后时间继续生成，当前时间比见过的最大系统时间小超过 {@link #maxBorrowMillis} 时拒绝生成；
+   * 同一毫秒序列号用尽时，如果借用下一毫秒后超前不超过 {@link #maxBorrowMillis} 则直接借用，否则自旋等待
+   *
+   * @param n 期望个数
+   * @return 时间戳（相对开始时间戳） << 序列号二进制位数 | 开始序列号，实际预留个数为 min(n, 序列号最大值 + 1 - 开始序列号)
+   */
+  private long reserve(int n) {
+    while (true) {
+      // 先读状态、最大系统时间再读时钟，避免其他线程刚更新导致误判时钟回拨
+      long last = state.get();
+      long lastTimeMillis = last >> sequenceBit;
+      long wallMillis = maxWallMillis.get();
+      long currentTimeMillis = currentTimeMillis();
+      if (currentTimeMillis > wallMillis) {
+        // 失败时其他线程已更新为更大的值
+        maxWallMillis.compareAndSet(wallMillis, currentTimeMillis);
+      }
+      long timeMillis;
+      long startSequence;
+      boolean isBorrow = false;
+      if (currentTimeMillis > lastTimeMillis) {
+        // 不同毫秒内序列号置 0
+        timeMillis = currentTimeMillis;
+        startSequence = 0;
+      } else {
+        // 机器时间被回拨，按见过的最大系统时间计算，不包括借用的超前量
+        if (wallMillis - currentTimeMillis > maxBorrowMillis) {
+          throw new RuntimeException("The clock was moved forward and refused to generate ID.");
+        }
+        if ((last & sequenceMaxNumber) != sequenceMaxNumber) {
+          // 同一毫秒，序列号自增
+          timeMillis = lastTimeMillis;
+          startSequence = (last & sequenceMaxNumber) + 1;
+        } else if (lastTimeMillis + 1 - currentTimeMillis <= maxBorrowMillis) {
+          // 同一毫秒序列号达到最大，借用下一毫秒
+          timeMillis = lastTimeMillis + 1;
+          startSequence = 0;
+          isBorrow = true;
+        } else {
+          // 超前已达上限，等待时钟追上后重试
+          stalls.increment();
+          waitNextMillis(lastTimeMillis - maxBorrowMillis);
+          continue;
+        }
+      }
+      long start = timeMillis << sequenceBit | startSequence;
+      if (state.compareAndSet(last, start + Math.min(n, sequenceMaxNumber + 1 - startSequence) - 1)) {
+        if (isBorrow) {
+          borrowedMillis.increment();
+        }
+        return start;
+      }
+    }
+  }
+
+  /**
+   * 生成 ID
+   *
+   * @return ID
+   */
+  public long next() {
+    long start = reserve(1);
+    return compose(start >> sequenceBit, start & sequenceMaxNumber);
+  }
+
+  /**
+   * 批量生成 ID，每次 CAS 预留当前毫秒内尽可能多的连续序列号
+   *
+   * @param out 存放 ID 的数组
+   * @param off 开始下标
+   * @param len 生成个数
+   */
+  public void nextBatch(long[] out, int off, int len) {
+    if (off < 0 || len < 0 || off + len > out.length) {
+      throw new IndexOutOfBoundsException("off: " + off + ", len: " + len + ", length: " + out.length);
+    }
+    int filled = 0;
+    while (filled < len) {
+      long start = reserve(len - filled);
+      long startSequence = start & sequenceMaxNumber;
+      // 本次预留的序列号个数
+      int count = (int) Math.min(len - filled, sequenceMaxNumber + 1 - startSequence);
+      long base = compose(start >> sequenceBit, startSequence);
+      for (int i = 0; i < count; i++) {
+        out[off + filled++] = base + i;
+      }
+    }
+  }
+
+  /**
+   * 批量生成 ID，填满数组
+   *
+   * @param out 存放 ID 的数组
+   */
+  public void nextBatch(long[] out) {
+    nextBatch(out, 0, out.length);
+  }
+
+  /**
+   * 批量生成 ID
+   *
+   * @param n 个数
+   * @return ID 数组
+   */
+  public long[] next(int n) {
+    if (n < 0) {
+      throw new IllegalArgumentException("n cannot be less than 0");
+    }
+    long[] ids = new long[n];
+    nextBatch(ids, 0, n);
+    return ids;
+  }
+}
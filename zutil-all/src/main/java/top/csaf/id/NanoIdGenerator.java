@@ -0,0 +1,305 @@
+package top.csaf.id;
+
+import lombok.NonNull;
+
+import java.security.SecureRandom;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * NanoID 生成器
+ * <p>
+ * 构造时计算好字典的掩码，每个线程使用各自的随机数生成器和随机字节池，字节池按块批量填充，直接写入 char[]
+ * <p>
+ * 批量生成（{@link #nextBatch(String[], int, int)}、{@link #iterator()}、{@link #stream()}）时使用更大的随机字节缓冲，一次填充供数千个 ID 使用
+ */
+public class NanoIdGenerator {
+
+  /**
+   * 默认随机字节池大小
+   */
+  private static final int DEFAULT_POOL_SIZE = 4096;
+  /**
+   * 批量生成时随机字节缓冲的最大大小
+   */
+  private static final int MAX_BULK_BUFFER_SIZE = 65536;
+
+  /**
+   * 默认各线程的随机字节池，使用各自的 {@link SecureRandom}
+   */
+  private static final ThreadLocal<RandomBytePool> DEFAULT_POOL = ThreadLocal.withInitial(() -> new RandomBytePool(new SecureRandom(), DEFAULT_POOL_SIZE));
+
+  /**
+   * 字典
+   */
+  private final char[] alphabet;
+  /**
+   * 长度
+   */
+  private final int size;
+  /**
+   * 掩码
+   */
+  private final int mask;
+  /**
+   * 生成一个 ID 预计所需的随机字节数
+   */
+  private final int step;
+  /**
+   * 各线程的随机字节池
+   */
+  private final ThreadLocal<RandomBytePool> pool;
+
+  /**
+   * @param size              长度
+   * @param alphabet          字典字符数组
+   * @param generatorSupplier 随机数生成器提供者，每个线程调用一次
+   * @param poolSize          随机字节池大小
+   */
+  public NanoIdGenerator(final int size, @NonNull final char[] alphabet, @NonNull final Supplier<? extends Random> generatorSupplier, final int poolSize) {
+    this(size, alphabet, ThreadLocal.withInitial(() -> new RandomBytePool(generatorSupplier.get(), poolSize)));
+    if (poolSize < 1) {
+      throw new IllegalArgumentException("PoolSize: must be greater than 0");
+    }
+  }
+
+  /**
+   * 使用各线程的 {@link SecureRandom}
+   *
+   * @param size     长度
+   * @param alphabet 字典字符数组
+   */
+  public NanoIdGenerator(final int size, @NonNull final char[] alphabet) {
+    this(size, alphabet, DEFAULT_POOL);
+  }
+
+  /**
+   * 使用各线程的 {@link SecureRandom}
+   *
+   * @param size     长度
+   * @param alphabet 字典字符串
+   */
+  public NanoIdGenerator(final int size, @NonNull final String alphabet) {
+    this(size, alphabet.toCharArray(), DEFAULT_POOL);
+  }
+
+  /**
+   * 使用默认字典和各线程的 {@link SecureRandom}
+   *
+   * @param size 长度
+   */
+  public NanoIdGenerator(final int size) {
+    this(size, NanoIdUtil.DEFAULT_ALPHABET, DEFAULT_POOL);
+  }
+
+  /**
+   * 使用默认长度、默认字典和各线程的 {@link SecureRandom}
+   */
+  public NanoIdGenerator() {
+    this(NanoIdUtil.DEFAULT_SIZE, NanoIdUtil.DEFAULT_ALPHABET, DEFAULT_POOL);
+  }
+
+  private NanoIdGenerator(final int size, final char[] alphabet, final ThreadLocal<RandomBytePool> pool) {
+    if (size < 1) {
+      throw new IllegalArgumentException("Size: must be greater than 0");
+    }
+    if (alphabet.length == 0 || alphabet.length >= 256) {
+      throw new IllegalArgumentException("Alphabet: must contain between 1 and 255 symbols.");
+    }
+    this.alphabet = alphabet.clone();
+    this.size = size;
+    this.mask = (2 << (int) Math.floor(Math.log(alphabet.length - 1) / Math.log(2))) - 1;
+    this.step = (int) Math.ceil(1.6 * mask * size / alphabet.length);
+    this.pool = pool;
+  }
+
+  /**
+   * 随机字节池
+   */
+  static class RandomBytePool {
+    private final Random generator;
+    private final byte[] bytes;
+    private int position;
+
+    RandomBytePool(Random generator, int size) {
+      this.generator = generator;
+      this.bytes = new byte[size];
+      this.position = size;
+    }
+
+    /**
+     * 获取下一个随机字节，用完时整块填充
+     */
+    int next() {
+      if (position == bytes.length) {
+        generator.nextBytes(bytes);
+        position = 0;
+      }
+      return bytes[position++];
+    }
+  }
+
+  /**
+   * 批量生成迭代器，使用独立的随机字节缓冲和字符缓冲
+   */
+  private class BulkIterator implements Iterator<String> {
+    private final Random generator;
+    private final byte[] bytes;
+    private final char[] chars = new char[size];
+    private int position;
+    /**
+     * 剩余个数，小于 0 时为无限
+     */
+    private long remaining;
+
+    BulkIterator(long count) {
+      this.generator = pool.get().generator;
+      long bufferSize = count < 0 ? MAX_BULK_BUFFER_SIZE : Math.max(1, Math.min(MAX_BULK_BUFFER_SIZE, count * step));
+      this.bytes = new byte[(int) bufferSize];
+      this.position = bytes.length;
+      this.remaining = count;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return remaining != 0;
+    }
+
+    @Override
+    public String next() {
+      if (remaining == 0) {
+        throw new NoSuchElementException();
+      }
+      int i = 0;
+      while (i < size) {
+        if (position == bytes.length) {
+          generator.nextBytes(bytes);
+          position = 0;
+        }
+        int alphabetIndex = bytes[position++] & mask;
+        if (alphabetIndex < alphabet.length) {
+          chars[i++] = alphabet[alphabetIndex];
+        }
+      }
+      if (remaining > 0) {
+        remaining--;
+      }
+      return new String(chars);
+    }
+  }
+
+  /**
+   * 生成 NanoID 并写入字符数组
+   *
+   * @param out 字符数组
+   * @param off 开始下标
+   * @param len 长度
+   */
+  public void nextInto(@NonNull final char[] out, final int off, final int len) {
+    if (off < 0 || len < 0 || off + len > out.length) {
+      throw new IndexOutOfBoundsException("off: " + off + ", len: " + len + ", length: " + out.length);
+    }
+    RandomBytePool bytePool = pool.get();
+    int end = off + len;
+    int i = off;
+    while (i < end) {
+      int alphabetIndex = bytePool.next() & mask;
+      if (alphabetIndex < alphabet.length) {
+        out[i++] = alphabet[alphabetIndex];
+      }
+    }
+  }
+
+  /**
+   * 生成指定长度的 NanoID
+   *
+   * @param size 长度
+   * @return NanoID
+   */
+  public String next(final int size) {
+    if (size < 1) {
+      throw new IllegalArgumentException("Size: must be greater than 0");
+    }
+    char[] chars = new char[size];
+    nextInto(chars, 0, size);
+    return new String(chars);
+  }
+
+  /**
+   * 生成 NanoID
+   *
+   * @return NanoID
+   */
+  public String next() {
+    return next(size);
+  }
+
+  /**
+   * 批量生成 NanoID 并写入数组
+   *
+   * @param out 数组
+   * @param off 开始下标
+   * @param len 个数
+   */
+  public void nextBatch(@NonNull final String[] out, final int off, final int len) {
+    if (off < 0 || len < 0 || off + len > out.length) {
+      throw new IndexOutOfBoundsException("off: " + off + ", len: " + len + ", length: " + out.length);
+    }
+    BulkIterator iterator = new BulkIterator(len);
+    for (int i = off, end = off + len; i < end; i++) {
+      out[i] = iterator.next();
+    }
+  }
+
+  /**
+   * 批量生成 NanoID
+   *
+   * @param count 个数
+   * @return NanoID 数组
+   */
+  public String[] nextBatch(final int count) {
+    if (count < 0) {
+      throw new IllegalArgumentException("Count: must be greater than or equal to 0");
+    }
+    String[] ids = new String[count];
+    nextBatch(ids, 0, count);
+    return ids;
+  }
+
+  /**
+   * 获取无限生成 NanoID 的迭代器，非线程安全
+   *
+   * @return 迭代器
+   */
+  public Iterator<String> iterator() {
+    return new BulkIterator(-1);
+  }
+
+  /**
+   * 获取无限生成 NanoID 的顺序流，需配合 {@link Stream#limit(long)} 等使用
+   *
+   * @return 顺序流
+   */
+  public Stream<String> stream() {
+    return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator(), Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.IMMUTABLE), false);
+  }
+
+  /**
+   * 获取生成指定个数 NanoID 的顺序流
+   *
+   * @param count 个数
+   * @return 顺序流
+   */
+  public Stream<String> stream(final long count) {
+    if (count < 0) {
+      throw new IllegalArgumentException("Count: must be greater than or equal to 0");
+    }
+    return StreamSupport.stream(Spliterators.spliterator(new BulkIterator(count), count, Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.IMMUTABLE), false);
+  }
+}
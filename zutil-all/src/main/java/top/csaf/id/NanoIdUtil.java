@@ -4,6 +4,7 @@ import lombok.NonNull;
 
 import java.security.SecureRandom;
 import java.util.Random;
+import java.util.stream.Stream;
 
 /**
  * NanoID 工具类
@@ -25,6 +26,11 @@ public class NanoIdUtil {
    */
   public static final int DEFAULT_SIZE = 21;
 
+  /**
+   * 默认 NanoID 生成器，使用默认字典和各线程的 {@link SecureRandom}
+   */
+  private static final NanoIdGenerator DEFAULT_NANO_ID_GENERATOR = new NanoIdGenerator();
+
   /**
    * 生成 NanoID
    *
@@ -44,8 +50,8 @@ public class NanoIdUtil {
     int mask = (2 << (int) Math.floor(Math.log(alphabet.length - 1) / Math.log(2))) - 1;
     int step = (int) Math.ceil(1.6 * mask * size / alphabet.length);
     final StringBuilder idBuilder = new StringBuilder(size);
+    final byte[] bytes = new byte[step];
     while (true) {
-      final byte[] bytes = new byte[step];
       generator.nextBytes(bytes);
       for (int i = 0; i < step; i++) {
         int alphabetIndex = bytes[i] & mask;
@@ -72,43 +78,112 @@ public class NanoIdUtil {
   }
 
   /**
-   * 生成 NanoID
+   * 生成 NanoID，使用各线程的 {@link SecureRandom}
+   * <p>
+   * 同一字典多次生成时，建议复用 {@link NanoIdGenerator}
    *
    * @param size     长度
    * @param alphabet 字典
    * @return NanoID
    */
   public static String randomNanoId(final int size, @NonNull char[] alphabet) {
-    return randomNanoId(size, alphabet, DEFAULT_ID_GENERATOR);
+    return new NanoIdGenerator(size, alphabet).next();
   }
 
   /**
-   * 生成 NanoID
+   * 生成 NanoID，使用各线程的 {@link SecureRandom}
+   * <p>
+   * 同一字典多次生成时，建议复用 {@link NanoIdGenerator}
    *
    * @param size     长度
    * @param alphabet 字典
    * @return NanoID
    */
-  public static String randomNanoId(int size, String alphabet) {
-    return randomNanoId(size, alphabet, DEFAULT_ID_GENERATOR);
+  public static String randomNanoId(int size, @NonNull String alphabet) {
+    return randomNanoId(size, alphabet.toCharArray());
   }
 
   /**
-   * 生成 NanoID
+   * 生成 NanoID，使用各线程的 {@link SecureRandom}
    *
    * @param size 长度
    * @return NanoID
    */
   public static String randomNanoId(int size) {
-    return randomNanoId(size, DEFAULT_ALPHABET, DEFAULT_ID_GENERATOR);
+    return DEFAULT_NANO_ID_GENERATOR.next(size);
   }
 
   /**
-   * 生成 NanoID
+   * 生成 NanoID，使用各线程的 {@link SecureRandom}
    *
    * @return NanoID
    */
   public static String randomNanoId() {
-    return randomNanoId(DEFAULT_SIZE, DEFAULT_ALPHABET, DEFAULT_ID_GENERATOR);
+    return DEFAULT_NANO_ID_GENERATOR.next();
+  }
+
+  /**
+   * 批量生成 NanoID，使用各线程的 {@link SecureRandom}，一次获取的随机字节供多个 ID 使用
+   *
+   * @param count    个数
+   * @param size     长度
+   * @param alphabet 字典字符数组
+   * @return NanoID 数组
+   */
+  public static String[] randomNanoIds(final int count, final int size, @NonNull final char[] alphabet) {
+    return new NanoIdGenerator(size, alphabet).nextBatch(count);
+  }
+
+  /**
+   * 批量生成 NanoID，使用各线程的 {@link SecureRandom}，一次获取的随机字节供多个 ID 使用
+   *
+   * @param count    个数
+   * @param size     长度
+   * @param alphabet 字典字符串
+   * @return NanoID 数组
+   */
+  public static String[] randomNanoIds(final int count, final int size, @NonNull final String alphabet) {
+    return randomNanoIds(count, size, alphabet.toCharArray());
+  }
+
+  /**
+   * 批量生成 NanoID，使用各线程的 {@link SecureRandom}，一次获取的随机字节供多个 ID 使用
+   *
+   * @param count 个数
+   * @param size  长度
+   * @return NanoID 数组
+   */
+  public static String[] randomNanoIds(final int count, final int size) {
+    return size == DEFAULT_SIZE ? DEFAULT_NANO_ID_GENERATOR.nextBatch(count) : randomNanoIds(count, size, DEFAULT_ALPHABET);
+  }
+
+  /**
+   * 批量生成 NanoID，使用各线程的 {@link SecureRandom}，一次获取的随机字节供多个 ID 使用
+   *
+   * @param count 个数
+   * @return NanoID 数组
+   */
+  public static String[] randomNanoIds(final int count) {
+    return DEFAULT_NANO_ID_GENERATOR.nextBatch(count);
+  }
+
+  /**
+   * 获取无限生成 NanoID 的顺序流，需配合 {@link Stream#limit(long)} 等使用
+   *
+   * @param size     长度
+   * @param alphabet 字典字符数组
+   * @return 顺序流
+   */
+  public static Stream<String> randomNanoIdStream(final int size, @NonNull final char[] alphabet) {
+    return new NanoIdGenerator(size, alphabet).stream();
+  }
+
+  /**
+   * 获取无限生成 NanoID 的顺序流，使用默认长度和默认字典，需配合 {@link Stream#limit(long)} 等使用
+   *
+   * @return 顺序流
+   */
+  public static Stream<String> randomNanoIdStream() {
+    return DEFAULT_NANO_ID_GENERATOR.stream();
   }
 }
@@ -9,6 +9,8 @@ import lombok.extern.slf4j.Slf4j;
  * 二进制：0 - 41 位时间戳 - 5 位数据中心 ID - 5 位机器 ID - 12 位序列号
  * <p>
  * https://github.com/beyondfengyu/SnowFlake
+ *
+ * @see AtomicSnowFlake
  */
 @Deprecated
 @Slf4j
@@ -83,6 +85,8 @@ public class SnowFlake {
   public SnowFlake(SnowFlakeBuilder snowFlakeBuilder) {
     this.dataCenterBit = snowFlakeBuilder.dataCenterBit;
     this.machineBit = snowFlakeBuilder.machineBit;
+    this.dataCenterId = snowFlakeBuilder.dataCenterId;
+    this.machineId = snowFlakeBuilder.machineId;
   }
 
   /**
@@ -195,8 +199,8 @@ public class SnowFlake {
       sequence = (sequence + 1) & SEQUENCE_MAX_NUMBER;
       // 如果同一毫秒序列号达到最大（上面 & 了序列号最大值，所以此处最大值为 0）
       if (sequence == 0L) {
-        long l = System.currentTimeMillis();
-        while (l <= lastTimeMillis) {
+        // 等待到下一毫秒
+        while (currentTimeMillis <= lastTimeMillis) {
           currentTimeMillis = System.currentTimeMillis();
         }
       }
@@ -218,6 +222,6 @@ public class SnowFlake {
     }
 
     // 时间戳 | 数据中心 ID | 机器 ID | 序列号
-    return (currentTimeMillis - START_TIME_MILLIS) << dataCenterLeft | this.dataCenterId << dataCenterLeft | this.machineId << MACHINE_LEFT | sequence;
+    return (currentTimeMillis - START_TIME_MILLIS) << timeMillisLeft | this.dataCenterId << dataCenterLeft | this.machineId << MACHINE_LEFT | sequence;
   }
 }
@@ -0,0 +1,95 @@
+package top.csaf.id;
+
+/**
+ * 雪花算法 ID 解析器
+ * <p>
+ * 二进制：0 - 时间戳 - 数据中心 ID - 机器 ID - 条带 - 序列号，条带和序列号共 12 位
+ */
+public class SnowFlakeDecoder {
+
+  /**
+   * 开始时间戳
+   */
+  private final long startTimeMillis;
+  /**
+   * 序列号二进制位数
+   */
+  private final int sequenceBit;
+  /**
+   * 条带左移 = 序列号二进制位数
+   */
+  private final int stripeLeft;
+  /**
+   * 机器 ID 左移 = 条带左移 + 条带二进制位数
+   */
+  private final int machineLeft;
+  /**
+   * 数据中心 ID 左移 = 机器 ID 左移 + 机器 ID 二进制位数
+   */
+  private final int dataCenterLeft;
+  /**
+   * 时间戳左移 = 数据中心 ID 左移 + 数据中心 ID 二进制位数
+   */
+  private final int timeMillisLeft;
+  private final long stripeMaxNumber;
+  private final long machineMaxNumber;
+  private final long dataCenterMaxNumber;
+
+  /**
+   * @param startTimeMillis 开始时间戳
+   * @param dataCenterBit   数据中心 ID 二进制位数
+   * @param machineBit      机器 ID 二进制位数
+   * @param stripeBit       条带二进制位数，非 {@link StripedSnowFlake} 生成的 ID 为 0
+   */
+  public SnowFlakeDecoder(long startTimeMillis, int dataCenterBit, int machineBit, int stripeBit) {
+    if (dataCenterBit < 0 || machineBit < 0 || dataCenterBit + machineBit > 10) {
+      throw new IllegalArgumentException("dataCenterBit and machineBit cannot be less than 0 and their sum cannot be greater than 10");
+    }
+    if (stripeBit < 0 || stripeBit >= AtomicSnowFlake.SEQUENCE_BIT) {
+      throw new IllegalArgumentException("stripeBit cannot be greater than " + (AtomicSnowFlake.SEQUENCE_BIT - 1) + " or less than 0");
+    }
+    this.startTimeMillis = startTimeMillis;
+    this.sequenceBit = AtomicSnowFlake.SEQUENCE_BIT - stripeBit;
+    this.stripeLeft = this.sequenceBit;
+    this.machineLeft = AtomicSnowFlake.SEQUENCE_BIT;
+    this.dataCenterLeft = this.machineLeft + machineBit;
+    this.timeMillisLeft = this.dataCenterLeft + dataCenterBit;
+    this.stripeMaxNumber = ~(-1L << stripeBit);
+    this.machineMaxNumber = ~(-1L << machineBit);
+    this.dataCenterMaxNumber = ~(-1L << dataCenterBit);
+  }
+
+  /**
+   * 使用默认开始时间戳，无条带
+   *
+   * @param dataCenterBit 数据中心 ID 二进制位数
+   * @param machineBit    机器 ID 二进制位数
+   */
+  public SnowFlakeDecoder(int dataCenterBit, int machineBit) {
+    this(AtomicSnowFlake.DEFAULT_START_TIME_MILLIS, dataCenterBit, machineBit, 0);
+  }
+
+  /**
+   * 使用默认开始时间戳、默认数据中心 ID 和机器 ID 二进制位数，无条带
+   */
+  public SnowFlakeDecoder() {
+    this(5, 5);
+  }
+
+  /**
+   * 解析 ID
+   *
+   * @param id ID
+   * @return ID 信息
+   */
+  public SnowFlakeInfo decode(long id) {
+    SnowFlakeInfo info = new SnowFlakeInfo();
+    info.setId(id);
+    info.setTimeMillis((id >>> timeMillisLeft) + startTimeMillis);
+    info.setDataCenterId(id >>> dataCenterLeft & dataCenterMaxNumber);
+    info.setMachineId(id >>> machineLeft & machineMaxNumber);
+    info.setStripe(id >>> stripeLeft & stripeMaxNumber);
+    info.setSequence(id & ~(-1L << sequenceBit));
+    return info;
+  }
+}
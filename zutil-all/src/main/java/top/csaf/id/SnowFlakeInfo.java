@@ -0,0 +1,39 @@
+package top.csaf.id;
+
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * 雪花算法 ID 信息
+ */
+@Data
+public class SnowFlakeInfo implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * ID
+   */
+  private long id;
+  /**
+   * 生成时间戳
+   */
+  private long timeMillis;
+  /**
+   * 数据中心 ID
+   */
+  private long dataCenterId;
+  /**
+   * 机器 ID
+   */
+  private long machineId;
+  /**
+   * 条带，非 {@link StripedSnowFlake} 生成时为 0
+   */
+  private long stripe;
+  /**
+   * 序列号
+   */
+  private long sequence;
+}
@@ -0,0 +1,264 @@
+package top.csaf.id;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 条带雪花算法
+ * <p>
+ * 二进制：0 - 41 位时间戳 - 5 位数据中心 ID - 5 位机器 ID - 条带 - 序列号，条带和序列号共 12 位
+ * <p>
+ * 将序列号的高位划分为多个条带，每个线程首次生成时绑定一个条带，各条带独立维护最后时间戳和序列号，线程数不超过条带数时线程间没有共享的可变状态。
+ * 线程数超过条带数时多个线程共用一个条带，仍通过 CAS 保证唯一。
+ * <p>
+ * 条带占用序列号位，每毫秒可生成的 ID 总数不变，每个条带每毫秒可生成 2 ^ (12 - 条带二进制位数) 个
+ */
+public class StripedSnowFlake {
+
+  /**
+   * 默认条带二进制位数
+   */
+  private static final int DEFAULT_STRIPE_BIT = 4;
+
+  /**
+   * 条带
+   */
+  private final AtomicSnowFlake[] stripes;
+  /**
+   * 下一个绑定的条带，仅在线程首次生成时使用
+   */
+  private final AtomicInteger nextStripe = new AtomicInteger();
+  /**
+   * 当前线程绑定的条带
+   */
+  private final ThreadLocal<AtomicSnowFlake> threadStripe;
+  /**
+   * ID 解析器
+   */
+  private final SnowFlakeDecoder decoder;
+
+  private StripedSnowFlake(StripedSnowFlakeBuilder builder) {
+    int sequenceBit = AtomicSnowFlake.SEQUENCE_BIT - builder.stripeBit;
+    int dataCenterLeft = AtomicSnowFlake.SEQUENCE_BIT + builder.machineBit;
+    int timeMillisLeft = dataCenterLeft + builder.dataCenterBit;
+    long nodeBits = builder.dataCenterId << dataCenterLeft | builder.machineId << AtomicSnowFlake.SEQUENCE_BIT;
+    this.stripes = new AtomicSnowFlake[1 << builder.stripeBit];
+    for (int i = 0; i < stripes.length; i++) {
+      stripes[i] = new AtomicSnowFlake(builder.startTimeMillis, sequenceBit, timeMillisLeft, nodeBits | (long) i << sequenceBit, builder.maxBorrowMillis,
+        System::currentTimeMillis);
+    }
+    this.threadStripe = ThreadLocal.withInitial(() -> stripes[nextStripe.getAndIncrement() & (stripes.length - 1)]);
+    this.decoder = new SnowFlakeDecoder(builder.startTimeMillis, builder.dataCenterBit, builder.machineBit, builder.stripeBit);
+  }
+
+  /**
+   * 条带雪花算法类 Builder
+   * <p>
+   * 默认数据中心 ID 二进制位数和机器 ID 二进制位数为 5，条带二进制位数为 4
+   */
+  public static class StripedSnowFlakeBuilder {
+    private int dataCenterBit = AtomicSnowFlake.DEFAULT_DATA_CENTER_OR_MACHINE_BIT;
+    private int machineBit = AtomicSnowFlake.DEFAULT_DATA_CENTER_OR_MACHINE_BIT;
+    private int stripeBit = DEFAULT_STRIPE_BIT;
+    private long dataCenterId;
+    private long machineId;
+    private long startTimeMillis = AtomicSnowFlake.DEFAULT_START_TIME_MILLIS;
+    private long maxBorrowMillis;
+
+    /**
+     * 设置数据中心 ID 二进制位数，和机器 ID 二进制位数同时只需设置一个即可
+     *
+     * @param dataCenterBit 数据中心 ID 二进制位数
+     * @return 条带雪花算法类 Builder
+     */
+    public StripedSnowFlakeBuilder dataCenterBit(int dataCenterBit) {
+      if (dataCenterBit > AtomicSnowFlake.MAX_DATA_CENTER_AND_MACHINE_BIT || dataCenterBit < 0) {
+        throw new IllegalArgumentException("dataCenterBit cannot be greater than " + AtomicSnowFlake.MAX_DATA_CENTER_AND_MACHINE_BIT + " or less than 0");
+      }
+      this.dataCenterBit = dataCenterBit;
+      this.machineBit = AtomicSnowFlake.MAX_DATA_CENTER_AND_MACHINE_BIT - dataCenterBit;
+      return this;
+    }
+
+    /**
+     * 设置机器 ID 二进制位数，和数据中心 ID 二进制位数同时只需设置一个即可
+     *
+     * @param machineBit 机器 ID 二进制位数
+     * @return 条带雪花算法类 Builder
+     */
+    public StripedSnowFlakeBuilder machineBit(int machineBit) {
+      if (machineBit > AtomicSnowFlake.MAX_DATA_CENTER_AND_MACHINE_BIT || machineBit < 0) {
+        throw new IllegalArgumentException("machineBit cannot be greater than " + AtomicSnowFlake.MAX_DATA_CENTER_AND_MACHINE_BIT + " or less than 0");
+      }
+      this.dataCenterBit = AtomicSnowFlake.MAX_DATA_CENTER_AND_MACHINE_BIT - machineBit;
+      this.machineBit = machineBit;
+      return this;
+    }
+
+    /**
+     * 设置条带二进制位数，条带数为 2 ^ stripeBit，建议不小于生成 ID 的线程数
+     * <p>
+     * 每个线程只使用绑定的条带，单个线程每毫秒最多生成 2 ^ (12 - stripeBit) 个 ID（默认 256 个），超出后借用下一毫秒或等待；
+     * 单个线程生成量很大时应减小 stripeBit，为 0 时与 {@link AtomicSnowFlake} 相同
+     *
+     * @param stripeBit 条带二进制位数
+     * @return 条带雪花算法类 Builder
+     */
+    public StripedSnowFlakeBuilder stripeBit(int stripeBit) {
+      if (stripeBit >= AtomicSnowFlake.SEQUENCE_BIT || stripeBit < 0) {
+        throw new IllegalArgumentException("stripeBit cannot be greater than " + (AtomicSnowFlake.SEQUENCE_BIT - 1) + " or less than 0");
+      }
+      this.stripeBit = stripeBit;
+      return this;
+    }
+
+    public StripedSnowFlakeBuilder dataCenterId(long dataCenterId) {
+      this.dataCenterId = dataCenterId;
+      return this;
+    }
+
+    public StripedSnowFlakeBuilder machineId(long machineId) {
+      this.machineId = machineId;
+      return this;
+    }
+
+    /**
+     * 设置开始时间戳，默认为 2022-01-01 00:00:00 +08:00
+     *
+     * @param startTimeMillis 开始时间戳
+     * @return 条带雪花算法类 Builder
+     */
+    public StripedSnowFlakeBuilder startTimeMillis(long startTimeMillis) {
+      if (startTimeMillis < 0 || startTimeMillis > System.currentTimeMillis()) {
+        throw new IllegalArgumentException("startTimeMillis cannot be greater than current time millis or less than 0");
+      }
+      this.startTimeMillis = startTimeMillis;
+      return this;
+    }
+
+    /**
+     * 设置每个条带的逻辑时钟最多超前系统时钟的毫秒数，默认为 0
+     *
+     * @param maxBorrowMillis 最多超前毫秒数
+     * @return 条带雪花算法类 Builder
+     * @see AtomicSnowFlake.AtomicSnowFlakeBuilder#maxBorrowMillis(long)
+     */
+    public StripedSnowFlakeBuilder maxBorrowMillis(long maxBorrowMillis) {
+      if (maxBorrowMillis < 0) {
+        throw new IllegalArgumentException("maxBorrowMillis cannot be less than 0");
+      }
+      this.maxBorrowMillis = maxBorrowMillis;
+      return this;
+    }
+
+    public StripedSnowFlake build() {
+      // 数据中心 ID 判断
+      long dataCenterMaxNumber = ~(-1L << dataCenterBit);
+      if (dataCenterId > dataCenterMaxNumber || dataCenterId < 0) {
+        throw new IllegalArgumentException("dataCenterId cannot be greater than " + dataCenterMaxNumber + " or less than 0");
+      }
+      // 机器 ID 判断
+      long machineMaxNumber = ~(-1L << machineBit);
+      if (machineId > machineMaxNumber || machineId < 0) {
+        throw new IllegalArgumentException("machineId cannot be greater than " + machineMaxNumber + " or less than 0");
+      }
+      return new StripedSnowFlake(this);
+    }
+  }
+
+  public static StripedSnowFlakeBuilder builder() {
+    return new StripedSnowFlakeBuilder();
+  }
+
+  /**
+   * 获取条带数
+   *
+   * @return 条带数
+   */
+  public int getStripeCount() {
+    return stripes.length;
+  }
+
+  /**
+   * 获取 ID 解析器
+   *
+   * @return ID 解析器
+   */
+  public SnowFlakeDecoder getDecoder() {
+    return decoder;
+  }
+
+  /**
+   * 获取所有条带借用的总毫秒数
+   *
+   * @return 借用的总毫秒数
+   */
+  public long getBorrowedMillis() {
+    long borrowedMillis = 0;
+    for (AtomicSnowFlake stripe : stripes) {
+      borrowedMillis += stripe.getBorrowedMillis();
+    }
+    return borrowedMillis;
+  }
+
+  /**
+   * 获取所有条带等待时钟的次数
+   *
+   * @return 等待时钟的次数
+   */
+  public long getStalls() {
+    long stalls = 0;
+    for (AtomicSnowFlake stripe : stripes) {
+      stalls += stripe.getStalls();
+    }
+    return stalls;
+  }
+
+  /**
+   * 生成 ID
+   *
+   * @return ID
+   */
+  public long next() {
+    return threadStripe.get().next();
+  }
+
+  /**
+   * 批量生成 ID
+   *
+   * @param out 存放 ID 的数组
+   * @param off 开始下标
+   * @param len 生成个数
+   */
+  public void nextBatch(long[] out, int off, int len) {
+    threadStripe.get().nextBatch(out, off, len);
+  }
+
+  /**
+   * 批量生成 ID，填满数组
+   *
+   * @param out 存放 ID 的数组
+   */
+  public void nextBatch(long[] out) {
+    threadStripe.get().nextBatch(out);
+  }
+
+  /**
+   * 批量生成 ID
+   *
+   * @param n 个数
+   * @return ID 数组
+   */
+  public long[] next(int n) {
+    return threadStripe.get().next(n);
+  }
+
+  /**
+   * 解析 ID
+   *
+   * @param id ID
+   * @return ID 信息
+   */
+  public SnowFlakeInfo decode(long id) {
+    return decoder.decode(id);
+  }
+}
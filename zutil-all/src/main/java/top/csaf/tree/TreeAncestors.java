@@ -0,0 +1,159 @@
+package top.csaf.tree;
+
+import com.alibaba.fastjson2.annotation.JSONField;
+import com.alibaba.fastjson2.annotation.JSONType;
+import lombok.Getter;
+import lombok.NonNull;
+import top.csaf.bean.Immutable;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 祖级
+ * <p>
+ * 保存自身 ID 和父级的祖级，子级共享父级的祖级，不逐级拼接字符串；首次转换为字符串时才按 <code>1,3,7</code> 的格式拼接并缓存。
+ * 不可变，深克隆时直接共享；序列化为 JSON 时输出字符串，读取时需通过 {@link #toString()} 获取字符串，不能强转为 {@link String}
+ */
+@JSONType(ignores = {"parent", "id", "level", "empty"})
+public final class TreeAncestors implements CharSequence, Serializable, Immutable {
+
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * 父级的祖级，顶级节点为 null
+   */
+  @Getter
+  private final TreeAncestors parent;
+  /**
+   * 自身 ID
+   */
+  @Getter
+  private final Object id;
+  /**
+   * 级别，顶级节点为 1
+   */
+  @Getter
+  private final int level;
+  /**
+   * 拼接后的字符串
+   */
+  private transient String value;
+
+  private TreeAncestors(TreeAncestors parent, Object id) {
+    this.parent = parent;
+    this.id = id;
+    this.level = parent == null ? 1 : parent.level + 1;
+  }
+
+  /**
+   * 顶级节点的祖级
+   *
+   * @param id 顶级节点 ID
+   * @return 祖级
+   */
+  public static TreeAncestors of(Object id) {
+    return new TreeAncestors(null, id);
+  }
+
+  /**
+   * 子级的祖级
+   *
+   * @param id 子级 ID
+   * @return 祖级
+   */
+  public TreeAncestors child(Object id) {
+    return new TreeAncestors(this, id);
+  }
+
+  /**
+   * 从顶级到自身的 ID 列表
+   *
+   * @return ID 列表
+   */
+  public List<Object> toList() {
+    Object[] ids = new Object[level];
+    TreeAncestors ancestors = this;
+    for (int i = level - 1; i >= 0; i--) {
+      ids[i] = ancestors.id;
+      ancestors = ancestors.parent;
+    }
+    return Arrays.asList(ids);
+  }
+
+  /**
+   * 序列化为 JSON 时的值
+   *
+   * @return 祖级字符串
+   */
+  @JSONField(value = true)
+  public String toValue() {
+    return toString();
+  }
+
+  @Override
+  public int length() {
+    return toString().length();
+  }
+
+  @Override
+  public char charAt(int index) {
+    return toString().charAt(index);
+  }
+
+  @Override
+  public CharSequence subSequence(int start, int end) {
+    return toString().subSequence(start, end);
+  }
+
+  /**
+   * 是否与字符串内容相同
+   *
+   * @param ancestors 祖级字符串
+   * @return 是否相同
+   */
+  public boolean contentEquals(@NonNull CharSequence ancestors) {
+    return toString().contentEquals(ancestors);
+  }
+
+  @Override
+  public String toString() {
+    String result = value;
+    if (result != null) {
+      return result;
+    }
+    // 向上找到最近的已拼接的祖级，再自上而下逐级拼接并缓存
+    int count = 0;
+    TreeAncestors ancestors = this;
+    while (ancestors != null && ancestors.value == null) {
+      count++;
+      ancestors = ancestors.parent;
+    }
+    result = ancestors == null ? null : ancestors.value;
+    TreeAncestors[] path = new TreeAncestors[count];
+    ancestors = this;
+    for (int i = count - 1; i >= 0; i--) {
+      path[i] = ancestors;
+      ancestors = ancestors.parent;
+    }
+    for (TreeAncestors item : path) {
+      result = result == null ? String.valueOf(item.id) : result + "," + item.id;
+      item.value = result;
+    }
+    return result;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    return o instanceof TreeAncestors && toString().equals(o.toString());
+  }
+
+  @Override
+  public int hashCode() {
+    return toString().hashCode();
+  }
+}
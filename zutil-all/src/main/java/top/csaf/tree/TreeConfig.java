@@ -4,6 +4,7 @@ import lombok.Builder;
 import lombok.Data;
 
 import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * 树配置
@@ -42,6 +43,25 @@ public class TreeConfig {
    */
   private Class<?> idType;
 
+  /**
+   * 是否直接在传入的节点上构建，不深克隆节点列表
+   * <p>
+   * 传入节点原有的子级列表会被清空，传入的列表本身不会被排序或修改
+   */
+  @Builder.Default
+  private boolean isInPlace = false;
+  /**
+   * 是否并行构建，节点较少或线程池并行度小于 2 时仍串行构建
+   * <p>
+   * 结果与串行构建一致；深克隆按段并行进行，不同段的节点之间共享的对象会被分别克隆
+   */
+  @Builder.Default
+  private boolean isParallel = false;
+  /**
+   * 并行构建使用的线程池，为 null 时使用 {@link ForkJoinPool#commonPool()}
+   */
+  private ForkJoinPool pool;
+
   /**
    * “级别”字段名
    */
@@ -62,6 +82,11 @@ public class TreeConfig {
    */
   @Builder.Default
   private boolean isGenAncestors = false;
+  /**
+   * 祖级是否生成为 {@link TreeAncestors}：子级通过父级指针共享父级的祖级，转换为字符串时才拼接；节点中的祖级需通过 toString() 获取字符串，不能强转为 String
+   */
+  @Builder.Default
+  private boolean isLazyAncestors = false;
   /**
    * “是否有子级”字段名
    */
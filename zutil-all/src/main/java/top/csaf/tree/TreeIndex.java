@@ -0,0 +1,405 @@
+package top.csaf.tree;
+
+import lombok.NonNull;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * 树索引
+ * <p>
+ * 按先序遍历为节点编号，子树在先序序列中连续，节点 A 是 B 的祖级当且仅当 B 的序号落在 A 的子树区间内，判断为 O(1)；
+ * 子孙节点为序列上的一段，直接返回视图；到顶级节点的路径沿父级数组向上，为 O(级别)。
+ * <p>
+ * 构建后不可修改，可在多个线程间共享；{@link #move(Object, Object)} 复制 int 数组后返回新的索引，原索引不受影响。
+ * 索引只保存构建时的结构，之后修改节点的子级列表不会反映到索引中
+ *
+ * @param <T> 节点类型
+ * @param <K> ID 类型
+ */
+public final class TreeIndex<T, K> {
+
+  /**
+   * 节点，按槽位保存，槽位在移动节点后不变
+   */
+  private final Object[] nodes;
+  /**
+   * 节点 ID，按槽位保存
+   */
+  private final Object[] ids;
+  /**
+   * ID 到槽位
+   */
+  private final Map<Object, Integer> slots;
+  /**
+   * 先序序号到槽位
+   */
+  private final int[] order;
+  /**
+   * 槽位到先序序号
+   */
+  private final int[] positions;
+  /**
+   * 槽位到子树大小（包含自身）
+   */
+  private final int[] sizes;
+  /**
+   * 槽位到父级槽位，顶级节点为 -1
+   */
+  private final int[] parents;
+  /**
+   * 槽位到级别，顶级节点为 1
+   */
+  private final int[] levels;
+
+  private TreeIndex(Object[] nodes, Object[] ids, Map<Object, Integer> slots, int[] order, int[] positions, int[] sizes, int[] parents, int[] levels) {
+    this.nodes = nodes;
+    this.ids = ids;
+    this.slots = slots;
+    this.order = order;
+    this.positions = positions;
+    this.sizes = sizes;
+    this.parents = parents;
+    this.levels = levels;
+  }
+
+  /**
+   * 通过 {@link TreeUtil#build(List, TreeConfig)} 构建的树创建索引
+   *
+   * @param treeList 树列表
+   * @return 树索引
+   * @throws IllegalArgumentException ID 重复
+   */
+  public static TreeIndex<TreeNode, Object> of(@NonNull List<TreeNode> treeList) {
+    return of(treeList, TreeNode::getId, TreeNode::getChildren);
+  }
+
+  /**
+   * 通过任意类型的树创建索引
+   *
+   * @param roots    顶级节点列表
+   * @param id       获取 ID
+   * @param children 获取子级，可以返回 null
+   * @param <T>      节点类型
+   * @param <K>      ID 类型
+   * @return 树索引
+   * @throws IllegalArgumentException ID 重复
+   */
+  public static <T, K> TreeIndex<T, K> of(@NonNull List<T> roots, @NonNull Function<? super T, ? extends K> id,
+                                          @NonNull Function<? super T, ? extends Collection<? extends T>> children) {
+    List<Object> nodeList = new ArrayList<>(roots.size());
+    List<Integer> parentList = new ArrayList<>(roots.size());
+    // 先序遍历，栈中依次保存节点和父级槽位
+    Deque<Object> stack = new ArrayDeque<>();
+    for (int i = roots.size() - 1; i >= 0; i--) {
+      stack.push(-1);
+      stack.push(roots.get(i));
+    }
+    while (!stack.isEmpty()) {
+      @SuppressWarnings("unchecked")
+      T node = (T) stack.pop();
+      int parent = (Integer) stack.pop();
+      int slot = nodeList.size();
+      nodeList.add(node);
+      parentList.add(parent);
+      Collection<? extends T> childList = children.apply(node);
+      if (childList != null && !childList.isEmpty()) {
+        Object[] childArray = childList.toArray();
+        for (int i = childArray.length - 1; i >= 0; i--) {
+          stack.push(slot);
+          stack.push(childArray[i]);
+        }
+      }
+    }
+
+    int size = nodeList.size();
+    Object[] nodes = nodeList.toArray();
+    Object[] ids = new Object[size];
+    Map<Object, Integer> slots = new HashMap<>(Math.max((int) (size / .75f) + 1, 16));
+    int[] order = new int[size];
+    int[] parents = new int[size];
+    int[] levels = new int[size];
+    int[] sizes = new int[size];
+    for (int slot = 0; slot < size; slot++) {
+      @SuppressWarnings("unchecked")
+      K key = id.apply((T) nodes[slot]);
+      if (slots.put(key, slot) != null) {
+        throw new IllegalArgumentException("Duplicate id: " + key);
+      }
+      ids[slot] = key;
+      order[slot] = slot;
+      int parent = parentList.get(slot);
+      parents[slot] = parent;
+      levels[slot] = parent < 0 ? 1 : levels[parent] + 1;
+      sizes[slot] = 1;
+    }
+    // 子级的序号大于父级，倒序累加子树大小
+    for (int slot = size - 1; slot >= 0; slot--) {
+      if (parents[slot] >= 0) {
+        sizes[parents[slot]] += sizes[slot];
+      }
+    }
+    return new TreeIndex<>(nodes, ids, slots, order, order.clone(), sizes, parents, levels);
+  }
+
+  /**
+   * 获取节点数量
+   *
+   * @return 节点数量
+   */
+  public int size() {
+    return nodes.length;
+  }
+
+  /**
+   * 是否包含 ID
+   *
+   * @param id ID
+   * @return 是否包含
+   */
+  public boolean contains(K id) {
+    return slots.containsKey(id);
+  }
+
+  /**
+   * 获取节点
+   *
+   * @param id ID
+   * @return 节点，不存在时返回 null
+   */
+  public T getNode(K id) {
+    Integer slot = slots.get(id);
+    return slot == null ? null : node(slot);
+  }
+
+  /**
+   * 获取父级节点
+   *
+   * @param id ID
+   * @return 父级节点，顶级节点或不存在时返回 null
+   */
+  public T getParent(K id) {
+    Integer slot = slots.get(id);
+    return slot == null || parents[slot] < 0 ? null : node(parents[slot]);
+  }
+
+  /**
+   * 获取级别
+   *
+   * @param id ID
+   * @return 级别，顶级节点为 1，不存在时返回 0
+   */
+  public int getLevel(K id) {
+    Integer slot = slots.get(id);
+    return slot == null ? 0 : levels[slot];
+  }
+
+  /**
+   * 获取子孙节点数量
+   *
+   * @param id ID
+   * @return 子孙节点数量，不存在时返回 0
+   */
+  public int getDescendantCount(K id) {
+    Integer slot = slots.get(id);
+    return slot == null ? 0 : sizes[slot] - 1;
+  }
+
+  /**
+   * ancestorId 是否为 descendantId 的祖级，不包含自身
+   *
+   * @param ancestorId   祖级 ID
+   * @param descendantId 子孙 ID
+   * @return 是否为祖级，任一 ID 不存在时返回 false
+   */
+  public boolean isAncestor(K ancestorId, K descendantId) {
+    Integer ancestor = slots.get(ancestorId);
+    Integer descendant = slots.get(descendantId);
+    if (ancestor == null || descendant == null) {
+      return false;
+    }
+    int from = positions[ancestor];
+    int position = positions[descendant];
+    return position > from && position < from + sizes[ancestor];
+  }
+
+  /**
+   * 获取顶级节点
+   *
+   * @return 顶级节点列表
+   */
+  public List<T> getRoots() {
+    return children(0, order.length);
+  }
+
+  /**
+   * 获取子级节点
+   *
+   * @param id ID
+   * @return 子级节点列表，不存在时返回空列表
+   */
+  public List<T> getChildren(K id) {
+    Integer slot = slots.get(id);
+    if (slot == null) {
+      return Collections.emptyList();
+    }
+    int from = positions[slot];
+    return children(from + 1, from + sizes[slot]);
+  }
+
+  /**
+   * 获取子孙节点，先序排列
+   *
+   * @param id ID
+   * @return 子孙节点列表，为索引上的不可修改视图，不存在时返回空列表
+   */
+  public List<T> getDescendants(K id) {
+    Integer slot = slots.get(id);
+    if (slot == null) {
+      return Collections.emptyList();
+    }
+    int from = positions[slot] + 1;
+    int to = positions[slot] + sizes[slot];
+    return new AbstractList<T>() {
+      @Override
+      public T get(int index) {
+        if (index < 0 || index >= to - from) {
+          throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + (to - from));
+        }
+        return node(order[from + index]);
+      }
+
+      @Override
+      public int size() {
+        return to - from;
+      }
+    };
+  }
+
+  /**
+   * 获取从顶级节点到自身的路径
+   *
+   * @param id ID
+   * @return 节点列表，不存在时返回空列表
+   */
+  public List<T> getPath(K id) {
+    Integer slot = slots.get(id);
+    if (slot == null) {
+      return Collections.emptyList();
+    }
+    Object[] path = new Object[levels[slot]];
+    for (int i = path.length - 1, current = slot; i >= 0; i--, current = parents[current]) {
+      path[i] = nodes[current];
+    }
+    @SuppressWarnings("unchecked")
+    List<T> result = (List<T>) Arrays.asList(path);
+    return result;
+  }
+
+  /**
+   * 获取从顶级节点到自身的 ID 路径
+   *
+   * @param id ID
+   * @return ID 列表，不存在时返回空列表
+   */
+  public List<K> getIdPath(K id) {
+    Integer slot = slots.get(id);
+    if (slot == null) {
+      return Collections.emptyList();
+    }
+    Object[] path = new Object[levels[slot]];
+    for (int i = path.length - 1, current = slot; i >= 0; i--, current = parents[current]) {
+      path[i] = ids[current];
+    }
+    @SuppressWarnings("unchecked")
+    List<K> result = (List<K>) Arrays.asList(path);
+    return result;
+  }
+
+  /**
+   * 将节点及其子孙移动到新的父级下，作为最后一个子级
+   * <p>
+   * 复制索引的 int 数组后调整，节点、ID 与原索引共享，原索引不受影响；不修改节点本身的子级列表
+   *
+   * @param id       ID
+   * @param parentId 新的父级 ID，为 null 时移动为最后一个顶级节点
+   * @return 新的树索引
+   * @throws IllegalArgumentException ID 或父级 ID 不存在，或新的父级是节点自身或其子孙
+   */
+  public TreeIndex<T, K> move(K id, K parentId) {
+    Integer slot = slots.get(id);
+    if (slot == null) {
+      throw new IllegalArgumentException("id: " + id + " does not exist");
+    }
+    int newParent = -1;
+    if (parentId != null) {
+      Integer parentSlot = slots.get(parentId);
+      if (parentSlot == null) {
+        throw new IllegalArgumentException("parentId: " + parentId + " does not exist");
+      }
+      newParent = parentSlot;
+      if (newParent == slot || isAncestor(id, parentId)) {
+        throw new IllegalArgumentException("parentId: " + parentId + " can not be the node itself or its descendant");
+      }
+    }
+
+    int[] newOrder = order.clone();
+    int[] newPositions = positions.clone();
+    int[] newSizes = sizes.clone();
+    int[] newParents = parents.clone();
+    int[] newLevels = levels.clone();
+
+    int from = positions[slot];
+    int length = sizes[slot];
+    // 插入到新父级子树的末尾
+    int target = newParent < 0 ? order.length : positions[newParent] + sizes[newParent];
+    if (target > from) {
+      // 向后移动：[from + length, target) 前移，子树放到 target - length
+      System.arraycopy(order, from + length, newOrder, from, target - from - length);
+      System.arraycopy(order, from, newOrder, target - length, length);
+      for (int i = from; i < target; i++) {
+        newPositions[newOrder[i]] = i;
+      }
+    } else {
+      // 向前移动：[target, from) 后移，子树放到 target
+      System.arraycopy(order, from, newOrder, target, length);
+      System.arraycopy(order, target, newOrder, target + length, from - target);
+      for (int i = target; i < from + length; i++) {
+        newPositions[newOrder[i]] = i;
+      }
+    }
+
+    // 调整原祖级、新祖级的子树大小
+    for (int ancestor = parents[slot]; ancestor >= 0; ancestor = parents[ancestor]) {
+      newSizes[ancestor] -= length;
+    }
+    for (int ancestor = newParent; ancestor >= 0; ancestor = parents[ancestor]) {
+      newSizes[ancestor] += length;
+    }
+    newParents[slot] = newParent;
+    int levelOffset = (newParent < 0 ? 1 : levels[newParent] + 1) - levels[slot];
+    if (levelOffset != 0) {
+      int newFrom = newPositions[slot];
+      for (int i = newFrom; i < newFrom + length; i++) {
+        newLevels[newOrder[i]] += levelOffset;
+      }
+    }
+    return new TreeIndex<>(nodes, ids, slots, newOrder, newPositions, newSizes, newParents, newLevels);
+  }
+
+  /**
+   * 先序序号区间 [from, to) 内的直接子级
+   */
+  private List<T> children(int from, int to) {
+    List<T> children = new ArrayList<>();
+    for (int position = from; position < to; position += sizes[order[position]]) {
+      children.add(node(order[position]));
+    }
+    return children;
+  }
+
+  @SuppressWarnings("unchecked")
+  private T node(int slot) {
+    return (T) nodes[slot];
+  }
+}
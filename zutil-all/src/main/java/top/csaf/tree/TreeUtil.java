@@ -1,5 +1,6 @@
 package top.csaf.tree;
 
+import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 import top.csaf.bean.BeanUtil;
 import top.csaf.bean.ConvertUtil;
@@ -9,7 +10,14 @@ import top.csaf.lang.StrUtil;
 import java.lang.reflect.Array;
 import java.lang.reflect.Field;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * 树工具类
@@ -17,8 +25,32 @@ import java.util.function.Supplier;
 @Slf4j
 public class TreeUtil {
 
+  /**
+   * 并行构建的最小节点数量，较少时串行构建
+   */
+  private static final int PARALLEL_THRESHOLD = 16384;
+  /**
+   * 并行构建时每段的最小长度
+   */
+  private static final int MIN_SEGMENT_SIZE = 4096;
+
+  /**
+   * 子级字段，类到（字段名到字段），不存在的字段为 {@link Optional#empty()}
+   */
+  private static final ClassValue<Map<String, Optional<Field>>> CHILDREN_FIELDS = new ClassValue<Map<String, Optional<Field>>>() {
+    @Override
+    protected Map<String, Optional<Field>> computeValue(Class<?> type) {
+      return new ConcurrentHashMap<>();
+    }
+  };
+
   /**
    * 构建树
+   * <p>
+   * 先以 ID 为键建立索引，再一次遍历将节点挂到父级下，根节点的父级 ID 通过 {@link HashSet} 判断；
+   * 级别、祖级、是否有子级在挂接完成后从顶级节点逐层生成，不依赖节点在列表中的顺序。
+   * {@link TreeConfig#isInPlace()} 为 true 时直接在传入的节点上构建，{@link TreeConfig#isLazyAncestors()} 为 true 时祖级生成为共享父级的 {@link TreeAncestors}，
+   * {@link TreeConfig#isParallel()} 为 true 时节点较多则并行构建
    *
    * @param treeNodes  树节点列表
    * @param treeConfig 树配置
@@ -31,7 +63,24 @@ public class TreeUtil {
     if (ArrayUtil.isEmpty(treeConfig.getRootParentIdValues())) {
       throw new IllegalArgumentException("TreeConfig: rootParentIdValues can not be empty");
     }
-    List<TreeNode> treeNodes1 = BeanUtil.deepClone(treeNodes);
+    if (treeConfig.isParallel()) {
+      ForkJoinPool pool = treeConfig.getPool() != null ? treeConfig.getPool() : ForkJoinPool.commonPool();
+      if (treeNodes.size() >= PARALLEL_THRESHOLD && pool.getParallelism() >= 2) {
+        return buildParallel(treeNodes, treeConfig, pool);
+      }
+    }
+    List<TreeNode> treeNodes1;
+    if (treeConfig.isInPlace()) {
+      treeNodes1 = treeConfig.isSort() ? new ArrayList<>(treeNodes) : treeNodes;
+    } else {
+      treeNodes1 = BeanUtil.deepClone(treeNodes);
+    }
+    // 清空原有的子级，重复构建或传入扁平化后的节点时子级不会重复
+    for (TreeNode treeNode : treeNodes1) {
+      if (treeNode.getChildren() != null) {
+        treeNode.setChildren(null);
+      }
+    }
 
     // 排序
     if (treeConfig.isSort()) {
@@ -43,8 +92,9 @@ public class TreeUtil {
     }
 
     Class<?> idType = treeConfig.getIdType();
+    boolean isIdToString = idType == null && treeConfig.isIgnoreIdTypeMismatch();
     // id 为 key，value 为自身存储到 Map 中
-    Map<Object, TreeNode> treeNodeMap = new LinkedHashMap<>(treeNodes1.size());
+    Map<Object, TreeNode> treeNodeMap = new HashMap<>(Math.max((int) (treeNodes1.size() / .75f) + 1, 16));
     for (TreeNode treeNode : treeNodes1) {
       if (StrUtil.isBlank(treeNode.getId())) {
         throw new IllegalArgumentException("TreeNode: id can not be blank");
@@ -57,42 +107,17 @@ public class TreeUtil {
       }
 
       Object key = treeNode.getId();
-      if (idType == null && treeConfig.isIgnoreIdTypeMismatch()) {
+      if (isIdToString) {
         key = key.toString();
       }
       treeNodeMap.put(key, treeNode);
     }
 
-    // 级别
-    boolean isGenLevel = treeConfig.isGenLevel();
-    String levelKey = null;
-    if (isGenLevel) {
-      levelKey = treeConfig.getLevelKey();
-    }
-    // 祖级
-    boolean isGenAncestors = treeConfig.isGenAncestors();
-    String ancestorsKey = null;
-    if (isGenAncestors) {
-      ancestorsKey = treeConfig.getAncestorsKey();
-    }
-    // 是否有子级
-    boolean isGenHasChildren = treeConfig.isGenHasChildren();
-    String hasChildrenKey = null;
-    if (isGenHasChildren) {
-      hasChildrenKey = treeConfig.getHasChildrenKey();
-    }
+    Set<Object> rootParentIdValues = new HashSet<>(Arrays.asList(treeConfig.getRootParentIdValues()));
     List<TreeNode> treeList = new ArrayList<>();
     for (TreeNode treeNode : treeNodes1) {
       // 如果父级 ID 满足顶级节点的值
-      if (ArrayUtil.contains(treeConfig.getRootParentIdValues(), treeNode.getParentId())) {
-        if (isGenLevel) {
-          // 顶级节点的级别为 1
-          treeNode.put(levelKey, 1);
-        }
-        if (isGenAncestors) {
-          // 顶级节点的祖级为自身 ID
-          treeNode.put(ancestorsKey, treeNode.getId());
-        }
+      if (rootParentIdValues.contains(treeNode.getParentId())) {
         // 为顶级节点
         treeList.add(treeNode);
         continue;
@@ -102,52 +127,318 @@ public class TreeUtil {
         throw new IllegalArgumentException("TreeNode: parentId can not be blank");
       }
       Object parentId = treeNode.getParentId();
-      if (treeConfig.isIgnoreIdTypeMismatch()) {
+      if (isIdToString) {
         parentId = parentId.toString();
       }
       // 根据当前节点的父级 ID 获取父级节点
       TreeNode parent = treeNodeMap.get(parentId);
-      // 如果没有父节点且配置为顶级节点
-      if (treeConfig.isRootByNullParent() && parent == null) {
-        if (isGenLevel) {
-          // 顶级节点的级别为 1
-          treeNode.put(levelKey, 1);
-        }
-        if (isGenAncestors) {
-          // 顶级节点的祖级为自身 ID
-          treeNode.put(ancestorsKey, treeNode.getId());
-        }
-        // 为顶级节点
-        treeList.add(treeNode);
-        continue;
-      }
       if (parent == null) {
-        log.warn("TreeNode: parent is null, id: {}, parentId: {}", treeNode.getId(), treeNode.getParentId());
-        // 丢弃该节点
+        // 如果没有父节点且配置为顶级节点
+        if (treeConfig.isRootByNullParent()) {
+          treeList.add(treeNode);
+        } else {
+          log.warn("TreeNode: parent is null, id: {}, parentId: {}", treeNode.getId(), treeNode.getParentId());
+        }
+        // 否则丢弃该节点
         continue;
       }
       // 如果没有子节点列表，则创建列表
       if (parent.getChildren() == null) {
         parent.setChildren(new ArrayList<>());
       }
+      // 将自身添加到父节点的子节点列表中
+      parent.getChildren().add(treeNode);
+    }
+
+    if (treeConfig.isGenLevel() || treeConfig.isGenAncestors() || treeConfig.isGenHasChildren()) {
+      genTreeFields(treeList, treeConfig);
+    }
+    return treeList;
+  }
+
+  /**
+   * 从顶级节点逐层生成级别、祖级、是否有子级
+   */
+  private static void genTreeFields(List<TreeNode> treeList, TreeConfig treeConfig) {
+    Deque<TreeNode> queue = new ArrayDeque<>(treeList.size());
+    for (TreeNode treeNode : treeList) {
+      genRootFields(treeNode, treeConfig);
+      queue.add(treeNode);
+    }
+    while (!queue.isEmpty()) {
+      List<TreeNode> children = genChildrenFields(queue.poll(), treeConfig);
+      if (children != null) {
+        queue.addAll(children);
+      }
+    }
+  }
+
+  /**
+   * 生成顶级节点的级别、祖级
+   */
+  private static void genRootFields(TreeNode treeNode, TreeConfig treeConfig) {
+    if (treeConfig.isGenLevel()) {
+      // 顶级节点的级别为 1
+      treeNode.put(treeConfig.getLevelKey(), 1);
+    }
+    if (treeConfig.isGenAncestors()) {
+      // 顶级节点的祖级为自身 ID
+      treeNode.put(treeConfig.getAncestorsKey(), treeConfig.isLazyAncestors() ? TreeAncestors.of(treeNode.getId()) : treeNode.getId());
+    }
+  }
+
+  /**
+   * 生成父级节点的是否有子级，以及子级节点的级别、祖级
+   *
+   * @return 子级列表，没有子级时返回 null
+   */
+  private static List<TreeNode> genChildrenFields(TreeNode parent, TreeConfig treeConfig) {
+    List<TreeNode> children = parent.getChildren();
+    if (children == null || children.isEmpty()) {
+      return null;
+    }
+    if (treeConfig.isGenHasChildren()) {
+      parent.put(treeConfig.getHasChildrenKey(), true);
+    }
+    boolean isGenLevel = treeConfig.isGenLevel();
+    String levelKey = treeConfig.getLevelKey();
+    boolean isGenAncestors = treeConfig.isGenAncestors();
+    boolean isLazyAncestors = treeConfig.isLazyAncestors();
+    String ancestorsKey = treeConfig.getAncestorsKey();
+    int level = isGenLevel ? (Integer) parent.get(levelKey) + 1 : 0;
+    Object ancestors = isGenAncestors ? parent.get(ancestorsKey) : null;
+    for (TreeNode child : children) {
       if (isGenLevel) {
         // 级别为父级节点的级别 + 1
-        treeNode.put(levelKey, Integer.parseInt(parent.get(levelKey).toString()) + 1);
+        child.put(levelKey, level);
       }
       if (isGenAncestors) {
         // 祖级为父级节点的祖级（包含父级 ID） + 自身 ID
-        treeNode.put(ancestorsKey, parent.get(ancestorsKey) + "," + treeNode.getId());
+        child.put(ancestorsKey, isLazyAncestors ? ((TreeAncestors) ancestors).child(child.getId()) : ancestors + "," + child.getId());
       }
-      // 将自身添加到父节点的子节点列表中
-      parent.getChildren().add(treeNode);
-      if (isGenHasChildren) {
-        // 是否有子级
-        parent.put(hasChildrenKey, true);
+    }
+    return children;
+  }
+
+  /**
+   * 并行构建树
+   * <p>
+   * 按段并行转换 ID 并解析父级下标，再按父级下标计数分区，各父级的子级列表由所在的段并行创建，子级顺序与串行构建一致；
+   * 级别、祖级、是否有子级由顶级节点开始的 fork-join 任务生成，子树较大时拆分出新的任务
+   */
+  private static List<TreeNode> buildParallel(List<TreeNode> treeNodes, TreeConfig treeConfig, ForkJoinPool pool) {
+    TreeNode[] nodes = treeNodes.toArray(new TreeNode[0]);
+    int size = nodes.length;
+    int segmentSize = Math.max(MIN_SEGMENT_SIZE, size / (pool.getParallelism() * 4));
+    boolean isInPlace = treeConfig.isInPlace();
+    runParallel(pool, size, segmentSize, (from, to) -> {
+      for (int i = from; i < to; i++) {
+        if (!isInPlace) {
+          nodes[i] = BeanUtil.deepClone(nodes[i]);
+        }
+        // 清空原有的子级，之后只为有子级的节点设置新的子级列表
+        if (nodes[i].getChildren() != null) {
+          nodes[i].setChildren(null);
+        }
+      }
+    });
+
+    // 排序，与 List#sort 一样是稳定排序
+    if (treeConfig.isSort()) {
+      Comparator<TreeNode> comparator = treeConfig.getComparator();
+      if (comparator == null) {
+        throw new IllegalArgumentException("Comparator: when sort is true, comparator can not be null");
+      }
+      pool.submit(() -> Arrays.parallelSort(nodes, comparator)).join();
+    }
+
+    Class<?> idType = treeConfig.getIdType();
+    boolean isIdToString = idType == null && treeConfig.isIgnoreIdTypeMismatch();
+    // id 为 key，下标为 value，ID 重复时与串行构建一样保留最后一个
+    Map<Object, Integer> indexes = new ConcurrentHashMap<>(Math.max((int) (size / .75f) + 1, 16));
+    runParallel(pool, size, segmentSize, (from, to) -> {
+      for (int i = from; i < to; i++) {
+        TreeNode treeNode = nodes[i];
+        if (StrUtil.isBlank(treeNode.getId())) {
+          throw new IllegalArgumentException("TreeNode: id can not be blank");
+        }
+        if (idType != null) {
+          treeNode.setId(ConvertUtil.convert(treeNode.getId(), idType));
+          treeNode.setParentId(ConvertUtil.convert(treeNode.getParentId(), idType));
+        }
+        Object key = treeNode.getId();
+        if (isIdToString) {
+          key = key.toString();
+        }
+        indexes.merge(key, i, Math::max);
+      }
+    });
+
+    // 父级下标，-1 为顶级节点，-2 为丢弃的节点
+    Set<Object> rootParentIdValues = new HashSet<>(Arrays.asList(treeConfig.getRootParentIdValues()));
+    int[] parents = new int[size];
+    runParallel(pool, size, segmentSize, (from, to) -> {
+      for (int i = from; i < to; i++) {
+        TreeNode treeNode = nodes[i];
+        if (rootParentIdValues.contains(treeNode.getParentId())) {
+          parents[i] = -1;
+          continue;
+        }
+        if (StrUtil.isBlank(treeNode.getParentId())) {
+          throw new IllegalArgumentException("TreeNode: parentId can not be blank");
+        }
+        Object parentId = treeNode.getParentId();
+        if (isIdToString) {
+          parentId = parentId.toString();
+        }
+        Integer parent = indexes.get(parentId);
+        if (parent != null) {
+          parents[i] = parent;
+        } else if (treeConfig.isRootByNullParent()) {
+          parents[i] = -1;
+        } else {
+          log.warn("TreeNode: parent is null, id: {}, parentId: {}", treeNode.getId(), treeNode.getParentId());
+          parents[i] = -2;
+        }
+      }
+    });
+
+    // 按父级下标计数分区，offsets[i] 到 offsets[i + 1] 为 i 的子级下标
+    int[] offsets = new int[size + 1];
+    for (int parent : parents) {
+      if (parent >= 0) {
+        offsets[parent + 1]++;
+      }
+    }
+    for (int i = 0; i < size; i++) {
+      offsets[i + 1] += offsets[i];
+    }
+    int[] childIndexes = new int[offsets[size]];
+    int[] positions = Arrays.copyOf(offsets, size);
+    List<TreeNode> treeList = new ArrayList<>();
+    for (int i = 0; i < size; i++) {
+      int parent = parents[i];
+      if (parent >= 0) {
+        childIndexes[positions[parent]++] = i;
+      } else if (parent == -1) {
+        treeList.add(nodes[i]);
+      }
+    }
+    runParallel(pool, size, segmentSize, (from, to) -> {
+      for (int i = from; i < to; i++) {
+        int childFrom = offsets[i];
+        int childTo = offsets[i + 1];
+        if (childFrom == childTo) {
+          continue;
+        }
+        List<TreeNode> children = new ArrayList<>(childTo - childFrom);
+        for (int j = childFrom; j < childTo; j++) {
+          children.add(nodes[childIndexes[j]]);
+        }
+        nodes[i].setChildren(children);
+      }
+    });
+
+    if (treeConfig.isGenLevel() || treeConfig.isGenAncestors() || treeConfig.isGenHasChildren()) {
+      for (TreeNode treeNode : treeList) {
+        genRootFields(treeNode, treeConfig);
       }
+      pool.invoke(new GenTreeFieldsTask(treeList, treeConfig, segmentSize));
     }
     return treeList;
   }
 
+  /**
+   * 分段处理下标 [from, to)
+   */
+  @FunctionalInterface
+  private interface Segment {
+    void apply(int from, int to);
+  }
+
+  /**
+   * 在 {@link ForkJoinPool} 中分段处理 [0, size)
+   */
+  private static void runParallel(ForkJoinPool pool, int size, int segmentSize, Segment segment) {
+    pool.invoke(new SegmentTask(0, size, segmentSize, segment));
+  }
+
+  /**
+   * 分段任务，按下标对半拆分，直到不超过分段长度
+   */
+  private static final class SegmentTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final int from;
+    private final int to;
+    private final int segmentSize;
+    private final transient Segment segment;
+
+    SegmentTask(int from, int to, int segmentSize, Segment segment) {
+      this.from = from;
+      this.to = to;
+      this.segmentSize = segmentSize;
+      this.segment = segment;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from > segmentSize) {
+        int mid = (from + to) >>> 1;
+        invokeAll(new SegmentTask(from, mid, segmentSize, segment), new SegmentTask(mid, to, segmentSize, segment));
+        return;
+      }
+      segment.apply(from, to);
+    }
+  }
+
+  /**
+   * 生成子树的级别、祖级、是否有子级，待处理的节点超过分段长度时拆出一半作为新的任务
+   */
+  private static final class GenTreeFieldsTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 已生成字段、待处理子级的节点
+     */
+    private final transient List<TreeNode> parents;
+    private final transient TreeConfig treeConfig;
+    private final int segmentSize;
+
+    GenTreeFieldsTask(List<TreeNode> parents, TreeConfig treeConfig, int segmentSize) {
+      this.parents = parents;
+      this.treeConfig = treeConfig;
+      this.segmentSize = segmentSize;
+    }
+
+    @Override
+    protected void compute() {
+      Deque<TreeNode> stack = new ArrayDeque<>(parents);
+      List<GenTreeFieldsTask> tasks = new ArrayList<>();
+      while (!stack.isEmpty()) {
+        List<TreeNode> children = genChildrenFields(stack.pop(), treeConfig);
+        if (children == null) {
+          continue;
+        }
+        for (TreeNode child : children) {
+          stack.push(child);
+        }
+        if (stack.size() > segmentSize) {
+          List<TreeNode> split = new ArrayList<>(stack.size() / 2);
+          for (int i = stack.size() / 2; i > 0; i--) {
+            split.add(stack.pollLast());
+          }
+          GenTreeFieldsTask task = new GenTreeFieldsTask(split, treeConfig, segmentSize);
+          task.fork();
+          tasks.add(task);
+        }
+      }
+      for (GenTreeFieldsTask task : tasks) {
+        task.join();
+      }
+    }
+  }
+
   /**
    * 构建树
    * <p>
@@ -167,7 +458,148 @@ public class TreeUtil {
   }
 
   /**
-   * 将树结构拆分为平级列表
+   * 在任意类型的节点上构建树，使用默认配置
+   *
+   * @param nodes       节点列表
+   * @param id          获取 ID
+   * @param parentId    获取父级 ID
+   * @param setChildren 设置子级列表，没有子级的节点不会调用
+   * @param <T>         节点类型
+   * @param <K>         ID 类型
+   * @return 顶级节点列表
+   * @see #build(List, Function, Function, BiConsumer, TreeConfig)
+   */
+  public static <T, K> List<T> build(@NonNull List<T> nodes, @NonNull Function<? super T, ? extends K> id, @NonNull Function<? super T, ? extends K> parentId,
+                                     @NonNull BiConsumer<? super T, List<T>> setChildren) {
+    return build(nodes, id, parentId, setChildren, TreeConfig.builder().build()).getRoots();
+  }
+
+  /**
+   * 在任意类型的节点上构建树
+   * <p>
+   * 使用 {@link TreeConfig} 中的 rootParentIdValues、isRootByNullParent，ID 不做类型转换；不排序，子级按传入列表中的顺序排列。
+   * 级别、祖级、是否有子级不写入节点，保存在返回的 {@link TypedTree} 中
+   *
+   * @param nodes       节点列表
+   * @param id          获取 ID
+   * @param parentId    获取父级 ID
+   * @param setChildren 设置子级列表，没有子级的节点不会调用
+   * @param treeConfig  树配置
+   * @param <T>         节点类型
+   * @param <K>         ID 类型
+   * @return 树
+   */
+  public static <T, K> TypedTree<T, K> build(@NonNull List<T> nodes, @NonNull Function<? super T, ? extends K> id, @NonNull Function<? super T, ? extends K> parentId,
+                                             @NonNull BiConsumer<? super T, List<T>> setChildren, @NonNull TreeConfig treeConfig) {
+    if (ArrayUtil.isEmpty(treeConfig.getRootParentIdValues())) {
+      throw new IllegalArgumentException("TreeConfig: rootParentIdValues can not be empty");
+    }
+    Object[] nodeArray = nodes.toArray();
+    int size = nodeArray.length;
+    Object[] ids = new Object[size];
+    Map<Object, Integer> indexes = new HashMap<>(Math.max((int) (size / .75f) + 1, 16));
+    for (int i = 0; i < size; i++) {
+      @SuppressWarnings("unchecked")
+      T node = (T) nodeArray[i];
+      K key = id.apply(node);
+      if (StrUtil.isBlank(key)) {
+        throw new IllegalArgumentException("Node: id can not be blank");
+      }
+      ids[i] = key;
+      indexes.put(key, i);
+    }
+
+    Set<Object> rootParentIdValues = new HashSet<>(Arrays.asList(treeConfig.getRootParentIdValues()));
+    int[] parents = new int[size];
+    int[] childCounts = new int[size];
+    int rootCount = 0;
+    for (int i = 0; i < size; i++) {
+      @SuppressWarnings("unchecked")
+      K key = parentId.apply((T) nodeArray[i]);
+      if (rootParentIdValues.contains(key)) {
+        parents[i] = TypedTree.ROOT;
+        rootCount++;
+        continue;
+      }
+      if (StrUtil.isBlank(key)) {
+        throw new IllegalArgumentException("Node: parentId can not be blank");
+      }
+      Integer parent = indexes.get(key);
+      if (parent == null) {
+        if (treeConfig.isRootByNullParent()) {
+          parents[i] = TypedTree.ROOT;
+          rootCount++;
+        } else {
+          log.warn("Node: parent is null, id: {}, parentId: {}", ids[i], key);
+          parents[i] = TypedTree.DROPPED;
+        }
+        continue;
+      }
+      parents[i] = parent;
+      childCounts[parent]++;
+    }
+
+    // 子级下标按父级连续存放，offsets[i] 到 offsets[i + 1] 为 i 的子级
+    int[] offsets = new int[size + 1];
+    for (int i = 0; i < size; i++) {
+      offsets[i + 1] = offsets[i] + childCounts[i];
+    }
+    int[] childIndexes = new int[offsets[size]];
+    int[] positions = Arrays.copyOf(offsets, size);
+    int[] queue = new int[size];
+    int tail = 0;
+    List<T> roots = new ArrayList<>(rootCount);
+    for (int i = 0; i < size; i++) {
+      int parent = parents[i];
+      if (parent >= 0) {
+        childIndexes[positions[parent]++] = i;
+      } else if (parent == TypedTree.ROOT) {
+        @SuppressWarnings("unchecked")
+        T node = (T) nodeArray[i];
+        roots.add(node);
+        queue[tail++] = i;
+      }
+    }
+
+    // 从顶级节点逐层生成级别并设置子级列表
+    int[] levels = new int[size];
+    for (int head = 0; head < tail; head++) {
+      levels[queue[head]] = 1;
+    }
+    for (int head = 0; head < tail; head++) {
+      int parent = queue[head];
+      int from = offsets[parent];
+      int to = offsets[parent + 1];
+      if (from == to) {
+        continue;
+      }
+      List<T> children = new ArrayList<>(to - from);
+      for (int j = from; j < to; j++) {
+        int child = childIndexes[j];
+        @SuppressWarnings("unchecked")
+        T node = (T) nodeArray[child];
+        children.add(node);
+        levels[child] = levels[parent] + 1;
+        queue[tail++] = child;
+      }
+      @SuppressWarnings("unchecked")
+      T node = (T) nodeArray[parent];
+      setChildren.accept(node, children);
+    }
+    // 循环中的节点无法从顶级节点到达，视为未挂到树上
+    for (int i = 0; i < size; i++) {
+      if (levels[i] == 0) {
+        parents[i] = TypedTree.DROPPED;
+        childCounts[i] = 0;
+      }
+    }
+    return new TypedTree<>(nodeArray, ids, indexes, roots, parents, levels, childCounts);
+  }
+
+  /**
+   * 将树结构拆分为平级列表，深度优先
+   * <p>
+   * 通过显式栈遍历，不递归；子级字段按类缓存，子级可以是集合、迭代器、数组或单个对象，为 null 的节点会被跳过
    *
    * @param treeNodes         树节点集合
    * @param childrenFieldName 子级列表的字段名
@@ -178,47 +610,30 @@ public class TreeUtil {
    */
   public static <T, R extends Collection<T>> R flatten(Object treeNodes, String childrenFieldName, Supplier<R> resultFactory) {
     R result = resultFactory.get();
-    // 处理空输入
-    if (treeNodes == null) {
-      return result;
-    }
-
-    // 将输入转换为迭代器
-    Iterator<T> iterator;
-    if (treeNodes instanceof Iterable) {
-      iterator = ((Iterable<T>) treeNodes).iterator();
-    } else if (treeNodes instanceof Iterator) {
-      iterator = (Iterator<T>) treeNodes;
-    } else if (treeNodes instanceof Object[]) {
-      iterator = Arrays.stream((Object[]) treeNodes).map(obj -> (T) obj).iterator();
-    } else {
-      // 单个对象处理为只有一个元素的集合
-      result.add((T) treeNodes);
-      return result;
+    Iterator<T> iterator = new TreeIterator<>(treeNodes, childrenFieldName, false);
+    while (iterator.hasNext()) {
+      result.add(iterator.next());
     }
+    return result;
+  }
 
-    // 处理迭代器中的每个节点
+  /**
+   * 将树结构拆分为平级列表，广度优先
+   *
+   * @param treeNodes         树节点集合
+   * @param childrenFieldName 子级列表的字段名
+   * @param resultFactory     结果集合工厂方法，用于创建指定类型的集合
+   * @param <T>               树节点类型
+   * @param <R>               返回集合类型
+   * @return 按级别排列的平级节点集合（类型由resultFactory决定）
+   * @see #flatten(Object, String, Supplier)
+   */
+  public static <T, R extends Collection<T>> R flattenBreadthFirst(Object treeNodes, String childrenFieldName, Supplier<R> resultFactory) {
+    R result = resultFactory.get();
+    Iterator<T> iterator = new TreeIterator<>(treeNodes, childrenFieldName, true);
     while (iterator.hasNext()) {
-      T node = iterator.next();
-      // 将当前节点添加到结果集合
-      result.add(node);
-
-      try {
-        // 通过反射获取指定字段名的子级
-        Field field = node.getClass().getDeclaredField(childrenFieldName);
-        field.setAccessible(true);
-        Object childrenObj = field.get(node);
-
-        // 如果子级不为空，递归处理子级
-        if (childrenObj != null) {
-          // 递归调用并将结果添加到当前结果集合中
-          result.addAll(flatten(childrenObj, childrenFieldName, resultFactory));
-        }
-      } catch (NoSuchFieldException | IllegalAccessException e) {
-        log.error("Children field '{}' cannot be obtained from class: {}", childrenFieldName, node.getClass().getName(), e);
-      }
+      result.add(iterator.next());
     }
-
     return result;
   }
 
@@ -229,51 +644,142 @@ public class TreeUtil {
    * @param <T>               树节点类型
    * @param childrenFieldName 子级列表的字段名
    * @return 平级节点数组
+   * @see #flatten(Object, String, Supplier)
    */
+  @SuppressWarnings("unchecked")
   public static <T> T[] flatten(T[] treeNodes, String childrenFieldName) {
     if (treeNodes == null || treeNodes.length == 0) {
       return treeNodes;
     }
+    List<T> result = flatten(treeNodes, childrenFieldName, ArrayList::new);
+    // 保持原始数组的类型
+    return result.toArray((T[]) Array.newInstance(treeNodes.getClass().getComponentType(), result.size()));
+  }
 
-    // 使用ArrayList暂存结果
-    List<T> tempResult = new ArrayList<>();
+  /**
+   * 将树结构转换为深度优先的流，按需遍历，不创建中间集合
+   *
+   * @param treeNodes         树节点集合
+   * @param childrenFieldName 子级列表的字段名
+   * @param <T>               树节点类型
+   * @return 平级节点流
+   * @see #flatten(Object, String, Supplier)
+   */
+  public static <T> Stream<T> stream(Object treeNodes, String childrenFieldName) {
+    return StreamSupport.stream(Spliterators.spliteratorUnknownSize(new TreeIterator<T>(treeNodes, childrenFieldName, false),
+      Spliterator.ORDERED | Spliterator.NONNULL), false);
+  }
 
-    for (T node : treeNodes) {
-      // 将当前节点添加到结果列表
-      tempResult.add(node);
+  /**
+   * 将树结构转换为广度优先的流，按需遍历，不创建中间集合
+   *
+   * @param treeNodes         树节点集合
+   * @param childrenFieldName 子级列表的字段名
+   * @param <T>               树节点类型
+   * @return 按级别排列的平级节点流
+   * @see #flatten(Object, String, Supplier)
+   */
+  public static <T> Stream<T> streamBreadthFirst(Object treeNodes, String childrenFieldName) {
+    return StreamSupport.stream(Spliterators.spliteratorUnknownSize(new TreeIterator<T>(treeNodes, childrenFieldName, true),
+      Spliterator.ORDERED | Spliterator.NONNULL), false);
+  }
+
+  /**
+   * 获取子级，依次从类和父类中查找字段
+   */
+  private static Object getChildren(Object node, String childrenFieldName) {
+    Class<?> type = node.getClass();
+    Optional<Field> field = CHILDREN_FIELDS.get(type).computeIfAbsent(childrenFieldName, name -> {
+      for (Class<?> clazz = type; clazz != null && clazz != Object.class; clazz = clazz.getSuperclass()) {
+        try {
+          Field declaredField = clazz.getDeclaredField(name);
+          declaredField.setAccessible(true);
+          return Optional.of(declaredField);
+        } catch (NoSuchFieldException ignored) {
+          // 继续查找父类
+        }
+      }
+      log.error("Children field '{}' cannot be obtained from class: {}", name, type.getName());
+      return Optional.empty();
+    });
+    if (!field.isPresent()) {
+      return null;
+    }
+    try {
+      return field.get().get(node);
+    } catch (IllegalAccessException e) {
+      log.error("Children field '{}' cannot be obtained from class: {}", childrenFieldName, type.getName(), e);
+      return null;
+    }
+  }
+
+  /**
+   * 集合、迭代器、数组或单个对象转换为迭代器
+   */
+  private static Iterator<?> toIterator(Object nodes) {
+    if (nodes instanceof Iterable) {
+      return ((Iterable<?>) nodes).iterator();
+    }
+    if (nodes instanceof Iterator) {
+      return (Iterator<?>) nodes;
+    }
+    if (nodes instanceof Object[]) {
+      return Arrays.asList((Object[]) nodes).iterator();
+    }
+    return Collections.singleton(nodes).iterator();
+  }
 
-      try {
-        // 通过反射获取指定字段名的子级
-        Field field = node.getClass().getDeclaredField(childrenFieldName);
-        field.setAccessible(true);
-        Object childrenObj = field.get(node);
+  /**
+   * 树遍历迭代器，深度优先时子级迭代器压入队首，广度优先时加入队尾
+   */
+  private static final class TreeIterator<T> implements Iterator<T> {
+    private final String childrenFieldName;
+    private final boolean breadthFirst;
+    private final Deque<Iterator<?>> iterators = new ArrayDeque<>();
+    private Object next;
+
+    TreeIterator(Object treeNodes, String childrenFieldName, boolean breadthFirst) {
+      this.childrenFieldName = childrenFieldName;
+      this.breadthFirst = breadthFirst;
+      if (treeNodes != null) {
+        iterators.add(toIterator(treeNodes));
+      }
+    }
 
-        // 根据子级类型分别处理
-        if (childrenObj instanceof Object[]) {
-          // 如果子级是数组
-          T[] childrenArray = (T[]) childrenObj;
-          if (childrenArray.length > 0) {
-            T[] flattenedChildren = flatten(childrenArray, childrenFieldName);
-            tempResult.addAll(Arrays.asList(flattenedChildren));
+    @Override
+    public boolean hasNext() {
+      while (next == null && !iterators.isEmpty()) {
+        Iterator<?> iterator = iterators.peekFirst();
+        if (!iterator.hasNext()) {
+          iterators.pollFirst();
+          continue;
+        }
+        Object node = iterator.next();
+        if (node == null) {
+          continue;
+        }
+        next = node;
+        Object children = getChildren(node, childrenFieldName);
+        if (children != null) {
+          if (breadthFirst) {
+            iterators.addLast(toIterator(children));
+          } else {
+            iterators.addFirst(toIterator(children));
           }
-        } else if (childrenObj instanceof Iterable || childrenObj instanceof Iterator) {
-          // 如果子级是集合或迭代器，先扁平化为集合，再添加到结果中
-          List<T> flattenedChildren = flatten(childrenObj, childrenFieldName, ArrayList::new);
-          tempResult.addAll(flattenedChildren);
-        } else {
-          // 如果子级是单个对象，直接添加到结果中
-          tempResult.add((T) childrenObj);
         }
-      } catch (NoSuchFieldException | IllegalAccessException e) {
-        log.error("Children field '{}' cannot be obtained from class: {}", childrenFieldName, node.getClass().getName(), e);
       }
+      return next != null;
     }
 
-    // 将ArrayList转换回数组类型
-    // 获取原始数组的类型
-    Class<? extends Object[]> arrayClass = treeNodes.getClass();
-    T[] resultArray = (T[]) Array.newInstance(arrayClass.getComponentType(), tempResult.size());
-
-    return tempResult.toArray(resultArray);
+    @Override
+    @SuppressWarnings("unchecked")
+    public T next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      T node = (T) next;
+      next = null;
+      return node;
+    }
   }
 }
@@ -0,0 +1,196 @@
+package top.csaf.tree;
+
+import java.util.*;
+
+/**
+ * 任意类型节点构建的树
+ * <p>
+ * 节点按传入列表中的下标编号，父级、级别、子级数量保存在 int 数组中，不写入节点本身；祖级由父级下标逐级向上生成，不保存字符串。
+ * 未挂到树上的节点（找不到父级而被丢弃、或处于循环中）父级下标为 {@link #DROPPED}，级别为 0
+ *
+ * @param <T> 节点类型
+ * @param <K> ID 类型
+ */
+public final class TypedTree<T, K> {
+
+  /**
+   * 顶级节点的父级下标
+   */
+  public static final int ROOT = -1;
+  /**
+   * 未挂到树上的节点的父级下标
+   */
+  public static final int DROPPED = -2;
+
+  /**
+   * 节点
+   */
+  private final Object[] nodes;
+  /**
+   * 节点 ID
+   */
+  private final Object[] ids;
+  /**
+   * ID 到下标，ID 重复时为最后一个
+   */
+  private final Map<Object, Integer> indexes;
+  /**
+   * 顶级节点
+   */
+  private final List<T> roots;
+  /**
+   * 父级下标
+   */
+  private final int[] parents;
+  /**
+   * 级别，顶级节点为 1
+   */
+  private final int[] levels;
+  /**
+   * 子级数量
+   */
+  private final int[] childCounts;
+
+  TypedTree(Object[] nodes, Object[] ids, Map<Object, Integer> indexes, List<T> roots, int[] parents, int[] levels, int[] childCounts) {
+    this.nodes = nodes;
+    this.ids = ids;
+    this.indexes = indexes;
+    this.roots = roots;
+    this.parents = parents;
+    this.levels = levels;
+    this.childCounts = childCounts;
+  }
+
+  /**
+   * 获取顶级节点列表
+   *
+   * @return 顶级节点列表
+   */
+  public List<T> getRoots() {
+    return roots;
+  }
+
+  /**
+   * 获取节点数量，包括未挂到树上的节点
+   *
+   * @return 节点数量
+   */
+  public int size() {
+    return nodes.length;
+  }
+
+  /**
+   * 获取 ID 对应的下标
+   *
+   * @param id ID
+   * @return 下标，不存在时返回 -1
+   */
+  public int indexOf(K id) {
+    Integer index = indexes.get(id);
+    return index == null ? -1 : index;
+  }
+
+  /**
+   * 获取节点
+   *
+   * @param index 下标
+   * @return 节点
+   */
+  @SuppressWarnings("unchecked")
+  public T getNode(int index) {
+    return (T) nodes[index];
+  }
+
+  /**
+   * 获取节点 ID
+   *
+   * @param index 下标
+   * @return ID
+   */
+  @SuppressWarnings("unchecked")
+  public K getId(int index) {
+    return (K) ids[index];
+  }
+
+  /**
+   * 获取父级下标
+   *
+   * @param index 下标
+   * @return 父级下标，顶级节点为 {@link #ROOT}，未挂到树上的节点为 {@link #DROPPED}
+   */
+  public int getParentIndex(int index) {
+    return parents[index];
+  }
+
+  /**
+   * 获取父级节点
+   *
+   * @param index 下标
+   * @return 父级节点，顶级节点和未挂到树上的节点返回 null
+   */
+  public T getParent(int index) {
+    int parent = parents[index];
+    return parent < 0 ? null : getNode(parent);
+  }
+
+  /**
+   * 获取级别
+   *
+   * @param index 下标
+   * @return 级别，顶级节点为 1，未挂到树上的节点为 0
+   */
+  public int getLevel(int index) {
+    return levels[index];
+  }
+
+  /**
+   * 获取子级数量
+   *
+   * @param index 下标
+   * @return 子级数量
+   */
+  public int getChildCount(int index) {
+    return childCounts[index];
+  }
+
+  /**
+   * 是否有子级
+   *
+   * @param index 下标
+   * @return 是否有子级
+   */
+  public boolean hasChildren(int index) {
+    return childCounts[index] > 0;
+  }
+
+  /**
+   * 获取祖级 ID 列表
+   *
+   * @param index 下标
+   * @return 从顶级到自身的 ID 列表，未挂到树上的节点返回空列表
+   */
+  @SuppressWarnings("unchecked")
+  public List<K> getAncestors(int index) {
+    int level = levels[index];
+    Object[] ancestors = new Object[level];
+    for (int i = level - 1; i >= 0; i--) {
+      ancestors[i] = ids[index];
+      index = parents[index];
+    }
+    return (List<K>) Arrays.asList(ancestors);
+  }
+
+  /**
+   * 获取祖级字符串
+   *
+   * @param index 下标
+   * @return 与 {@link TreeConfig#isGenAncestors()} 生成的格式相同，如 <code>1,3,7</code>
+   */
+  public String getAncestorsString(int index) {
+    StringJoiner joiner = new StringJoiner(",");
+    for (K id : getAncestors(index)) {
+      joiner.add(String.valueOf(id));
+    }
+    return joiner.toString();
+  }
+}
@@ -0,0 +1,83 @@
+package top.csaf.jmh.base.beans;
+
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.*;
+import top.csaf.bean.BeanUtil;
+import top.csaf.junit.BeanUtilTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 复制属性的性能测试
+ */
+@State(Scope.Benchmark)
+@Threads(1)
+@Fork(1)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.Throughput)
+public class CopyPropertiesTest {
+
+  @Test
+  public void benchmark() throws Exception {
+    org.openjdk.jmh.Main.main(new String[]{CopyPropertiesTest.class.getName()});
+  }
+
+  private static final BeanUtilTest.TestBean testBean;
+  private static final List<BeanUtilTest.TestBean> testBeans = new ArrayList<>();
+
+  static {
+    testBean = new BeanUtilTest.TestBean("张三");
+    testBean.setSuperName("李四");
+    for (int i = 0; i < 100000; i++) {
+      BeanUtilTest.TestBean bean = new BeanUtilTest.TestBean("张三" + i);
+      bean.setSuperName("李四" + i);
+      testBeans.add(bean);
+    }
+  }
+
+  @Benchmark
+  public BeanUtilTest.TestBean spring() {
+    BeanUtilTest.TestBean target = new BeanUtilTest.TestBean();
+    org.springframework.beans.BeanUtils.copyProperties(testBean, target);
+    return target;
+  }
+
+  /**
+   * 使用缓存的复制计划
+   */
+  @Benchmark
+  public BeanUtilTest.TestBean zutil() {
+    return BeanUtil.copyProperties(testBean, BeanUtilTest.TestBean.class);
+  }
+
+  @Benchmark
+  public List<BeanUtilTest.TestBean> springList() {
+    List<BeanUtilTest.TestBean> targets = new ArrayList<>(testBeans.size());
+    for (BeanUtilTest.TestBean bean : testBeans) {
+      BeanUtilTest.TestBean target = new BeanUtilTest.TestBean();
+      org.springframework.beans.BeanUtils.copyProperties(bean, target);
+      targets.add(target);
+    }
+    return targets;
+  }
+
+  /**
+   * 列表复用同一个复制计划
+   */
+  @Benchmark
+  public List<BeanUtilTest.TestBean> zutilList() {
+    return BeanUtil.copyProperties(testBeans, BeanUtilTest.TestBean.class);
+  }
+
+  /**
+   * 分段并行复制
+   */
+  @Benchmark
+  public List<BeanUtilTest.TestBean> zutilListParallel() {
+    return BeanUtil.copyPropertiesParallel(testBeans, BeanUtilTest.TestBean.class);
+  }
+}
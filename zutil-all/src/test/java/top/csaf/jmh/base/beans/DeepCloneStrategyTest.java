@@ -0,0 +1,106 @@
+package top.csaf.jmh.base.beans;
+
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.*;
+import top.csaf.bean.BeanUtil;
+import top.csaf.bean.DeepCloneStrategy;
+import top.csaf.bean.KryoDeepCloneStrategy;
+import top.csaf.bean.ProtostuffDeepCloneStrategy;
+import top.csaf.tree.TreeNode;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 深克隆策略的性能测试
+ * <p>
+ * 在 {@link DeepCloneTest} 的树节点基础上按不同的对象结构比较各 {@link DeepCloneStrategy}，
+ * 可替换 {@link #createTree(String)} 中的对象结构为实际业务对象，选择最快的策略后通过 {@link BeanUtil#setDeepCloneStrategy(DeepCloneStrategy)} 设置
+ */
+@State(Scope.Benchmark)
+@Threads(1)
+@Fork(1)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+public class DeepCloneStrategyTest {
+
+  @Test
+  void benchmark() throws Exception {
+    org.openjdk.jmh.Main.main(new String[]{DeepCloneStrategyTest.class.getName()});
+  }
+
+  /**
+   * 深克隆策略
+   */
+  @Param({"plan", "json", "kryo", "protostuff"})
+  public String strategy;
+
+  /**
+   * 对象结构：small 为 {@link DeepCloneTest} 的三层树，wide 为一个节点下 1000 个子节点，deep 为 200 层的单链
+   */
+  @Param({"small", "wide", "deep"})
+  public String shape;
+
+  private DeepCloneStrategy deepCloneStrategy;
+  private TreeNode tree;
+
+  @Setup
+  public void setup() {
+    switch (strategy) {
+      case "json":
+        deepCloneStrategy = DeepCloneStrategy.JSON;
+        break;
+      case "kryo":
+        deepCloneStrategy = new KryoDeepCloneStrategy();
+        break;
+      case "protostuff":
+        deepCloneStrategy = new ProtostuffDeepCloneStrategy();
+        break;
+      default:
+        deepCloneStrategy = DeepCloneStrategy.PLAN;
+    }
+    tree = createTree(shape);
+  }
+
+  static TreeNode createTree(String shape) {
+    TreeNode root = node(1, "1");
+    switch (shape) {
+      case "wide":
+        List<TreeNode> children = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+          children.add(node(i + 2, "1." + i));
+        }
+        root.setChildren(children);
+        break;
+      case "deep":
+        TreeNode parent = root;
+        for (int i = 0; i < 200; i++) {
+          TreeNode child = node(i + 2, parent.getName() + ".1");
+          parent.setChildren(Collections.singletonList(child));
+          parent = child;
+        }
+        break;
+      default:
+        TreeNode treeNode2 = node(2, "1.1");
+        treeNode2.setChildren(Collections.singletonList(node(3, "1.1.1")));
+        root.setChildren(Collections.singletonList(treeNode2));
+    }
+    return root;
+  }
+
+  private static TreeNode node(Object id, String name) {
+    TreeNode treeNode = new TreeNode();
+    treeNode.setId(id);
+    treeNode.setName(name);
+    return treeNode;
+  }
+
+  @Benchmark
+  public TreeNode deepClone() {
+    return BeanUtil.deepClone(tree, deepCloneStrategy);
+  }
+}
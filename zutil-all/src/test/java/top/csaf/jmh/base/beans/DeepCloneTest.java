@@ -7,6 +7,7 @@ import org.nustaq.serialization.FSTConfiguration;
 import org.openjdk.jmh.annotations.*;
 import org.springframework.beans.BeanUtils;
 import org.springframework.util.ReflectionUtils;
+import top.csaf.bean.BeanUtil;
 import top.csaf.lang.ObjUtil;
 import top.csaf.tree.TreeNode;
 
@@ -59,7 +60,8 @@ public class DeepCloneTest {
       test.useKryo(),
       test.useHessian(),
       test.useIoProtostuff(),
-      test.useDyuprojectProtostuff()
+      test.useDyuprojectProtostuff(),
+      test.useZutil()
     ));
   }
 
@@ -158,6 +160,16 @@ public class DeepCloneTest {
     return target;
   }
 
+  /**
+   * 按类缓存克隆计划的 {@link BeanUtil#deepClone(Object)}
+   */
+  @Benchmark
+  public Object useZutil() {
+    TreeNode treeNode1 = BeanUtil.deepClone(testBean);
+    treeNode1.getChildren().get(0).getChildren().get(0).setName("1.1.2");
+    return testBean.getChildren().get(0).getChildren().get(0).getName();
+  }
+
   /**
    * <a href="https://github.com/alibaba/fastjson2">alibaba/fastjson2: 🚄 FASTJSON2 is a Java JSON library with excellent performance.</a>
    */
@@ -2,10 +2,15 @@ package top.csaf.jmh.base.beans;
 
 import org.junit.jupiter.api.Test;
 import org.openjdk.jmh.annotations.*;
+import top.csaf.bean.BeanUtil;
+import top.csaf.bean.PropFunc;
 import top.csaf.junit.BeanUtilTest;
 
+import java.beans.Introspector;
 import java.beans.PropertyDescriptor;
+import java.lang.invoke.SerializedLambda;
 import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -53,6 +58,46 @@ public class GetPropertyTest {
     PropertyDescriptor propertyDescriptor = org.springframework.beans.BeanUtils.getPropertyDescriptor(testBean.getClass(), "name");
     return propertyDescriptor.getReadMethod().invoke(testBean, null).toString();
   }
+
+  /**
+   * 每次通过 writeReplace 解析 SerializedLambda，即缓存前的属性名解析
+   */
+  @Benchmark
+  public String serializedLambda() throws ReflectiveOperationException {
+    PropFunc<BeanUtilTest.TestBean, ?> fn = BeanUtilTest.TestBean::getName;
+    Method method = fn.getClass().getDeclaredMethod("writeReplace");
+    method.setAccessible(true);
+    return Introspector.decapitalize(((SerializedLambda) method.invoke(fn)).getImplMethodName().substring(3));
+  }
+
+  /**
+   * 按 Lambda 类缓存的属性名解析
+   */
+  @Benchmark
+  public String propertyName() {
+    return BeanUtil.getPropertyName(BeanUtilTest.TestBean::getName);
+  }
+
+  @Benchmark
+  public String columnName() {
+    return BeanUtil.getColumnName(BeanUtilTest.TestBean::getName);
+  }
+
+  /**
+   * 通过属性 Getter 获取属性值，包括属性名解析和属性访问
+   */
+  @Benchmark
+  public Object zutilByPropFunc() {
+    return BeanUtil.getProperty(testBean, BeanUtilTest.TestBean::getName);
+  }
+
+  /**
+   * 使用缓存的属性访问器
+   */
+  @Benchmark
+  public Object zutil() {
+    return BeanUtil.getProperty(testBean, "name");
+  }
 }
 
 // Benchmark                                Mode     Cnt    Score    Error   Units
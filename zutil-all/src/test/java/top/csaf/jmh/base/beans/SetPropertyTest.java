@@ -2,6 +2,7 @@ package top.csaf.jmh.base.beans;
 
 import org.junit.jupiter.api.Test;
 import org.openjdk.jmh.annotations.*;
+import top.csaf.bean.BeanUtil;
 import top.csaf.junit.BeanUtilTest;
 
 import java.beans.PropertyDescriptor;
@@ -55,6 +56,15 @@ public class SetPropertyTest {
     propertyDescriptor.getWriteMethod().invoke(testBean, "张三");
     return testBean;
   }
+
+  /**
+   * 使用缓存的属性访问器
+   */
+  @Benchmark
+  public BeanUtilTest.TestBean zutil() {
+    BeanUtil.setProperty(testBean, "name", "张三");
+    return testBean;
+  }
 }
 
 // Benchmark                                Mode     Cnt    Score    Error   Units
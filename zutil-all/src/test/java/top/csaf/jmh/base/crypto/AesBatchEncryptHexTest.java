@@ -0,0 +1,88 @@
+package top.csaf.jmh.base.crypto;
+
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.*;
+import top.csaf.crypto.AesUtil;
+import top.csaf.crypto.BlockCipherSession;
+import top.csaf.crypto.enums.Padding;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AES 批量加密为 Hex 性能测试，每批 10000 行，结果为每行耗时
+ */
+@State(Scope.Benchmark)
+@Threads(1)
+@Fork(1)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+public class AesBatchEncryptHexTest {
+
+  @Test
+  public void benchmark() throws Exception {
+    org.openjdk.jmh.Main.main(new String[]{AesBatchEncryptHexTest.class.getName()});
+  }
+
+  private static final int ROWS = 10000;
+  private static final String KEY = "1234567890abcdef";
+  private static final String IV = "1234567890abcdef";
+
+  private final List<String> rows = new ArrayList<>(ROWS);
+  private BlockCipherSession session;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    for (int i = 0; i < ROWS; i++) {
+      rows.add("138" + String.format("%08d", i));
+    }
+    session = AesUtil.session(KEY, IV, top.csaf.crypto.enums.Mode.CBC, Padding.PKCS5);
+  }
+
+  /**
+   * 逐行调用，每次解析密钥和初始化向量
+   */
+  @Benchmark
+  @OperationsPerInvocation(ROWS)
+  public List<String> encryptPerRow() {
+    List<String> result = new ArrayList<>(ROWS);
+    for (String row : rows) {
+      result.add(AesUtil.encryptHex(row, KEY, IV, top.csaf.crypto.enums.Mode.CBC, Padding.PKCS5));
+    }
+    return result;
+  }
+
+  /**
+   * 逐行使用会话
+   */
+  @Benchmark
+  @OperationsPerInvocation(ROWS)
+  public List<String> encryptPerRowBySession() {
+    List<String> result = new ArrayList<>(ROWS);
+    for (String row : rows) {
+      result.add(session.encryptHex(row));
+    }
+    return result;
+  }
+
+  /**
+   * 批量加密，每批创建会话
+   */
+  @Benchmark
+  @OperationsPerInvocation(ROWS)
+  public List<String> encryptBatch() {
+    return AesUtil.encryptHex(rows, KEY, IV, top.csaf.crypto.enums.Mode.CBC, Padding.PKCS5);
+  }
+
+  /**
+   * 使用同一会话批量加密
+   */
+  @Benchmark
+  @OperationsPerInvocation(ROWS)
+  public List<String> encryptBatchBySession() {
+    return session.encryptHex(rows);
+  }
+}
@@ -0,0 +1,60 @@
+package top.csaf.jmh.base.crypto;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.*;
+import top.csaf.crypto.DigestEngine;
+import top.csaf.crypto.Md5Util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MD5 Hex 摘要性能测试
+ */
+@State(Scope.Benchmark)
+@Threads(1)
+@Fork(1)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.Throughput)
+public class Md5HexTest {
+
+  @Test
+  public void benchmark() throws Exception {
+    org.openjdk.jmh.Main.main(new String[]{Md5HexTest.class.getName()});
+  }
+
+  private static final String KEY = "cache:user:1024:profile";
+  private static final byte[] KEY_BYTES = KEY.getBytes(StandardCharsets.UTF_8);
+
+  @State(Scope.Thread)
+  public static class Buffer {
+    private final char[] hex = new char[DigestEngine.MD5.getHexLength()];
+  }
+
+  @Benchmark
+  public String commonsCodec() {
+    return DigestUtils.md5Hex(KEY_BYTES);
+  }
+
+  @Benchmark
+  public String md5Util() {
+    return Md5Util.toLowerCase(KEY);
+  }
+
+  @Benchmark
+  public String digestHex() {
+    return DigestEngine.MD5.digestHex(KEY);
+  }
+
+  /**
+   * 复用字符数组，不产生临时对象
+   */
+  @Benchmark
+  public char[] digestInto(Buffer buffer) {
+    DigestEngine.MD5.digestInto(KEY, buffer.hex, 0, false);
+    return buffer.hex;
+  }
+}
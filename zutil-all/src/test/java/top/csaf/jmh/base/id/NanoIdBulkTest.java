@@ -0,0 +1,76 @@
+package top.csaf.jmh.base.id;
+
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.*;
+import top.csaf.id.NanoIdGenerator;
+import top.csaf.id.NanoIdUtil;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * NanoID 逐个生成和批量生成的性能测试
+ */
+@State(Scope.Benchmark)
+@Threads(1)
+@Fork(1)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.Throughput)
+public class NanoIdBulkTest {
+
+  @Test
+  public void benchmark() throws Exception {
+    org.openjdk.jmh.Main.main(new String[]{NanoIdBulkTest.class.getName()});
+  }
+
+  private static final int COUNT = 1000;
+
+  /**
+   * 字典：默认字典、16 进制字典（掩码无浪费）、36 位字典（掩码有浪费）
+   */
+  @Param({"default", "0123456789abcdef", "0123456789abcdefghijklmnopqrstuvwxyz"})
+  private String alphabet;
+
+  private char[] alphabetChars;
+  private NanoIdGenerator generator;
+  private String[] ids;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    alphabetChars = "default".equals(alphabet) ? NanoIdUtil.DEFAULT_ALPHABET : alphabet.toCharArray();
+    generator = new NanoIdGenerator(NanoIdUtil.DEFAULT_SIZE, alphabetChars);
+    ids = new String[COUNT];
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(COUNT)
+  public String[] perIdByRandom() {
+    for (int i = 0; i < COUNT; i++) {
+      ids[i] = NanoIdUtil.randomNanoId(NanoIdUtil.DEFAULT_SIZE, alphabetChars, NanoIdUtil.DEFAULT_ID_GENERATOR);
+    }
+    return ids;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(COUNT)
+  public String[] perIdByGenerator() {
+    for (int i = 0; i < COUNT; i++) {
+      ids[i] = generator.next();
+    }
+    return ids;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(COUNT)
+  public String[] bulk() {
+    generator.nextBatch(ids, 0, COUNT);
+    return ids;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(COUNT)
+  public String[] bulkByUtil() {
+    return NanoIdUtil.randomNanoIds(COUNT, NanoIdUtil.DEFAULT_SIZE, alphabetChars);
+  }
+}
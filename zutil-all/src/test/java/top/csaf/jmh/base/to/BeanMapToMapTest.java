@@ -4,6 +4,7 @@ import com.alibaba.fastjson2.JSON;
 import org.junit.jupiter.api.Test;
 import org.openjdk.jmh.annotations.*;
 import org.springframework.cglib.beans.BeanMap;
+import top.csaf.bean.BeanUtil;
 import top.csaf.junit.BeanUtilTest;
 
 import java.util.ArrayList;
@@ -70,6 +71,19 @@ public class BeanMapToMapTest {
     // 强转后深层仍是 JSONObject、JSONArray 类型，可以继续强转
     return (Map<String, Object>) JSON.toJSON(testBean);
   }
+
+  /**
+   * 按类缓存属性信息，显式栈展开嵌套结构
+   */
+  @Benchmark
+  public Map<String, Object> zutil() {
+    return BeanUtil.toMap(testBean, new HashMap<>());
+  }
+
+  @Benchmark
+  public Map<String, Object> zutilFlat() {
+    return BeanUtil.toFlatMap(testBean, new HashMap<>());
+  }
 }
 
 // Benchmark                                                        Mode     Cnt     Score     Error   Units
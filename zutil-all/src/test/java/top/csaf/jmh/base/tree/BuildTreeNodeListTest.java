@@ -3,7 +3,10 @@ package top.csaf.jmh.base.tree;
 import org.junit.jupiter.api.Test;
 import org.openjdk.jmh.annotations.*;
 import top.csaf.coll.CollUtil;
+import top.csaf.tree.TreeConfig;
 import top.csaf.tree.TreeNode;
+import top.csaf.tree.TreeUtil;
+import top.csaf.tree.TypedTree;
 
 import java.util.*;
 import java.util.concurrent.TimeUnit;
@@ -54,6 +57,22 @@ public class BuildTreeNodeListTest {
     TREE_NODE_LIST.add(new TreeNode("10", "2.2", 2, "8"));
   }
 
+  /**
+   * 1M 个节点，每个节点的父级为之前的随机节点
+   */
+  @State(Scope.Benchmark)
+  public static class LargeTreeNodeList {
+    private final List<TreeNode> treeNodes = new ArrayList<>();
+
+    @Setup
+    public void setup() {
+      Random random = new Random(0);
+      for (int i = 1; i <= 1_000_000; i++) {
+        treeNodes.add(new TreeNode(i, String.valueOf(i), i, i <= 100 ? 0 : random.nextInt(i - 1) + 1));
+      }
+    }
+  }
+
   /**
    * 双层循环
    * <p>
@@ -147,6 +166,58 @@ public class BuildTreeNodeListTest {
     }
     return treeList;
   }
+
+  /**
+   * zutil，深克隆节点列表，生成级别、祖级
+   *
+   * @return 树列表
+   */
+  @Benchmark
+  public List<TreeNode> zutil() {
+    return TreeUtil.build(TREE_NODE_LIST, TreeConfig.builder().isGenLevel(true).isGenAncestors(true).build());
+  }
+
+  /**
+   * zutil，直接在传入的节点上构建，生成级别、延迟生成字符串的祖级
+   *
+   * @return 树列表
+   */
+  @Benchmark
+  public List<TreeNode> zutilInPlace() {
+    return TreeUtil.build(TREE_NODE_LIST, TreeConfig.builder().isInPlace(true).isGenLevel(true).isGenAncestors(true).isLazyAncestors(true).build());
+  }
+
+  /**
+   * zutil，1M 个节点，直接在传入的节点上构建，生成级别、祖级
+   *
+   * @param large 节点列表
+   * @return 树列表
+   */
+  @Benchmark
+  public List<TreeNode> zutilLarge(LargeTreeNodeList large) {
+    return TreeUtil.build(large.treeNodes, TreeConfig.builder().isInPlace(true).isGenLevel(true).isGenAncestors(true).build());
+  }
+
+  /**
+   * zutil，1M 个节点，直接在传入的节点上并行构建，生成级别、祖级
+   *
+   * @param large 节点列表
+   * @return 树列表
+   */
+  @Benchmark
+  public List<TreeNode> zutilLargeParallel(LargeTreeNodeList large) {
+    return TreeUtil.build(large.treeNodes, TreeConfig.builder().isInPlace(true).isParallel(true).isGenLevel(true).isGenAncestors(true).build());
+  }
+
+  /**
+   * zutil，任意类型的节点，级别、祖级保存在 {@link TypedTree} 中
+   *
+   * @return 树
+   */
+  @Benchmark
+  public TypedTree<TreeNode, Object> zutilTyped() {
+    return TreeUtil.build(TREE_NODE_LIST, TreeNode::getId, TreeNode::getParentId, TreeNode::setChildren, TreeConfig.builder().build());
+  }
 }
 
 // Benchmark                                                          Mode     Cnt        Score       Error   Units
@@ -5,6 +5,7 @@ import org.bouncycastle.jce.provider.BouncyCastleProvider;
 import org.junit.jupiter.api.Test;
 import org.openjdk.jmh.annotations.*;
 import top.csaf.crypto.BlockCipher;
+import top.csaf.crypto.BlockCipherSession;
 import top.csaf.crypto.DesUtil;
 import top.csaf.crypto.enums.Padding;
 
@@ -43,8 +44,11 @@ public class DesDecryptHexTest {
   private static final String IV_STR = "12345678";
   private static final byte[] IV = IV_STR.getBytes();
 
+  private static final BlockCipherSession SESSION = DesUtil.session(KEY_STR, IV_STR, top.csaf.crypto.enums.Mode.CBC, Padding.PKCS5);
+
   public static void main(String[] args) {
     assertEquals(new String(new DES(cn.hutool.crypto.Mode.CBC, cn.hutool.crypto.Padding.PKCS5Padding, KEY, IV).decrypt(ENCRYPTED_DATA)), DesUtil.decryptHex(ENCRYPTED_DATA, KEY_STR, IV_STR, top.csaf.crypto.enums.Mode.CBC, Padding.PKCS5));
+    assertEquals(DesUtil.decryptHex(ENCRYPTED_DATA, KEY_STR, IV_STR, top.csaf.crypto.enums.Mode.CBC, Padding.PKCS5), SESSION.decryptHex(ENCRYPTED_DATA));
   }
 
   @Benchmark
@@ -56,6 +60,14 @@ public class DesDecryptHexTest {
   public String decryptByZUtil() {
     return DesUtil.decryptHex(ENCRYPTED_DATA, KEY_STR, IV_STR, top.csaf.crypto.enums.Mode.CBC, Padding.PKCS5);
   }
+
+  /**
+   * 复用会话中已初始化的 Cipher
+   */
+  @Benchmark
+  public String decryptByZUtilSession() {
+    return SESSION.decryptHex(ENCRYPTED_DATA);
+  }
 }
 
 // Benchmark                                    Mode     Cnt     Score     Error   Units
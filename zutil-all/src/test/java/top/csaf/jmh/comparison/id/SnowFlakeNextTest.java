@@ -0,0 +1,66 @@
+package top.csaf.jmh.comparison.id;
+
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import top.csaf.id.AtomicSnowFlake;
+import top.csaf.id.SnowFlake;
+import top.csaf.id.StripedSnowFlake;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 雪花算法生成 ID 性能测试，分别以 1、2、4、8、16、32、64 个线程测试
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.Throughput)
+public class SnowFlakeNextTest {
+
+  private static final int[] THREADS = {1, 2, 4, 8, 16, 32, 64};
+
+  @Test
+  public void benchmark() throws Exception {
+    for (int threads : THREADS) {
+      new Runner(new OptionsBuilder().include(SnowFlakeNextTest.class.getName()).threads(threads).build()).run();
+    }
+  }
+
+  private final SnowFlake snowFlake = new SnowFlake(3, 5);
+  private final AtomicSnowFlake atomicSnowFlake = AtomicSnowFlake.builder().dataCenterId(3).machineId(5).build();
+  private final StripedSnowFlake stripedSnowFlake = StripedSnowFlake.builder().dataCenterId(3).machineId(5).stripeBit(6).build();
+
+  @State(Scope.Thread)
+  public static class Batch {
+    private final long[] ids = new long[64];
+  }
+
+  @Benchmark
+  public long synchronizedNext() {
+    return snowFlake.next();
+  }
+
+  @Benchmark
+  public long atomicNext() {
+    return atomicSnowFlake.next();
+  }
+
+  /**
+   * 一次预留 64 个序列号
+   */
+  @Benchmark
+  @OperationsPerInvocation(64)
+  public long[] atomicNextBatch(Batch batch) {
+    atomicSnowFlake.nextBatch(batch.ids);
+    return batch.ids;
+  }
+
+  @Benchmark
+  public long stripedNext() {
+    return stripedSnowFlake.next();
+  }
+}
@@ -4,10 +4,25 @@ import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import top.csaf.crypto.AesUtil;
+import top.csaf.crypto.BlockCipher;
 import top.csaf.crypto.DesUtil;
+import top.csaf.crypto.BlockCipherSession;
+import top.csaf.crypto.enums.BlockCipherType;
+import top.csaf.crypto.enums.EncodingType;
 import top.csaf.crypto.enums.Padding;
 
+import javax.crypto.Cipher;
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 
 
 @Slf4j
@@ -30,4 +45,133 @@ class AesUtilTest {
   void decrypt() {
     assertEquals(DATA, AesUtil.decryptHex(ENCRYPTED_DATA, KEY, IV, top.csaf.crypto.enums.Mode.CBC, Padding.PKCS5));
   }
+
+  @DisplayName("会话")
+  @Test
+  void session() {
+    String data = "hello zutil";
+    for (top.csaf.crypto.enums.Mode mode : new top.csaf.crypto.enums.Mode[]{top.csaf.crypto.enums.Mode.CBC, top.csaf.crypto.enums.Mode.ECB, top.csaf.crypto.enums.Mode.CTR}) {
+      BlockCipherSession session = AesUtil.session(KEY, IV, mode, Padding.PKCS5);
+      String encrypted = AesUtil.encryptHex(data, KEY, IV, mode, Padding.PKCS5);
+      // 重复使用同一 Cipher 结果不变
+      for (int i = 0; i < 3; i++) {
+        assertEquals(encrypted, session.encryptHex(data));
+        assertEquals(data, session.decryptHex(encrypted));
+        assertEquals(data, AesUtil.decryptHex(encrypted, KEY, IV, mode, Padding.PKCS5));
+      }
+      assertEquals(AesUtil.encryptBase64(data, KEY, IV, mode, Padding.PKCS5), session.encrypt(data, EncodingType.BASE_64));
+      assertArrayEquals(data.getBytes(), session.decrypt(session.encrypt(data.getBytes())));
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> T field(Object target, String name) throws ReflectiveOperationException {
+    Field field = BlockCipherSession.class.getDeclaredField(name);
+    field.setAccessible(true);
+    return (T) field.get(target);
+  }
+
+  @DisplayName("会话释放当前线程缓存的 Cipher")
+  @Test
+  void clear() throws ReflectiveOperationException {
+    String data = "hello zutil";
+    BlockCipherSession.clearThreadCache();
+    Map<?, ?> threadCache = AesUtilTest.<ThreadLocal<Map<?, ?>>>field(null, "THREAD_CACHE").get();
+    String encrypted = AesUtil.encryptHex(data, KEY, IV, top.csaf.crypto.enums.Mode.CBC, Padding.PKCS5);
+    assertEquals(data, AesUtil.decryptHex(encrypted, KEY, IV, top.csaf.crypto.enums.Mode.CBC, Padding.PKCS5));
+    AesUtil.encryptHex(data, IV, KEY, top.csaf.crypto.enums.Mode.CBC, Padding.PKCS5);
+    assertEquals(3, threadCache.size());
+
+    BlockCipherSession session = AesUtil.session(KEY, IV, top.csaf.crypto.enums.Mode.CBC, Padding.PKCS5);
+    assertEquals(encrypted, session.encryptHex(data));
+    ThreadLocal<Cipher> encryptCipher = field(session, "encryptCipher");
+    Cipher cipher = encryptCipher.get();
+    session.clear();
+    // 只移除该会话的密钥和初始化向量对应的 Cipher
+    assertEquals(1, threadCache.size());
+    assertNotSame(cipher, encryptCipher.get());
+    // 清理后仍可使用
+    assertEquals(encrypted, session.encryptHex(data));
+    assertEquals(data, session.decryptHex(encrypted));
+
+    BlockCipherSession.clearThreadCache();
+    assertNotSame(threadCache, AesUtilTest.<ThreadLocal<Map<?, ?>>>field(null, "THREAD_CACHE").get());
+  }
+
+  @DisplayName("认证加密模式重复加密")
+  @Test
+  void aead() {
+    String data = "0123456789abcdef";
+    String encrypted = AesUtil.encryptHex(data, KEY, IV, top.csaf.crypto.enums.Mode.GCM, Padding.NO);
+    assertNotEquals("", encrypted);
+    BlockCipherSession session = AesUtil.session(KEY, IV, top.csaf.crypto.enums.Mode.GCM, Padding.NO);
+    // 同一线程多次使用相同的密钥和初始化向量
+    for (int i = 0; i < 3; i++) {
+      assertEquals(encrypted, AesUtil.encryptHex(data, KEY, IV, top.csaf.crypto.enums.Mode.GCM, Padding.NO));
+      assertEquals(data, AesUtil.decryptHex(encrypted, KEY, IV, top.csaf.crypto.enums.Mode.GCM, Padding.NO));
+      assertEquals(encrypted, session.encryptHex(data));
+      assertEquals(data, session.decryptHex(encrypted));
+    }
+    List<String> batch = Arrays.asList(data, data, data);
+    assertEquals(Arrays.asList(encrypted, encrypted, encrypted), AesUtil.encryptHex(batch, KEY, IV, top.csaf.crypto.enums.Mode.GCM, Padding.NO));
+    assertEquals(batch, AesUtil.decryptHex(Arrays.asList(encrypted, encrypted, encrypted), KEY, IV, top.csaf.crypto.enums.Mode.GCM, Padding.NO));
+  }
+
+  @DisplayName("批量加解密")
+  @Test
+  void batch() {
+    List<String> data = Arrays.asList("hello zutil", null, "", "批量加密");
+    for (top.csaf.crypto.enums.Mode mode : new top.csaf.crypto.enums.Mode[]{top.csaf.crypto.enums.Mode.CBC, top.csaf.crypto.enums.Mode.CTR}) {
+      List<String> encrypted = AesUtil.encryptHex(data, KEY, IV, mode, Padding.PKCS5);
+      for (int i = 0; i < data.size(); i++) {
+        assertEquals(data.get(i) == null ? null : AesUtil.encryptHex(data.get(i), KEY, IV, mode, Padding.PKCS5), encrypted.get(i));
+      }
+      assertEquals(data, AesUtil.decryptHex(encrypted, KEY, IV, mode, Padding.PKCS5));
+
+      BlockCipherSession session = AesUtil.session(KEY, IV, mode, Padding.PKCS5);
+      String[] base64 = session.encrypt(data.toArray(new String[0]), EncodingType.BASE_64);
+      assertEquals(AesUtil.encryptBase64(data.get(0), KEY, IV, mode, Padding.PKCS5), base64[0]);
+      assertArrayEquals(data.toArray(new String[0]), session.decrypt(base64, EncodingType.BASE_64));
+
+      // 无法解码、长度错误的元素返回空字符串，不影响其他元素
+      List<String> invalid = Arrays.asList(encrypted.get(0), "zz", "abc", "00", encrypted.get(3));
+      assertEquals(Arrays.asList(data.get(0), "", "", "", data.get(3)), AesUtil.decryptHex(invalid, KEY, IV, mode, Padding.PKCS5));
+      assertArrayEquals(new String[]{data.get(0), "", data.get(3)},
+        session.decrypt(new String[]{base64[0], "%%%", base64[3]}, EncodingType.BASE_64));
+    }
+    BlockCipherSession noPadding = AesUtil.session(KEY, IV, top.csaf.crypto.enums.Mode.CBC, Padding.NO);
+    String[] encrypted = noPadding.encrypt(new String[]{"0123456789abcdef", "short", "0123456789abcdef"}, EncodingType.HEX);
+    assertEquals("", encrypted[1]);
+    assertEquals(encrypted[0], encrypted[2]);
+    assertEquals(encrypted[0], noPadding.encryptHex("0123456789abcdef"));
+  }
+
+  @DisplayName("并行加解密")
+  @Test
+  void parallel() {
+    ForkJoinPool pool = new ForkJoinPool(4);
+    Random random = new Random(0);
+    // 计数器低 8 字节为 0xff，分段偏移时需要进位
+    byte[] iv = new byte[16];
+    Arrays.fill(iv, 8, 16, (byte) 0xff);
+    try {
+      for (top.csaf.crypto.enums.Mode mode : new top.csaf.crypto.enums.Mode[]{top.csaf.crypto.enums.Mode.ECB, top.csaf.crypto.enums.Mode.CTR}) {
+        for (Padding padding : new Padding[]{Padding.PKCS5, Padding.NO}) {
+          BlockCipherSession session = BlockCipher.builder(BlockCipherType.AES).build().session(KEY, iv, mode, padding);
+          for (int length : new int[]{0, 15, 1024 * 1024, 1024 * 1024 + 5, 3 * 1024 * 1024 + 16}) {
+            if (padding == Padding.NO && length % 16 != 0) {
+              continue;
+            }
+            byte[] data = new byte[length];
+            random.nextBytes(data);
+            byte[] encrypted = session.encrypt(data);
+            assertArrayEquals(encrypted, session.encryptParallel(data, pool));
+            assertArrayEquals(data, session.decryptParallel(encrypted, pool));
+          }
+        }
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
 }
@@ -6,10 +6,28 @@ import lombok.NoArgsConstructor;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import top.csaf.bean.BeanUtil;
+import top.csaf.bean.DeepCloneStrategy;
+import top.csaf.bean.Immutable;
+import top.csaf.bean.KryoDeepCloneStrategy;
 import top.csaf.bean.PropFunc;
+import top.csaf.bean.ProtostuffDeepCloneStrategy;
+import top.csaf.tree.TreeNode;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.Serializable;
+import java.lang.ref.WeakReference;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -61,11 +79,16 @@ public class BeanUtilTest {
     map.put("map1", map1);
 
     Map testBean22 = (Map) BeanUtil.toMap(map).get("testBean2");
-    Map<String, Object> testBean33 = ((Iterator<Map<String, Object>>) testBean22.get("deepObject")).next();
-    Map<String, Object> testBean44 = ((Iterator<Map<String, Object>>) testBean33.get("deepObject")).next();
-    Map<String, Object> testBean55 = ((Map<String, Object>[]) testBean44.get("deepObject"))[0];
+    // 集合、Iterator、数组转为 List，可重复读取
+    List<Map<String, Object>> testBean33List = (List<Map<String, Object>>) testBean22.get("deepObject");
+    assertEquals(1, testBean33List.size());
+    Map<String, Object> testBean33 = testBean33List.get(0);
+    Map<String, Object> testBean44 = ((List<Map<String, Object>>) testBean33.get("deepObject")).get(0);
+    Map<String, Object> testBean55 = ((List<Map<String, Object>>) testBean44.get("deepObject")).get(0);
     Map<String, Object> testBean66 = (Map<String, Object>) ((Map<String, Object>) testBean55.get("deepObject")).get("testBean7");
     assertEquals("7", testBean66.get("name"));
+    assertFalse(testBean66.containsKey("class"));
+    assertThrows(IllegalArgumentException.class, () -> BeanUtil.toMap("1"));
 
     /** {@link BeanUtil#toMap(List)} */
     assertThrows(NullPointerException.class, () -> BeanUtil.toMap((List) null));
@@ -74,9 +97,9 @@ public class BeanUtilTest {
     // 上面测试时已经把 testBean3.deepObject 给 next 掉了，所以这里重新赋值
     testBean3.setDeepObject(Collections.singletonList(testBean4).iterator());
     testBean22 = (Map) BeanUtil.toMap(Collections.singletonList(map)).get(0).get("testBean2");
-    testBean33 = ((Iterator<Map<String, Object>>) testBean22.get("deepObject")).next();
-    testBean44 = ((Iterator<Map<String, Object>>) testBean33.get("deepObject")).next();
-    testBean55 = ((Map<String, Object>[]) testBean44.get("deepObject"))[0];
+    testBean33 = ((List<Map<String, Object>>) testBean22.get("deepObject")).get(0);
+    testBean44 = ((List<Map<String, Object>>) testBean33.get("deepObject")).get(0);
+    testBean55 = ((List<Map<String, Object>>) testBean44.get("deepObject")).get(0);
     testBean66 = (Map<String, Object>) ((Map<String, Object>) testBean55.get("deepObject")).get("testBean7");
     assertEquals("7", testBean66.get("name"));
   }
@@ -133,6 +156,20 @@ public class BeanUtilTest {
     assertEquals("1", BeanUtil.getPropertyStr(testBean, TestBean::getName));
   }
 
+  @DisplayName("属性 Getter 解析缓存")
+  @Test
+  void lambdaProperty() {
+    for (int i = 0; i < 2; i++) {
+      assertEquals("age", BeanUtil.getPropertyName(TestPrimitiveBean::getAge));
+      assertEquals(int.class, BeanUtil.getPropertyClass(TestPrimitiveBean::getAge));
+      assertEquals("enabled", BeanUtil.getPropertyName(TestPrimitiveBean::isEnabled));
+      assertEquals(boolean.class, BeanUtil.getPropertyClass(TestPrimitiveBean::isEnabled));
+      assertEquals("read_only", BeanUtil.getColumnName(TestPrimitiveBean::getReadOnly));
+      // 父类的属性
+      assertEquals(String.class, BeanUtil.getPropertyClass(TestBean::getSuperName));
+    }
+  }
+
   @DisplayName("根据属性名设置属性值")
   @Test
   void setProperty() {
@@ -152,6 +189,48 @@ public class BeanUtilTest {
     assertTrue(BeanUtil.setProperty(testBean, TestBean::getName, "3"));
   }
 
+  @Data
+  public static class TestPrimitiveBean {
+    private int age;
+    private boolean enabled;
+    private long[] ids;
+
+    public String getReadOnly() {
+      return "readOnly";
+    }
+  }
+
+  @Data
+  static class TestPackagePrivateBean {
+    private int age;
+  }
+
+  @DisplayName("基本类型、只读属性和非 public 类的属性访问")
+  @Test
+  void propertyAccessor() {
+    TestPrimitiveBean bean = new TestPrimitiveBean();
+    assertTrue(BeanUtil.setProperty(bean, "age", 18));
+    assertEquals(18, BeanUtil.getProperty(bean, "age"));
+    assertTrue(BeanUtil.setProperty(bean, TestPrimitiveBean::isEnabled, true));
+    assertEquals(true, BeanUtil.getProperty(bean, TestPrimitiveBean::isEnabled));
+    assertTrue(BeanUtil.setProperty(bean, TestPrimitiveBean::getAge, 19));
+    assertEquals(19, BeanUtil.getProperty(bean, TestPrimitiveBean::getAge));
+    assertTrue(BeanUtil.setProperty(bean, "ids", new long[]{1, 2}));
+    assertArrayEquals(new long[]{1, 2}, (long[]) BeanUtil.getProperty(bean, "ids"));
+    assertEquals(TestPrimitiveBean.class, BeanUtil.getProperty(bean, "class"));
+    // 类型不匹配、基本类型设置 null 与反射调用一致
+    assertThrows(IllegalArgumentException.class, () -> BeanUtil.setProperty(bean, "age", "18"));
+    assertThrows(IllegalArgumentException.class, () -> BeanUtil.setProperty(bean, "age", null));
+    assertTrue(BeanUtil.setProperty(bean, "ids", null));
+    // 只读属性
+    assertEquals("readOnly", BeanUtil.getProperty(bean, "readOnly"));
+    assertFalse(BeanUtil.setProperty(bean, "readOnly", "1"));
+
+    TestPackagePrivateBean packagePrivateBean = new TestPackagePrivateBean();
+    assertTrue(BeanUtil.setProperty(packagePrivateBean, "age", 20));
+    assertEquals(20, BeanUtil.getProperty(packagePrivateBean, "age"));
+  }
+
   @Data
   class TestBeanNotHaveNoArgsConstructor {
     private String name;
@@ -181,4 +260,400 @@ public class BeanUtilTest {
     List<TestBean> testBean2 = BeanUtil.copyProperties(Collections.singletonList(testBean), TestBean.class);
     assertEquals("1", testBean2.get(0).getSuperName());
   }
+
+  @Data
+  public static class TestCopySource {
+    private int age;
+    private Long id;
+    private String name;
+    private List<String> tags;
+    private List<String> names;
+    private long[] ids;
+  }
+
+  @Data
+  public static class TestCopyTarget {
+    private Integer age;
+    private long id;
+    private Object name;
+    private List<Integer> tags;
+    private Collection<String> names;
+    private long[] ids;
+  }
+
+  @DisplayName("复制计划：类型匹配与 Spring 一致")
+  @Test
+  void copyPlan() {
+    TestCopySource source = new TestCopySource();
+    source.setAge(18);
+    source.setId(1L);
+    source.setName("1");
+    source.setTags(Collections.singletonList("a"));
+    source.setNames(Collections.singletonList("b"));
+    source.setIds(new long[]{1, 2});
+    TestCopyTarget expected = new TestCopyTarget();
+    org.springframework.beans.BeanUtils.copyProperties(source, expected);
+    assertEquals(expected, BeanUtil.copyProperties(source, TestCopyTarget.class));
+    assertEquals(expected, BeanUtil.copyProperties(source, TestCopyTarget.class));
+    // 泛型不匹配的属性不复制
+    assertNull(expected.getTags());
+    assertEquals(Collections.singletonList("b"), expected.getNames());
+
+    // 包装类型为 null 时无法设置到基本类型属性
+    source.setId(null);
+    assertThrows(org.springframework.beans.FatalBeanException.class, () -> BeanUtil.copyProperties(source, TestCopyTarget.class));
+    source.setId(2L);
+
+    // 列表中元素类型不同时按元素类型分别复制
+    TestBean testBean = new TestBean("3");
+    testBean.setSuperName("4");
+    List<TestSuperBean> targets = BeanUtil.copyProperties(Arrays.asList(testBean, new TestSuperBean(), testBean), TestSuperBean.class);
+    assertEquals(3, targets.size());
+    assertEquals("4", targets.get(0).getSuperName());
+    assertNull(targets.get(1).getSuperName());
+    assertEquals("4", targets.get(2).getSuperName());
+    assertThrows(IllegalArgumentException.class, () -> BeanUtil.copyProperties(Collections.singletonList(null), TestBean.class));
+    assertTrue(BeanUtil.copyProperties(Collections.emptyList(), TestBean.class).isEmpty());
+  }
+
+  /**
+   * 自行定义指定类（不委托父加载器）的类加载器，模拟重新部署的 Web 应用、插件
+   */
+  static class ChildFirstClassLoader extends ClassLoader {
+    private final String className;
+
+    ChildFirstClassLoader(String className) {
+      super(BeanUtilTest.class.getClassLoader());
+      this.className = className;
+    }
+
+    @Override
+    protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+      if (!className.equals(name)) {
+        return super.loadClass(name, resolve);
+      }
+      synchronized (getClassLoadingLock(name)) {
+        Class<?> loaded = findLoadedClass(name);
+        if (loaded != null) {
+          return loaded;
+        }
+        try (InputStream inputStream = getParent().getResourceAsStream(name.replace('.', '/') + ".class")) {
+          ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+          byte[] buffer = new byte[4096];
+          int length;
+          while ((length = inputStream.read(buffer)) != -1) {
+            outputStream.write(buffer, 0, length);
+          }
+          byte[] bytes = outputStream.toByteArray();
+          return defineClass(name, bytes, 0, bytes.length);
+        } catch (IOException e) {
+          throw new ClassNotFoundException(name, e);
+        }
+      }
+    }
+  }
+
+  @DisplayName("复制计划：缓存不阻止目标类的类加载器被卸载")
+  @Test
+  void copyPlanClassLoader() throws Exception {
+    TestCopySource source = new TestCopySource();
+    source.setAge(18);
+    source.setId(1L);
+    WeakReference<ClassLoader> loaderReference = copyToChildClass(source);
+    // JDK 和 Spring 的内省缓存以软引用保存类，软引用在抛出 OutOfMemoryError 前一定会被清除
+    try {
+      List<long[]> blocks = new ArrayList<>();
+      while (true) {
+        blocks.add(new long[1 << 20]);
+      }
+    } catch (OutOfMemoryError ignored) {
+      // 软引用已清除
+    }
+    for (int i = 0; i < 50 && loaderReference.get() != null; i++) {
+      System.gc();
+      Thread.sleep(10);
+    }
+    assertNull(loaderReference.get());
+  }
+
+  private static WeakReference<ClassLoader> copyToChildClass(TestCopySource source) throws Exception {
+    ClassLoader loader = new ChildFirstClassLoader(TestCopyTarget.class.getName());
+    Class<?> targetClass = loader.loadClass(TestCopyTarget.class.getName());
+    assertNotSame(TestCopyTarget.class, targetClass);
+    Object target = BeanUtil.copyProperties(source, targetClass);
+    assertSame(targetClass, target.getClass());
+    assertEquals(18, BeanUtil.getProperty(target, "age"));
+    assertEquals(1L, BeanUtil.getProperty(target, "id"));
+    return new WeakReference<>(loader);
+  }
+
+  @DisplayName("并行复制属性、并行转 Map：结果顺序与串行一致")
+  @Test
+  void parallel() {
+    List<Object> sourceList = new ArrayList<>();
+    for (int i = 0; i < 10000; i++) {
+      TestBean testBean = new TestBean(String.valueOf(i));
+      testBean.setSuperName("super" + i);
+      // 混入不同类型的元素
+      sourceList.add(i % 3 == 0 ? testBean : new TestSuperBean());
+    }
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      assertEquals(BeanUtil.copyProperties(sourceList, TestSuperBean.class), BeanUtil.copyPropertiesParallel(sourceList, TestSuperBean.class, pool));
+      assertEquals(BeanUtil.copyProperties(sourceList, TestBean.class), BeanUtil.copyPropertiesParallel(sourceList, TestBean.class));
+      assertEquals(BeanUtil.toMap(sourceList), BeanUtil.toMapParallel(sourceList, pool));
+      assertEquals(BeanUtil.toMap(sourceList.subList(0, 10)), BeanUtil.toMapParallel(sourceList.subList(0, 10)));
+      assertThrows(IllegalArgumentException.class, () -> BeanUtil.copyPropertiesParallel(sourceList, TestBeanNotHaveNoArgsConstructor.class, pool));
+      sourceList.set(5000, null);
+      assertThrows(IllegalArgumentException.class, () -> BeanUtil.copyPropertiesParallel(sourceList, TestBean.class, pool));
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Data
+  public static class TestCloneBean {
+    private int age;
+    private final long[] ids = new long[]{1, 2};
+    private Date date;
+    private TestBean[] beans;
+    private List<Object> list;
+    private Map<String, Object> map;
+    private SortedSet<String> sortedSet;
+    private EnumMap<TestCloneEnum, List<String>> enumMap;
+    private TestCloneBean parent;
+  }
+
+  public enum TestCloneEnum {
+    A, B
+  }
+
+  @DisplayName("深克隆：共享引用、循环引用、数组、集合")
+  @Test
+  void deepClone() {
+    assertNull(BeanUtil.deepClone((Object) null));
+    assertSame("1", BeanUtil.deepClone("1"));
+
+    TestBean shared = new TestBean("shared");
+    TestCloneBean source = new TestCloneBean();
+    source.setAge(18);
+    source.setDate(new Date(1000));
+    source.setBeans(new TestBean[]{shared, shared});
+    source.setList(Collections.unmodifiableList(Arrays.asList(shared, Collections.singletonList("1"))));
+    Map<String, Object> map = new HashMap<>();
+    map.put("self", source);
+    map.put("shared", shared);
+    source.setMap(map);
+    TreeSet<String> sortedSet = new TreeSet<>(Comparator.reverseOrder());
+    sortedSet.addAll(Arrays.asList("a", "b", "c"));
+    source.setSortedSet(sortedSet);
+    EnumMap<TestCloneEnum, List<String>> enumMap = new EnumMap<>(TestCloneEnum.class);
+    enumMap.put(TestCloneEnum.B, new ArrayList<>(Collections.singletonList("b")));
+    source.setEnumMap(enumMap);
+    source.setParent(source);
+
+    TestCloneBean target = BeanUtil.deepClone(source);
+    assertNotSame(source, target);
+    assertEquals(18, target.getAge());
+    assertArrayEquals(source.getIds(), target.getIds());
+    assertNotSame(source.getIds(), target.getIds());
+    assertEquals(source.getDate(), target.getDate());
+    assertNotSame(source.getDate(), target.getDate());
+    // 共享引用、循环引用
+    assertSame(target, target.getParent());
+    assertSame(target, target.getMap().get("self"));
+    TestBean sharedClone = target.getBeans()[0];
+    assertNotSame(shared, sharedClone);
+    assertEquals(shared, sharedClone);
+    assertSame(sharedClone, target.getBeans()[1]);
+    assertSame(sharedClone, target.getMap().get("shared"));
+    assertSame(sharedClone, target.getList().get(0));
+    assertEquals(source.getList(), target.getList());
+    // 排序比较器
+    assertEquals(Arrays.asList("c", "b", "a"), new ArrayList<>(target.getSortedSet()));
+    target.getSortedSet().add("d");
+    assertEquals("d", target.getSortedSet().first());
+    assertEquals(3, source.getSortedSet().size());
+    assertEquals(EnumMap.class, target.getEnumMap().getClass());
+    assertEquals(source.getEnumMap(), target.getEnumMap());
+    assertNotSame(source.getEnumMap().get(TestCloneEnum.B), target.getEnumMap().get(TestCloneEnum.B));
+
+    // 继承 LinkedHashMap 的类
+    TreeNode treeNode = new TreeNode();
+    treeNode.setId(1);
+    treeNode.setName("1");
+    TreeNode child = new TreeNode();
+    child.setId(2);
+    child.setParentId(1);
+    treeNode.setChildren(new ArrayList<>(Collections.singletonList(child)));
+    List<TreeNode> treeNodes = BeanUtil.deepClone(Arrays.asList(treeNode, child));
+    assertEquals(treeNode, treeNodes.get(0));
+    assertEquals(1, treeNodes.get(0).getId());
+    assertEquals("1", treeNodes.get(0).getName());
+    assertSame(treeNodes.get(1), treeNodes.get(0).getChildren().get(0));
+    assertNotSame(child, treeNodes.get(1));
+    assertEquals(1, treeNodes.get(1).getParentId());
+
+    assertThrows(IllegalArgumentException.class, () -> BeanUtil.deepClone(new TestBeanNotHaveNoArgsConstructor("1")));
+
+    // 可变的 JDK 类型不共享
+    AtomicInteger atomicInteger = new AtomicInteger(1);
+    AtomicInteger atomicIntegerClone = BeanUtil.deepClone(atomicInteger);
+    atomicIntegerClone.incrementAndGet();
+    assertEquals(1, atomicInteger.get());
+    AtomicReference<TestBean> atomicReference = new AtomicReference<>(shared);
+    AtomicReference<TestBean> atomicReferenceClone = BeanUtil.deepClone(atomicReference);
+    assertNotSame(shared, atomicReferenceClone.get());
+    assertEquals(shared, atomicReferenceClone.get());
+    atomicReferenceClone.set(null);
+    assertSame(shared, atomicReference.get());
+    StringBuilder stringBuilder = new StringBuilder("a");
+    BeanUtil.deepClone(stringBuilder).append("b");
+    assertEquals("a", stringBuilder.toString());
+    List<Object> mutables = BeanUtil.deepClone(Arrays.asList(new AtomicLong(2), new AtomicBoolean(true), new StringBuffer("c"), new AtomicIntegerArray(new int[]{3})));
+    assertEquals(2, ((AtomicLong) mutables.get(0)).get());
+    assertTrue(((AtomicBoolean) mutables.get(1)).get());
+    assertEquals("c", mutables.get(2).toString());
+    assertEquals(3, ((AtomicIntegerArray) mutables.get(3)).get(0));
+    // 不可变的 JDK 类型共享，无法复制的 JDK 类型抛出异常
+    Path path = Paths.get("a");
+    assertSame(path, BeanUtil.deepClone(path));
+    assertSame(StandardCharsets.UTF_8, BeanUtil.deepClone(StandardCharsets.UTF_8));
+    assertThrows(IllegalArgumentException.class, () -> BeanUtil.deepClone(new Thread()));
+    // 实现 Immutable 的类共享
+    TestImmutableBean immutableBean = new TestImmutableBean("1");
+    assertSame(immutableBean, BeanUtil.deepClone(immutableBean));
+    assertSame(immutableBean, BeanUtil.deepClone(Collections.singletonList(immutableBean)).get(0));
+
+    // 继承有状态的 JDK 类时通过 clone 复制父类状态，自身声明的字段仍深克隆
+    TestDate date = new TestDate();
+    date.setTime(1000L);
+    date.tags.add("a");
+    TestDate dateClone = BeanUtil.deepClone(date);
+    assertEquals(1000L, dateClone.getTime());
+    assertEquals(date.tags, dateClone.tags);
+    assertNotSame(date.tags, dateClone.tags);
+    // 没有实例字段的 JDK 父类通过无参构造方法创建
+    TestNumber number = new TestNumber();
+    number.value = 3;
+    assertEquals(3, BeanUtil.deepClone(number).value);
+    // 继承有状态的 JDK 类且无法 clone 时抛出异常，而不是丢失父类状态
+    assertThrows(IllegalArgumentException.class, () -> BeanUtil.deepClone(new TestRandom()));
+  }
+
+  static class TestDate extends Date {
+    private List<String> tags = new ArrayList<>();
+  }
+
+  static class TestNumber extends Number {
+    private int value;
+
+    @Override
+    public int intValue() {
+      return value;
+    }
+
+    @Override
+    public long longValue() {
+      return value;
+    }
+
+    @Override
+    public float floatValue() {
+      return value;
+    }
+
+    @Override
+    public double doubleValue() {
+      return value;
+    }
+  }
+
+  static class TestRandom extends Random {
+  }
+
+  @Data
+  static final class TestImmutableBean implements Immutable {
+    private final String name;
+  }
+
+  @DisplayName("深克隆策略")
+  @Test
+  void deepCloneStrategy() {
+    TestBean source = new TestBean("1");
+    source.setSuperName("2");
+    assertEquals(source, BeanUtil.deepClone(source, DeepCloneStrategy.JSON));
+    assertNotSame(source, BeanUtil.deepClone(source, DeepCloneStrategy.JSON));
+    assertEquals(Collections.singletonList(source), BeanUtil.deepClone(Collections.singletonList(source), DeepCloneStrategy.JSON));
+    assertNull(BeanUtil.deepClone((Object) null, DeepCloneStrategy.JSON));
+    for (DeepCloneStrategy strategy : new DeepCloneStrategy[]{new KryoDeepCloneStrategy(), new ProtostuffDeepCloneStrategy()}) {
+      assertEquals(source, BeanUtil.deepClone(source, strategy));
+      assertNotSame(source, BeanUtil.deepClone(source, strategy));
+      assertNull(BeanUtil.deepClone((Object) null, strategy));
+    }
+    assertThrows(NullPointerException.class, () -> BeanUtil.setDeepCloneStrategy(null));
+
+    assertSame(DeepCloneStrategy.PLAN, BeanUtil.getDeepCloneStrategy());
+    DeepCloneStrategy shallow = new DeepCloneStrategy() {
+      @Override
+      public <T> T deepClone(T source) {
+        return source;
+      }
+    };
+    BeanUtil.setDeepCloneStrategy(shallow);
+    try {
+      assertSame(source, BeanUtil.deepClone(source));
+      assertSame(source, BeanUtil.deepClone(Collections.singletonList(source)).get(0));
+    } finally {
+      BeanUtil.setDeepCloneStrategy(DeepCloneStrategy.PLAN);
+    }
+  }
+
+  @DisplayName("toMap 写入指定 Map、toFlatMap 转为属性路径")
+  @Test
+  void toMapWithTarget() {
+    TestBean testBean2 = new TestBean("2");
+    testBean2.setDeepObject(new TestCloneEnum[]{TestCloneEnum.A});
+    Map<String, Object> map1 = new LinkedHashMap<>();
+    map1.put("bean", testBean2);
+    map1.put("empty", Collections.emptyList());
+    TestBean testBean = new TestBean("1");
+    testBean.setSuperName("super");
+    testBean.setDeepObject(Arrays.asList(map1, 3, Collections.singleton("s").iterator()));
+
+    Map<String, Object> target = new HashMap<>();
+    target.put("other", 0);
+    assertSame(target, BeanUtil.toMap(testBean, target));
+    assertEquals(0, target.get("other"));
+    assertEquals("1", target.get("name"));
+    assertEquals("super", target.get("superName"));
+    assertFalse(target.containsKey("class"));
+    List<Object> deepObject = (List<Object>) target.get("deepObject");
+    assertEquals(3, deepObject.size());
+    Map<String, Object> bean = (Map<String, Object>) ((Map<String, Object>) deepObject.get(0)).get("bean");
+    assertEquals("2", bean.get("name"));
+    assertEquals(Collections.singletonList(TestCloneEnum.A), bean.get("deepObject"));
+    assertEquals(Collections.emptyList(), ((Map<String, Object>) deepObject.get(0)).get("empty"));
+    assertEquals(3, deepObject.get(1));
+    assertEquals(Collections.singletonList("s"), deepObject.get(2));
+
+    testBean.setDeepObject(Arrays.asList(map1, 3));
+    Map<String, Object> flatMap = BeanUtil.toFlatMap(testBean);
+    Map<String, Object> expected = new LinkedHashMap<>();
+    expected.put("deepObject[0].bean.deepObject[0]", TestCloneEnum.A);
+    expected.put("deepObject[0].bean.name", "2");
+    expected.put("deepObject[0].bean.superName", null);
+    expected.put("deepObject[0].empty", new ArrayList<>());
+    expected.put("deepObject[1]", 3);
+    expected.put("name", "1");
+    expected.put("superName", "super");
+    assertEquals(expected, flatMap);
+
+    assertThrows(IllegalArgumentException.class, () -> BeanUtil.toMap("1", new HashMap<>()));
+    testBean.setDeepObject(testBean);
+    assertThrows(IllegalArgumentException.class, () -> BeanUtil.toFlatMap(testBean));
+    // 共享引用不是循环引用
+    testBean.setDeepObject(Arrays.asList(testBean2, testBean2));
+    assertEquals("2", BeanUtil.toFlatMap(testBean).get("deepObject[1].name"));
+  }
 }
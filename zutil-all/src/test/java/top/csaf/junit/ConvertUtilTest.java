@@ -0,0 +1,106 @@
+package top.csaf.junit;
+
+import org.apache.commons.beanutils.ConvertUtils;
+import org.apache.commons.beanutils.Converter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import top.csaf.bean.ConvertUtil;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("类型转换工具类测试")
+class ConvertUtilTest {
+
+  @DisplayName("直接转换与 ConvertUtils 一致")
+  @Test
+  void convert() {
+    Object[] values = {null, "", "abc", " 12 ", "1.5", "1e3", "0x10", "-128", "40000", 7, 7L, 1L << 40, -129, 1.5, 1.5f, 1.1f, (byte) 1, (short) 2,
+      new BigDecimal("12.5"), new BigInteger("99999999999"), true, 'c', new Date(0)};
+    Class<?>[] targetTypes = {Object.class, String.class, Number.class, Integer.class, int.class, Long.class, long.class, Short.class, Byte.class,
+      Float.class, Double.class, double.class, BigDecimal.class, BigInteger.class, Boolean.class};
+    for (Object value : values) {
+      for (Class<?> targetType : targetTypes) {
+        Object expected;
+        try {
+          expected = ConvertUtils.convert(value, targetType);
+        } catch (Exception e) {
+          assertThrows(e.getClass(), () -> ConvertUtil.convert(value, targetType));
+          continue;
+        }
+        // 两次转换分别走解析和缓存
+        assertEquals(expected, ConvertUtil.convert(value, targetType), value + " -> " + targetType);
+        assertEquals(expected, ConvertUtil.convert(value, targetType), value + " -> " + targetType);
+      }
+    }
+  }
+
+  @DisplayName("注册转换器")
+  @Test
+  void register() {
+    assertEquals(0, ConvertUtil.convert("a", Integer.class));
+    ConvertUtil.register(CharSequence.class, Integer.class, CharSequence::length);
+    try {
+      assertEquals(1, ConvertUtil.convert("a", Integer.class));
+      assertEquals(1, ConvertUtil.convert("a", int.class));
+      assertEquals(3, ConvertUtil.convert(new StringBuilder("abc"), Integer.class));
+      // 源类型上的注册优先于父类、接口
+      ConvertUtil.register(String.class, Integer.class, s -> -1);
+      assertEquals(-1, ConvertUtil.convert("a", Integer.class));
+      ConvertUtil.deregister(String.class, Integer.class);
+      assertEquals(1, ConvertUtil.convert("a", Integer.class));
+    } finally {
+      ConvertUtil.deregister(CharSequence.class, Integer.class);
+    }
+    assertEquals(0, ConvertUtil.convert("a", Integer.class));
+    assertThrows(NullPointerException.class, () -> ConvertUtil.register((Class<String>) null, Integer.class, String::length));
+
+    ConvertUtil.register(new Converter() {
+      @Override
+      public <T> T convert(Class<T> type, Object value) {
+        return type.cast(100L);
+      }
+    }, Long.class);
+    try {
+      assertEquals(100L, ConvertUtil.convert("1", Long.class));
+    } finally {
+      ConvertUtil.deregister();
+    }
+    assertEquals(1L, ConvertUtil.convert("1", Long.class));
+
+    // 绕过本类注册的转换器在首次转换时检查
+    Converter hundred = new Converter() {
+      @Override
+      public <T> T convert(Class<T> type, Object value) {
+        return type.cast(type == String.class ? "100" : 100L);
+      }
+    };
+    ConvertUtils.register(hundred, Long.class);
+    try {
+      assertEquals(100L, ConvertUtil.convert(new AtomicInteger(1), Long.class));
+    } finally {
+      ConvertUtil.deregister();
+    }
+    assertEquals(1L, ConvertUtil.convert(new AtomicInteger(1), Long.class));
+    // 转换为字符串时使用源类型的转换器
+    ConvertUtil.register(hundred, Long.class);
+    try {
+      assertEquals("100", ConvertUtil.convert(1L, String.class));
+    } finally {
+      ConvertUtil.deregister();
+    }
+    // 移除目标类型的转换器后不再直接转换
+    ConvertUtil.deregister(Long.class);
+    try {
+      assertEquals(ConvertUtils.convert((Object) "1", Long.class), ConvertUtil.convert("1", Long.class));
+      assertEquals("1", ConvertUtil.convert("1", Long.class));
+    } finally {
+      ConvertUtil.deregister();
+    }
+    assertEquals(1L, ConvertUtil.convert("1", Long.class));
+  }
+}
@@ -4,8 +4,11 @@ import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import top.csaf.crypto.DesUtil;
+import top.csaf.crypto.BlockCipherSession;
+import top.csaf.crypto.enums.EncodingType;
 import top.csaf.crypto.enums.Padding;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 
@@ -29,4 +32,22 @@ class DesUtilTest {
   void decrypt() {
     assertEquals(DATA, DesUtil.decryptHex(ENCRYPTED_DATA, KEY, IV, top.csaf.crypto.enums.Mode.CBC, Padding.PKCS5));
   }
+
+  @DisplayName("会话")
+  @Test
+  void session() {
+    String data = "hello zutil";
+    for (top.csaf.crypto.enums.Mode mode : new top.csaf.crypto.enums.Mode[]{top.csaf.crypto.enums.Mode.CBC, top.csaf.crypto.enums.Mode.ECB, top.csaf.crypto.enums.Mode.CTR}) {
+      BlockCipherSession session = DesUtil.session(KEY, IV, mode, Padding.PKCS5);
+      String encrypted = DesUtil.encryptHex(data, KEY, IV, mode, Padding.PKCS5);
+      // 重复使用同一 Cipher 结果不变
+      for (int i = 0; i < 3; i++) {
+        assertEquals(encrypted, session.encryptHex(data));
+        assertEquals(data, session.decryptHex(encrypted));
+        assertEquals(data, DesUtil.decryptHex(encrypted, KEY, IV, mode, Padding.PKCS5));
+      }
+      assertEquals(DesUtil.encryptBase64(data, KEY, IV, mode, Padding.PKCS5), session.encrypt(data, EncodingType.BASE_64));
+      assertArrayEquals(data.getBytes(), session.decrypt(session.encrypt(data.getBytes())));
+    }
+  }
 }
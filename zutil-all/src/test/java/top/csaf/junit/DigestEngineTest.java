@@ -0,0 +1,59 @@
+package top.csaf.junit;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import top.csaf.crypto.DigestEngine;
+import top.csaf.crypto.Md5Util;
+import top.csaf.crypto.enums.DigestType;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 摘要引擎测试
+ */
+@DisplayName("摘要引擎测试")
+class DigestEngineTest {
+
+  @DisplayName("摘要")
+  @Test
+  void digest() {
+    String data = "hello 摘要 😀";
+    byte[] bytes = data.getBytes(StandardCharsets.UTF_8);
+    assertEquals(DigestUtils.md5Hex(bytes), DigestEngine.MD5.digestHex(bytes));
+    assertEquals(DigestUtils.sha1Hex(bytes), DigestEngine.SHA_1.digestHex(bytes));
+    assertEquals(DigestUtils.sha256Hex(bytes), DigestEngine.of(DigestType.SHA_256).digestHex(bytes));
+    assertEquals("66c7f0f462eeedd9d1f2d46bdc10e4e24167c4875cf2f7a2297da02b8f4ba8e0", DigestEngine.SM3.digestHex("abc"));
+    // 字符串按 UTF-8 编码
+    assertEquals(DigestUtils.md5Hex(bytes), DigestEngine.MD5.digestHex(data));
+    assertEquals(DigestUtils.md5Hex(bytes).toUpperCase(), DigestEngine.MD5.digestHex(data, true));
+    // 不成对的代理字符与 String#getBytes 一致
+    String lone = "a\uD83Db";
+    assertEquals(DigestUtils.sha256Hex(lone.getBytes(StandardCharsets.UTF_8)), DigestEngine.SHA_256.digestHex(lone));
+    assertArrayEquals(DigestUtils.sha256(bytes), DigestEngine.SHA_256.digest(bytes));
+  }
+
+  @DisplayName("摘要写入字符数组")
+  @Test
+  void digestInto() {
+    byte[] bytes = "0123456789".getBytes(StandardCharsets.UTF_8);
+    char[] out = new char[DigestEngine.MD5.getHexLength() + 2];
+    assertEquals(32, DigestEngine.MD5.digestInto(bytes, 2, 5, out));
+    assertEquals(DigestUtils.md5Hex("23456"), new String(out, 0, 32));
+    assertEquals(32, DigestEngine.MD5.digestInto(bytes, 2, 5, out, 2, true));
+    assertEquals(DigestUtils.md5Hex("23456").toUpperCase(), new String(out, 2, 32));
+    assertThrows(IndexOutOfBoundsException.class, () -> DigestEngine.MD5.digestInto(bytes, 0, bytes.length, out, 3, false));
+    assertThrows(IndexOutOfBoundsException.class, () -> DigestEngine.MD5.digestInto(bytes, 8, 5, out));
+  }
+
+  @DisplayName("MD5 工具类补齐两位十六进制")
+  @Test
+  void md5Util() {
+    // 摘要中含有小于 0x10 的字节
+    String data = "zutil";
+    assertEquals(DigestUtils.md5Hex(data), Md5Util.toLowerCase(data));
+    assertEquals(32, Md5Util.toUpperCase("1").length());
+  }
+}
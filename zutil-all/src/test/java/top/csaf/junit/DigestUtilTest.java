@@ -0,0 +1,134 @@
+package top.csaf.junit;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import top.csaf.crypto.DigestEngine;
+import top.csaf.crypto.DigestUtil;
+import top.csaf.crypto.Md5Util;
+import top.csaf.crypto.TreeDigest;
+import top.csaf.crypto.enums.DigestType;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 摘要工具类测试
+ */
+@DisplayName("摘要工具类测试")
+class DigestUtilTest {
+
+  @TempDir
+  Path tempDir;
+
+  /**
+   * 写入指定大小的随机文件
+   */
+  private Path randomFile(String name, long size) throws IOException {
+    Path path = tempDir.resolve(name);
+    Random random = new Random(size);
+    byte[] buffer = new byte[1024 * 1024];
+    try (OutputStream out = Files.newOutputStream(path)) {
+      for (long written = 0; written < size; written += buffer.length) {
+        random.nextBytes(buffer);
+        out.write(buffer, 0, (int) Math.min(buffer.length, size - written));
+      }
+    }
+    return path;
+  }
+
+  @DisplayName("文件摘要")
+  @Test
+  void file() throws Exception {
+    // 小文件分块读取、大文件单个窗口、跨多个映射窗口
+    for (long size : new long[]{0, 1000, 4L * 1024 * 1024 + 1, 64L * 1024 * 1024 + 7}) {
+      Path path = randomFile(size + ".bin", size);
+      String md5;
+      String sha256;
+      try (InputStream in = Files.newInputStream(path)) {
+        MessageDigest sha = MessageDigest.getInstance("SHA-256");
+        md5 = DigestUtils.md5Hex(new DigestInputStream(in, sha));
+        sha256 = org.bouncycastle.util.encoders.Hex.toHexString(sha.digest());
+      }
+      assertEquals(md5, DigestUtil.fileMd5Hex(path));
+      assertEquals(sha256, DigestUtil.fileSha256Hex(path));
+
+      Map<DigestType, String> hex = DigestUtil.digestHex(path, DigestType.SM3, DigestType.MD5, DigestType.SHA_256, DigestType.MD5);
+      assertEquals(3, hex.size());
+      assertEquals(md5, hex.get(DigestType.MD5));
+      assertEquals(sha256, hex.get(DigestType.SHA_256));
+      assertEquals(DigestUtil.fileSm3Hex(path), hex.get(DigestType.SM3));
+      if (size < 1024 * 1024) {
+        assertEquals(DigestEngine.SM3.digestHex(Files.readAllBytes(path)), hex.get(DigestType.SM3));
+      }
+    }
+  }
+
+  @DisplayName("分块树摘要")
+  @Test
+  void treeDigest() throws Exception {
+    int chunkSize = 1024 * 1024;
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      for (long size : new long[]{0, 1000, 5L * chunkSize, 5L * chunkSize + 3}) {
+        Path path = randomFile("tree-" + size + ".bin", size);
+        byte[] data = Files.readAllBytes(path);
+        TreeDigest tree = DigestUtil.treeDigest(path, DigestType.MD5, chunkSize, pool);
+        assertEquals((size + chunkSize - 1) / chunkSize, tree.getChunkCount());
+        assertEquals(size, tree.getSize());
+        // 根摘要为各块摘要拼接后的摘要
+        MessageDigest root = MessageDigest.getInstance("MD5");
+        for (int i = 0; i < tree.getChunkCount(); i++) {
+          int off = i * chunkSize;
+          int len = (int) Math.min(chunkSize, size - off);
+          byte[] chunkDigest = DigestUtils.md5(Arrays.copyOfRange(data, off, off + len));
+          assertArrayEquals(chunkDigest, tree.getChunkDigest(i));
+          assertEquals(DigestUtils.md5Hex(Arrays.copyOfRange(data, off, off + len)), tree.getChunkHex(i));
+          assertTrue(tree.verifyChunk(i, data, off, len));
+          root.update(chunkDigest);
+        }
+        assertArrayEquals(root.digest(), tree.getRootDigest());
+        assertEquals(tree.getRootHex(), Md5Util.toTreeDigest(path, chunkSize).getRootHex());
+        assertEquals(tree.getRootHex(), DigestUtil.treeDigest(path, DigestType.MD5, chunkSize, new ForkJoinPool(1)).getRootHex());
+        if (size > 0) {
+          // 修改返回的副本不影响校验和根摘要
+          String rootHex = tree.getRootHex();
+          tree.getChunkDigest(0)[0]++;
+          tree.getRootDigest()[0]++;
+          assertTrue(tree.verifyChunk(0, data, 0, (int) Math.min(chunkSize, size)));
+          assertEquals(rootHex, tree.getRootHex());
+          assertThrows(IndexOutOfBoundsException.class, () -> tree.getChunkDigest(tree.getChunkCount()));
+          data[0]++;
+          assertFalse(tree.verifyChunk(0, data, 0, (int) Math.min(chunkSize, size)));
+        }
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @DisplayName("通道摘要")
+  @Test
+  void channel() throws Exception {
+    byte[] data = new byte[300 * 1024 + 3];
+    new Random(1).nextBytes(data);
+    Map<DigestType, byte[]> digests = DigestUtil.digest(Channels.newChannel(new ByteArrayInputStream(data)), DigestType.SHA_1, DigestType.SHA_256);
+    assertArrayEquals(DigestUtils.sha1(data), digests.get(DigestType.SHA_1));
+    assertArrayEquals(DigestUtils.sha256(data), digests.get(DigestType.SHA_256));
+    assertThrows(IllegalArgumentException.class, () -> DigestUtil.digest(Channels.newChannel(new ByteArrayInputStream(data))));
+  }
+}
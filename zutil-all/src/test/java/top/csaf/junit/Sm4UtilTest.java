@@ -1,13 +1,28 @@
 package top.csaf.junit;
 
 import lombok.extern.slf4j.Slf4j;
+import org.bouncycastle.util.encoders.Hex;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import top.csaf.crypto.DesUtil;
 import top.csaf.crypto.Sm4Util;
+import top.csaf.crypto.BlockCipherSession;
+import top.csaf.crypto.BlockCipherUtil;
+import top.csaf.crypto.enums.BlockCipherType;
+import top.csaf.crypto.enums.EncodingType;
 import top.csaf.crypto.enums.Padding;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 
 @Slf4j
@@ -30,4 +45,73 @@ class Sm4UtilTest {
   void decrypt() {
     assertEquals(DATA, Sm4Util.decryptHex(ENCRYPTED_DATA, KEY, IV, top.csaf.crypto.enums.Mode.CBC, Padding.PKCS5));
   }
+
+  /**
+   * 每次最多读取 1 个字节的输入流
+   */
+  private static final class OneByteInputStream extends ByteArrayInputStream {
+    OneByteInputStream(byte[] buf) {
+      super(buf);
+    }
+
+    @Override
+    public synchronized int read(byte[] b, int off, int len) {
+      return super.read(b, off, Math.min(len, 1));
+    }
+  }
+
+  @DisplayName("流式加解密")
+  @Test
+  void stream() throws IOException {
+    // 跨越多个分块且不是分组大小的整数倍
+    byte[] data = new byte[BlockCipherSession.STREAM_BUFFER_SIZE * 3 + 5];
+    new Random(1).nextBytes(data);
+    for (top.csaf.crypto.enums.Mode mode : new top.csaf.crypto.enums.Mode[]{top.csaf.crypto.enums.Mode.CBC, top.csaf.crypto.enums.Mode.CTR}) {
+      BlockCipherSession session = Sm4Util.session(KEY, IV, mode, Padding.PKCS5);
+      byte[] encrypted = session.encrypt(data);
+
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      assertEquals(encrypted.length, session.encrypt(new ByteArrayInputStream(data), out));
+      assertArrayEquals(encrypted, out.toByteArray());
+      out.reset();
+      assertEquals(data.length, session.decrypt(new ByteArrayInputStream(encrypted), out));
+      assertArrayEquals(data, out.toByteArray());
+
+      // Hex
+      out.reset();
+      session.encrypt(new ByteArrayInputStream(data), out, EncodingType.HEX);
+      assertEquals(Hex.toHexString(encrypted), out.toString());
+      byte[] hex = out.toByteArray();
+      out.reset();
+      session.decrypt(new ByteArrayInputStream(hex), out, EncodingType.HEX);
+      assertArrayEquals(data, out.toByteArray());
+      // 按行分隔、每次只读到 1 个字符的 Hex
+      StringBuilder lines = new StringBuilder();
+      for (int i = 0; i < hex.length; i += 64) {
+        lines.append(new String(hex, i, Math.min(64, hex.length - i), StandardCharsets.US_ASCII)).append(i % 128 == 0 ? "\r\n" : " \n\t");
+      }
+      out.reset();
+      session.decrypt(new OneByteInputStream(lines.toString().getBytes(StandardCharsets.US_ASCII)), out, EncodingType.HEX);
+      assertArrayEquals(data, out.toByteArray());
+      assertThrows(IOException.class, () -> session.decrypt(new ByteArrayInputStream("0g".getBytes(StandardCharsets.US_ASCII)), new ByteArrayOutputStream(), EncodingType.HEX));
+      assertThrows(IOException.class, () -> session.decrypt(new ByteArrayInputStream("0 \n".getBytes(StandardCharsets.US_ASCII)), new ByteArrayOutputStream(), EncodingType.HEX));
+
+      // Base64
+      out.reset();
+      BlockCipherUtil.encrypt(BlockCipherType.SM4, new ByteArrayInputStream(data), out, KEY, IV, mode, Padding.PKCS5, EncodingType.BASE_64);
+      assertEquals(Base64.getEncoder().encodeToString(encrypted), out.toString());
+      byte[] base64 = out.toByteArray();
+      out.reset();
+      BlockCipherUtil.decrypt(BlockCipherType.SM4, new ByteArrayInputStream(base64), out, KEY, IV, mode, Padding.PKCS5, EncodingType.BASE_64);
+      assertArrayEquals(data, out.toByteArray());
+
+      // 通道
+      out.reset();
+      BlockCipherUtil.encrypt(BlockCipherType.SM4, Channels.newChannel(new ByteArrayInputStream(data)), Channels.newChannel(out), KEY, IV, mode, Padding.PKCS5);
+      assertArrayEquals(encrypted, out.toByteArray());
+      out.reset();
+      session.decrypt(Channels.newChannel(new ByteArrayInputStream(encrypted)), Channels.newChannel(out));
+      assertArrayEquals(data, out.toByteArray());
+    }
+  }
 }
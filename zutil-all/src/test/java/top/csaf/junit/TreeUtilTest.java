@@ -1,19 +1,29 @@
 package top.csaf.junit;
 
+import lombok.AllArgsConstructor;
+import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import top.csaf.bean.BeanUtil;
+import top.csaf.json.JsonUtil;
+import top.csaf.tree.TreeAncestors;
 import top.csaf.tree.TreeConfig;
+import top.csaf.tree.TreeIndex;
 import top.csaf.tree.TreeNode;
 import top.csaf.tree.TreeUtil;
+import top.csaf.tree.TypedTree;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.*;
 
 @Slf4j
 @DisplayName("树工具类测试")
@@ -83,6 +93,265 @@ class TreeUtilTest {
     assertEquals(true, TreeUtil.build(TREE_NODE_LIST, treeConfig).get(0).getChildren().get(1).get("hasChildren"));
   }
 
+  @DisplayName("在传入的节点上构建树")
+  @Test
+  void buildInPlace() {
+    List<TreeNode> treeNodes = new ArrayList<>();
+    for (TreeNode treeNode : TREE_NODE_LIST) {
+      treeNodes.add(new TreeNode(treeNode.getId(), treeNode.getName(), treeNode.getOrder(), treeNode.getParentId()));
+    }
+    // 子级在父级之前
+    Collections.reverse(treeNodes);
+    List<TreeNode> source = new ArrayList<>(treeNodes);
+    TreeConfig treeConfig = TreeConfig.builder().isSort(true).isIgnoreIdTypeMismatch(true).isInPlace(true)
+      .comparator(Comparator.comparing(TreeNode::getId, Comparator.comparingInt(s -> Integer.parseInt(s.toString()))))
+      .isGenLevel(true).isGenAncestors(true).isGenHasChildren(true).build();
+    List<TreeNode> treeNodeList = TreeUtil.build(treeNodes, treeConfig);
+    // 传入的列表不会被排序
+    assertEquals(source, treeNodes);
+    TreeNode treeNode = treeNodeList.get(0).getChildren().get(1).getChildren().get(2);
+    assertEquals("1,3,7", treeNode.get("ancestors"));
+    assertEquals(3, treeNode.get("level"));
+    assertEquals(true, treeNodeList.get(0).getChildren().get(1).get("hasChildren"));
+    // 直接使用传入的节点
+    assertSame(treeNodes.get(treeNodes.size() - 1), treeNodeList.get(0));
+
+    // 重复构建时清空原有的子级
+    treeConfig.setLazyAncestors(true);
+    treeNodeList = TreeUtil.build(treeNodes, treeConfig);
+    treeNode = treeNodeList.get(0).getChildren().get(1).getChildren().get(2);
+    assertEquals(3, treeNodeList.get(0).getChildren().get(1).getChildren().size());
+    Object ancestors = treeNode.get("ancestors");
+    assertInstanceOf(TreeAncestors.class, ancestors);
+    assertEquals("1,3,7", ancestors.toString());
+    assertEquals(Arrays.asList(1, 3, 7), ((TreeAncestors) ancestors).toList());
+    assertEquals(3, ((TreeAncestors) ancestors).getLevel());
+    // 序列化为字符串
+    assertTrue(JsonUtil.toJson(treeNode).contains("\"ancestors\":\"1,3,7\""));
+    // 深克隆时共享，扁平化后可重新构建
+    TreeNode cloneNode = BeanUtil.deepClone(treeNode);
+    assertSame(ancestors, cloneNode.get("ancestors"));
+    List<TreeNode> flatList = TreeUtil.flatten(BeanUtil.deepClone(treeNodeList), "children", ArrayList::new);
+    treeConfig.setInPlace(false);
+    List<TreeNode> rebuiltList = TreeUtil.build(flatList, treeConfig);
+    assertEquals("1,3,7", rebuiltList.get(0).getChildren().get(1).getChildren().get(2).get("ancestors").toString());
+    // 扁平化后的节点仍带有子级，重新构建时不重复
+    assertEquals(flatList.size(), TreeUtil.flatten(rebuiltList, "children", ArrayList::new).size());
+    assertTreeEquals(treeNodeList, rebuiltList);
+    assertEquals(3, rebuiltList.get(0).getChildren().size());
+    assertEquals(3, rebuiltList.get(0).getChildren().get(1).getChildren().size());
+    treeConfig.setInPlace(true);
+    // 与深克隆构建的结果一致
+    treeConfig.setInPlace(false);
+    treeConfig.setLazyAncestors(false);
+    assertEquals(TreeUtil.flatten(TreeUtil.build(TREE_NODE_LIST, treeConfig), "children", ArrayList::new).size(),
+      TreeUtil.flatten(treeNodeList, "children", ArrayList::new).size());
+  }
+
+  @Data
+  @AllArgsConstructor
+  static class TestOrg {
+    private Integer id;
+    private Integer parentId;
+    private List<TestOrg> children;
+
+    TestOrg(Integer id, Integer parentId) {
+      this(id, parentId, null);
+    }
+  }
+
+  @DisplayName("在任意类型的节点上构建树")
+  @Test
+  void buildTyped() {
+    List<TestOrg> orgs = new ArrayList<>();
+    for (TreeNode treeNode : TREE_NODE_LIST.subList(0, TREE_NODE_LIST.size() - 1)) {
+      orgs.add(new TestOrg((Integer) treeNode.getId(), Integer.valueOf(treeNode.getParentId().toString())));
+    }
+    // 找不到父级
+    orgs.add(new TestOrg(999, 1000));
+    // 循环
+    orgs.add(new TestOrg(20, 21));
+    orgs.add(new TestOrg(21, 20));
+
+    TypedTree<TestOrg, Integer> tree = TreeUtil.build(orgs, TestOrg::getId, TestOrg::getParentId, TestOrg::setChildren, TreeConfig.builder().build());
+    assertEquals(2, tree.getRoots().size());
+    // 不排序，子级按传入顺序
+    assertEquals(7, tree.getRoots().get(0).getChildren().get(1).getChildren().get(0).getId());
+    int index = tree.indexOf(7);
+    assertEquals(3, tree.getLevel(index));
+    assertEquals(Arrays.asList(1, 3, 7), tree.getAncestors(index));
+    assertEquals("1,3,7", tree.getAncestorsString(index));
+    assertEquals(3, tree.getParent(index).getId());
+    assertFalse(tree.hasChildren(index));
+    assertTrue(tree.hasChildren(tree.indexOf(3)));
+    assertEquals(3, tree.getChildCount(tree.indexOf(12)));
+    assertEquals(TypedTree.ROOT, tree.getParentIndex(tree.indexOf(1)));
+    // 找不到父级、循环中的节点
+    for (int id : new int[]{999, 20, 21}) {
+      assertEquals(TypedTree.DROPPED, tree.getParentIndex(tree.indexOf(id)));
+      assertEquals(0, tree.getLevel(tree.indexOf(id)));
+      assertEquals(Collections.emptyList(), tree.getAncestors(tree.indexOf(id)));
+    }
+    assertEquals(-1, tree.indexOf(100));
+
+    // 与 TreeNode 构建的结果一致
+    List<TestOrg> roots = TreeUtil.build(orgs, TestOrg::getId, TestOrg::getParentId, TestOrg::setChildren);
+    List<TreeNode> treeNodes = TreeUtil.build(TREE_NODE_LIST);
+    assertEquals(treeNodes.size(), roots.size());
+    assertEquals(TreeUtil.flatten(treeNodes, "children", ArrayList::new).size(), TreeUtil.flatten(roots, "children", ArrayList::new).size());
+
+    List<TestOrg> blankParentId = Collections.singletonList(new TestOrg(1, null));
+    assertThrows(IllegalArgumentException.class, () -> TreeUtil.build(blankParentId, TestOrg::getId, TestOrg::getParentId, TestOrg::setChildren,
+      TreeConfig.builder().rootParentIdValues(new Object[]{0}).build()));
+  }
+
+  @DisplayName("并行构建树")
+  @Test
+  void buildParallel() {
+    // 随机生成的大树，父级可能在子级之后，包含找不到父级的节点
+    Random random = new Random(0);
+    List<TreeNode> treeNodes = new ArrayList<>();
+    for (int i = 1; i <= 50000; i++) {
+      Object parentId = i <= 10 ? 0 : i % 1000 == 0 ? -1 : random.nextInt(50000) + 1;
+      if (parentId.equals(i)) {
+        parentId = 0;
+      }
+      treeNodes.add(new TreeNode(i, String.valueOf(i), random.nextInt(100), parentId));
+    }
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      TreeConfig treeConfig = TreeConfig.builder().isSort(true).comparator(Comparator.comparing(TreeNode::getOrder))
+        .isGenLevel(true).isGenAncestors(true).isGenHasChildren(true).build();
+      List<TreeNode> expected = TreeUtil.build(treeNodes, treeConfig);
+      treeConfig.setParallel(true);
+      treeConfig.setPool(pool);
+      assertTreeEquals(expected, TreeUtil.build(treeNodes, treeConfig));
+      treeConfig.setInPlace(true);
+      assertTreeEquals(expected, TreeUtil.build(treeNodes, treeConfig));
+      treeConfig.setSort(false);
+      treeConfig.setIdType(String.class);
+      treeConfig.setRootByNullParent(true);
+      treeConfig.setParallel(false);
+      expected = TreeUtil.build(treeNodes, treeConfig);
+      treeConfig.setParallel(true);
+      assertTreeEquals(expected, TreeUtil.build(treeNodes, treeConfig));
+
+      // 节点带有与父级 ID 无关的原有子级，并行与串行构建的结果一致
+      treeConfig.setParallel(false);
+      treeConfig.setInPlace(false);
+      List<TreeNode> flatNodes = treeNodes.stream()
+        .map(treeNode -> new TreeNode(treeNode.getId(), treeNode.getName(), treeNode.getOrder(), treeNode.getParentId()))
+        .collect(Collectors.toList());
+      for (int i = 0; i * 2 + 2 < flatNodes.size(); i++) {
+        flatNodes.get(i).setChildren(new ArrayList<>(Arrays.asList(flatNodes.get(i * 2 + 1), flatNodes.get(i * 2 + 2))));
+      }
+      expected = TreeUtil.build(flatNodes, treeConfig);
+      assertEquals(TreeUtil.flatten(TreeUtil.build(treeNodes, treeConfig), "children", ArrayList::new).size(),
+        TreeUtil.flatten(expected, "children", ArrayList::new).size());
+      treeConfig.setParallel(true);
+      assertTreeEquals(expected, TreeUtil.build(flatNodes, treeConfig));
+      treeConfig.setInPlace(true);
+      assertTreeEquals(expected, TreeUtil.build(flatNodes, treeConfig));
+
+      treeConfig.setSort(true);
+      treeConfig.setComparator(null);
+      assertThrows(IllegalArgumentException.class, () -> TreeUtil.build(treeNodes, treeConfig));
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  private static void assertTreeEquals(List<TreeNode> expected, List<TreeNode> actual) {
+    List<TreeNode> expectedNodes = TreeUtil.flatten(expected, "children", ArrayList::new);
+    List<TreeNode> actualNodes = TreeUtil.flatten(actual, "children", ArrayList::new);
+    assertEquals(expected.size(), actual.size());
+    assertEquals(expectedNodes.size(), actualNodes.size());
+    for (int i = 0; i < expectedNodes.size(); i++) {
+      TreeNode expectedNode = expectedNodes.get(i);
+      TreeNode actualNode = actualNodes.get(i);
+      assertEquals(expectedNode.getId(), actualNode.getId());
+      assertEquals(expectedNode.get("level"), actualNode.get("level"));
+      assertEquals(expectedNode.get("ancestors"), actualNode.get("ancestors"));
+      assertEquals(expectedNode.get("hasChildren"), actualNode.get("hasChildren"));
+      assertEquals(expectedNode.getChildren() == null ? 0 : expectedNode.getChildren().size(),
+        actualNode.getChildren() == null ? 0 : actualNode.getChildren().size());
+    }
+  }
+
+  @DisplayName("树索引")
+  @Test
+  void index() {
+    TreeConfig treeConfig = TreeConfig.builder().isSort(true)
+      .comparator(Comparator.comparing(TreeNode::getId, Comparator.comparingInt(s -> Integer.parseInt(s.toString())))).build();
+    TreeIndex<TreeNode, Object> index = TreeIndex.of(TreeUtil.build(TREE_NODE_LIST, treeConfig));
+    assertEquals(15, index.size());
+    assertTrue(index.isAncestor(1, 7));
+    assertTrue(index.isAncestor(3, 7));
+    assertFalse(index.isAncestor(7, 7));
+    assertFalse(index.isAncestor(7, 1));
+    assertFalse(index.isAncestor(8, 7));
+    assertFalse(index.isAncestor(100, 7));
+    assertEquals(Arrays.asList(2, 3, 5, 6, 7, 4), ids(index.getDescendants(1)));
+    assertEquals(6, index.getDescendantCount(1));
+    assertEquals(Arrays.asList(2, 3, 4), ids(index.getChildren(1)));
+    assertEquals(Arrays.asList(1, 8), ids(index.getRoots()));
+    assertEquals(Arrays.asList(8, 9, 12, 13), ids(index.getPath(13)));
+    assertEquals(Arrays.asList(8, 9, 12, 13), index.getIdPath(13));
+    assertEquals(4, index.getLevel(13));
+    assertEquals(12, index.getParent(13).getId());
+    assertNull(index.getParent(8));
+    assertEquals(Collections.emptyList(), index.getDescendants(100));
+
+    // 移动后返回新的索引，原索引不变
+    TreeIndex<TreeNode, Object> moved = index.move(3, 12);
+    assertTrue(index.isAncestor(1, 7));
+    assertFalse(moved.isAncestor(1, 7));
+    assertTrue(moved.isAncestor(8, 7));
+    assertEquals(Arrays.asList(13, 14, 15, 3), ids(moved.getChildren(12)));
+    assertEquals(Arrays.asList(8, 9, 12, 3, 7), moved.getIdPath(7));
+    assertEquals(5, moved.getLevel(7));
+    assertEquals(Arrays.asList(2, 4), ids(moved.getDescendants(1)));
+    // 向前移动、移动为顶级节点
+    moved = moved.move(9, 2).move(2, null);
+    assertEquals(Arrays.asList(1, 8, 2), ids(moved.getRoots()));
+    assertEquals(Arrays.asList(2, 9, 12, 3, 7), moved.getIdPath(7));
+    assertEquals(Arrays.asList(10), ids(moved.getDescendants(8)));
+    assertThrows(IllegalArgumentException.class, () -> index.move(1, 7));
+    assertThrows(IllegalArgumentException.class, () -> index.move(1, 1));
+    assertThrows(IllegalArgumentException.class, () -> index.move(100, 1));
+
+    // 随机移动后与父级链的结果一致
+    Random random = new Random(0);
+    TreeIndex<TreeNode, Object> current = index;
+    List<Integer> allIds = Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15);
+    for (int i = 0; i < 200; i++) {
+      Integer id = allIds.get(random.nextInt(allIds.size()));
+      Integer parentId = random.nextInt(5) == 0 ? null : allIds.get(random.nextInt(allIds.size()));
+      if (parentId != null && (parentId.equals(id) || current.isAncestor(id, parentId))) {
+        continue;
+      }
+      current = current.move(id, parentId);
+      for (Integer a : allIds) {
+        int descendantCount = 0;
+        for (Integer b : allIds) {
+          boolean isAncestor = false;
+          for (TreeNode parent = current.getParent(b); parent != null; parent = current.getParent(parent.getId())) {
+            isAncestor |= parent.getId().equals(a);
+          }
+          assertEquals(isAncestor, current.isAncestor(a, b));
+          descendantCount += isAncestor ? 1 : 0;
+        }
+        assertEquals(descendantCount, current.getDescendantCount(a));
+        assertEquals(current.getIdPath(a).size(), current.getLevel(a));
+      }
+    }
+    assertThrows(IllegalArgumentException.class, () -> TreeIndex.of(Arrays.asList(new TreeNode(1, "1", 1, "0"), new TreeNode(1, "1", 1, "0"))));
+  }
+
+  private static List<Object> ids(List<TreeNode> treeNodes) {
+    return treeNodes.stream().map(TreeNode::getId).collect(Collectors.toList());
+  }
+
   @DisplayName("将树结构拆分为平级列表")
   @Test
   void flatten() {
@@ -99,5 +368,33 @@ class TreeUtilTest {
     treeNode.setChildren(Arrays.asList(new TreeNode(2, "1.1", 1, "1"), new TreeNode(3, "1.2", 2, "1")));
     treeNodes[0] = treeNode;
     assertEquals(3, TreeUtil.flatten(treeNodes, "children").length);
+
+    // 深度优先、广度优先
+    treeNodeList = TreeUtil.build(TREE_NODE_LIST, TreeConfig.builder().isSort(true)
+      .comparator(Comparator.comparing(TreeNode::getId, Comparator.comparingInt(s -> Integer.parseInt(s.toString())))).build());
+    assertEquals(Arrays.asList(1, 2, 3, 5, 6, 7, 4, 8, 9, 11, 12, 13, 14, 15, 10),
+      TreeUtil.<TreeNode, List<TreeNode>>flatten(treeNodeList, "children", ArrayList::new).stream().map(TreeNode::getId).collect(Collectors.toList()));
+    assertEquals(Arrays.asList(1, 8, 2, 3, 4, 9, 10, 5, 6, 7, 11, 12, 13, 14, 15),
+      TreeUtil.<TreeNode, List<TreeNode>>flattenBreadthFirst(treeNodeList, "children", ArrayList::new).stream().map(TreeNode::getId).collect(Collectors.toList()));
+    // 流
+    assertEquals(TreeUtil.flatten(treeNodeList, "children", ArrayList::new),
+      TreeUtil.<TreeNode>stream(treeNodeList, "children").collect(Collectors.toList()));
+    assertEquals(TreeUtil.flattenBreadthFirst(treeNodeList, "children", ArrayList::new),
+      TreeUtil.<TreeNode>streamBreadthFirst(treeNodeList, "children").collect(Collectors.toList()));
+    assertEquals(Arrays.asList(1, 2, 3), TreeUtil.<TreeNode>stream(treeNodeList, "children").limit(3).map(TreeNode::getId).collect(Collectors.toList()));
+    assertEquals(0, TreeUtil.stream(null, "children").count());
+    // 不存在的字段只返回顶级节点
+    assertEquals(treeNodeList.size(), TreeUtil.stream(treeNodeList, "notExists").count());
+
+    // 深层级不会栈溢出
+    TreeNode root = new TreeNode(0, "0", 0, (Object) null);
+    TreeNode parent = root;
+    for (int i = 1; i < 100000; i++) {
+      TreeNode child = new TreeNode(i, String.valueOf(i), 0, (Object) null);
+      parent.setChildren(Collections.singletonList(child));
+      parent = child;
+    }
+    assertEquals(100000, TreeUtil.flatten(Collections.singletonList(root), "children", ArrayList::new).size());
+    assertEquals(100000, TreeUtil.stream(root, "children").count());
   }
 }
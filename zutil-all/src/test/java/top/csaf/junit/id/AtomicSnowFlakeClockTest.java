@@ -0,0 +1,97 @@
+package top.csaf.junit.id;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import top.csaf.id.AtomicSnowFlake;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 通过 {@link AtomicSnowFlake.AtomicSnowFlakeBuilder#clock} 模拟时钟回拨
+ */
+@DisplayName("无锁雪花算法时钟回拨测试")
+class AtomicSnowFlakeClockTest {
+
+  private static final long NOW = AtomicSnowFlake.DEFAULT_START_TIME_MILLIS + 1000000L;
+
+  @DisplayName("回拨不超过借用上限时继续生成")
+  @Test
+  void withinMaxBorrow() {
+    AtomicLong clock = new AtomicLong(NOW);
+    AtomicSnowFlake snowFlake = AtomicSnowFlake.builder().maxBorrowMillis(10).clock(clock::get).build();
+    long last = snowFlake.next();
+    // 回拨 5 毫秒
+    clock.set(NOW - 5);
+    for (int i = 0; i < 100; i++) {
+      long id = snowFlake.next();
+      assertTrue(id > last);
+      last = id;
+    }
+    assertEquals(5, snowFlake.getLeadMillis());
+    // 回拨期间沿用最后时间戳，不计入借用
+    assertEquals(0, snowFlake.getBorrowedMillis());
+    assertEquals(0, snowFlake.getStalls());
+
+    // 序列号用尽后借用下一毫秒，超前 6 毫秒仍在上限内
+    long[] ids = snowFlake.next((int) AtomicSnowFlake.SEQUENCE_MAX_NUMBER + 1);
+    assertTrue(ids[0] > last);
+    assertEquals(6, snowFlake.getLeadMillis());
+    assertEquals(1, snowFlake.getBorrowedMillis());
+
+    // 时钟追上后恢复使用系统时钟
+    clock.set(NOW + 10);
+    long id = snowFlake.next();
+    assertTrue(id > ids[ids.length - 1]);
+    assertEquals(0, snowFlake.getLeadMillis());
+  }
+
+  @DisplayName("回拨超过借用上限时拒绝生成")
+  @Test
+  void beyondMaxBorrow() {
+    AtomicLong clock = new AtomicLong(NOW);
+    AtomicSnowFlake snowFlake = AtomicSnowFlake.builder().maxBorrowMillis(10).clock(clock::get).build();
+    snowFlake.next();
+    clock.set(NOW - 11);
+    assertThrows(RuntimeException.class, snowFlake::next);
+    // 时钟追上后恢复
+    clock.set(NOW + 1);
+    assertTrue(snowFlake.next() > 0);
+
+    // 未开启借用时间模式时，回拨 1 毫秒即拒绝
+    AtomicSnowFlake strictSnowFlake = AtomicSnowFlake.builder().clock(clock::get).build();
+    strictSnowFlake.next();
+    clock.set(NOW);
+    assertThrows(RuntimeException.class, strictSnowFlake::next);
+    assertThrows(IllegalArgumentException.class, () -> AtomicSnowFlake.builder().clock(null));
+  }
+
+  @DisplayName("借用到上限后小的回拨不抛出异常")
+  @Test
+  void regressionAtMaxBorrow() {
+    AtomicLong clock = new AtomicLong(NOW);
+    AtomicSnowFlake snowFlake = AtomicSnowFlake.builder().maxBorrowMillis(10).clock(clock::get).build();
+    // 持续高负载，借用到超前 10 毫秒，最后一毫秒留一个序列号
+    long[] ids = snowFlake.next((int) (AtomicSnowFlake.SEQUENCE_MAX_NUMBER + 1) * 11 - 1);
+    assertEquals(10, snowFlake.getLeadMillis());
+    assertEquals(10, snowFlake.getBorrowedMillis());
+    long last = ids[ids.length - 1];
+
+    // 回拨 1 毫秒，回拨程度按见过的最大系统时间计算，不包括借用的超前量
+    clock.set(NOW - 1);
+    ids = snowFlake.next(1);
+    assertTrue(ids[0] > last);
+    assertEquals(11, snowFlake.getLeadMillis());
+    assertEquals(0, snowFlake.getStalls());
+
+    // 超前已达上限且序列号用尽时，等待时钟追上并计入等待次数
+    AtomicLong calls = new AtomicLong();
+    AtomicSnowFlake stallSnowFlake = AtomicSnowFlake.builder().maxBorrowMillis(10)
+      .clock(() -> calls.incrementAndGet() > 20 ? NOW + 1 : NOW).build();
+    stallSnowFlake.next((int) (AtomicSnowFlake.SEQUENCE_MAX_NUMBER + 1) * 11);
+    assertEquals(0, stallSnowFlake.getStalls());
+    assertTrue(stallSnowFlake.next() > 0);
+    assertEquals(1, stallSnowFlake.getStalls());
+  }
+}
@@ -3,12 +3,17 @@ package top.csaf.junit.id;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import top.csaf.id.NanoIdGenerator;
 import top.csaf.id.NanoIdUtil;
 
 import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
 
-import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
-import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.*;
 
 @Slf4j
 @DisplayName("NanoId 工具类测试")
@@ -44,4 +49,69 @@ class NanoIdUtilTest {
     /** {@link NanoIdUtil#randomNanoId() } */
     assertDoesNotThrow(() -> NanoIdUtil.randomNanoId());
   }
+
+  @DisplayName("NanoID 生成器")
+  @Test
+  void nanoIdGenerator() {
+    assertThrows(NullPointerException.class, () -> new NanoIdGenerator(1, (char[]) null));
+    assertThrows(NullPointerException.class, () -> new NanoIdGenerator(1, "abc".toCharArray(), null, 1));
+    assertThrows(IllegalArgumentException.class, () -> new NanoIdGenerator(0));
+    assertThrows(IllegalArgumentException.class, () -> new NanoIdGenerator(1, new char[0]));
+    assertThrows(IllegalArgumentException.class, () -> new NanoIdGenerator(1, new char[256]));
+    assertThrows(IllegalArgumentException.class, () -> new NanoIdGenerator(1, "abc".toCharArray(), Random::new, 0));
+
+    NanoIdGenerator generator = new NanoIdGenerator();
+    Set<String> idSet = new HashSet<>();
+    for (int i = 0; i < 10000; i++) {
+      String id = generator.next();
+      assertEquals(NanoIdUtil.DEFAULT_SIZE, id.length());
+      idSet.add(id);
+    }
+    assertEquals(10000, idSet.size());
+    assertEquals(30, generator.next(30).length());
+
+    // 自定义字典，跨越字节池边界
+    generator = new NanoIdGenerator(10, "abc".toCharArray(), Random::new, 7);
+    for (int i = 0; i < 100; i++) {
+      assertTrue(generator.next().matches("[abc]{10}"));
+    }
+    assertEquals("x", new NanoIdGenerator(1, "x").next());
+
+    char[] chars = new char[8];
+    Arrays.fill(chars, '#');
+    generator.nextInto(chars, 2, 4);
+    assertTrue(new String(chars).matches("##[abc]{4}##"));
+    assertThrows(IndexOutOfBoundsException.class, () -> new NanoIdGenerator().nextInto(new char[2], 1, 2));
+  }
+
+  @DisplayName("批量生成 NanoID")
+  @Test
+  void randomNanoIds() {
+    assertThrows(IllegalArgumentException.class, () -> NanoIdUtil.randomNanoIds(-1));
+    assertThrows(NullPointerException.class, () -> NanoIdUtil.randomNanoIds(1, 1, (char[]) null));
+    assertEquals(0, NanoIdUtil.randomNanoIds(0).length);
+
+    String[] ids = NanoIdUtil.randomNanoIds(10000);
+    assertEquals(10000, ids.length);
+    assertEquals(10000, new HashSet<>(Arrays.asList(ids)).size());
+    for (String id : ids) {
+      assertEquals(NanoIdUtil.DEFAULT_SIZE, id.length());
+    }
+    for (String id : NanoIdUtil.randomNanoIds(5000, 8, "abc")) {
+      assertTrue(id.matches("[abc]{8}"));
+    }
+    assertEquals(30, NanoIdUtil.randomNanoIds(1, 30)[0].length());
+
+    Set<String> idSet = NanoIdUtil.randomNanoIdStream().limit(5000).collect(Collectors.toSet());
+    assertEquals(5000, idSet.size());
+    assertTrue(NanoIdUtil.randomNanoIdStream(5, "xyz".toCharArray()).limit(100).allMatch(id -> id.matches("[xyz]{5}")));
+
+    NanoIdGenerator generator = new NanoIdGenerator(4, "01");
+    assertEquals(3, generator.stream(3).count());
+    Iterator<String> iterator = generator.iterator();
+    for (int i = 0; i < 100; i++) {
+      assertTrue(iterator.hasNext());
+      assertTrue(iterator.next().matches("[01]{4}"));
+    }
+  }
 }
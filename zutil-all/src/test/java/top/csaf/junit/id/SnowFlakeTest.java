@@ -2,7 +2,20 @@ package top.csaf.junit.id;
 
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import top.csaf.id.AtomicSnowFlake;
 import top.csaf.id.SnowFlake;
+import top.csaf.id.SnowFlakeDecoder;
+import top.csaf.id.SnowFlakeInfo;
+import top.csaf.id.StripedSnowFlake;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
 
 @DisplayName("雪花算法测试")
 class SnowFlakeTest {
@@ -17,4 +30,152 @@ class SnowFlakeTest {
       System.out.println(snowFlake.next());;
     // }
   }
+
+  @DisplayName("无锁实现")
+  @Test
+  void testAtomic() throws InterruptedException {
+    assertThrows(IllegalArgumentException.class, () -> AtomicSnowFlake.builder().dataCenterBit(11));
+    assertThrows(IllegalArgumentException.class, () -> AtomicSnowFlake.builder().machineBit(-1));
+    assertThrows(IllegalArgumentException.class, () -> AtomicSnowFlake.builder().dataCenterId(32).build());
+    assertThrows(IllegalArgumentException.class, () -> AtomicSnowFlake.builder().machineBit(3).machineId(8).build());
+
+    AtomicSnowFlake snowFlake = AtomicSnowFlake.builder().dataCenterId(3).machineId(5).build();
+    // 单线程递增
+    long last = snowFlake.next();
+    for (int i = 0; i < 100000; i++) {
+      long id = snowFlake.next();
+      assertTrue(id > last);
+      last = id;
+    }
+    // 批量生成跨越多个毫秒，递增
+    long[] ids = snowFlake.next(10000);
+    assertTrue(ids[0] > last);
+    for (int i = 1; i < ids.length; i++) {
+      assertTrue(ids[i] > ids[i - 1]);
+    }
+    // 多线程唯一
+    int threads = 8;
+    int perThread = 50000;
+    Set<Long> idSet = ConcurrentHashMap.newKeySet();
+    CountDownLatch latch = new CountDownLatch(threads);
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    for (int t = 0; t < threads; t++) {
+      final boolean isBatch = t % 2 == 0;
+      executor.execute(() -> {
+        try {
+          if (isBatch) {
+            long[] batch = new long[100];
+            for (int i = 0; i < perThread / batch.length; i++) {
+              snowFlake.nextBatch(batch);
+              for (long id : batch) {
+                idSet.add(id);
+              }
+            }
+          } else {
+            for (int i = 0; i < perThread; i++) {
+              idSet.add(snowFlake.next());
+            }
+          }
+        } finally {
+          latch.countDown();
+        }
+      });
+    }
+    assertTrue(latch.await(1, TimeUnit.MINUTES));
+    executor.shutdown();
+    assertEquals(threads * perThread, idSet.size());
+  }
+
+  @DisplayName("借用时间模式")
+  @Test
+  void testBorrow() {
+    assertThrows(IllegalArgumentException.class, () -> AtomicSnowFlake.builder().maxBorrowMillis(-1));
+
+    AtomicSnowFlake snowFlake = AtomicSnowFlake.builder().maxBorrowMillis(10000).build();
+    // 生成速度远超每毫秒序列号个数，借用未来时间而不等待
+    long[] ids = snowFlake.next(1000000);
+    for (int i = 1; i < ids.length; i++) {
+      assertTrue(ids[i] > ids[i - 1]);
+    }
+    assertTrue(snowFlake.getBorrowedMillis() > 0);
+    assertEquals(0, snowFlake.getStalls());
+    assertTrue(snowFlake.getLeadMillis() <= 10000);
+
+    // 未开启时序列号用尽需等待
+    AtomicSnowFlake strictSnowFlake = AtomicSnowFlake.builder().build();
+    strictSnowFlake.next(100000);
+    assertEquals(0, strictSnowFlake.getBorrowedMillis());
+    assertTrue(strictSnowFlake.getStalls() > 0);
+  }
+
+  @DisplayName("条带实现")
+  @Test
+  void testStriped() throws InterruptedException {
+    assertThrows(IllegalArgumentException.class, () -> StripedSnowFlake.builder().dataCenterBit(11));
+    assertThrows(IllegalArgumentException.class, () -> StripedSnowFlake.builder().machineBit(11));
+    assertThrows(IllegalArgumentException.class, () -> StripedSnowFlake.builder().stripeBit(12));
+    assertThrows(IllegalArgumentException.class, () -> StripedSnowFlake.builder().machineId(32).build());
+
+    StripedSnowFlake snowFlake = StripedSnowFlake.builder().dataCenterId(3).machineId(5).stripeBit(3).build();
+    assertEquals(8, snowFlake.getStripeCount());
+    // 线程数超过条带数时仍唯一
+    int threads = 16;
+    int perThread = 20000;
+    Set<Long> idSet = ConcurrentHashMap.newKeySet();
+    Set<Long> stripeSet = ConcurrentHashMap.newKeySet();
+    CountDownLatch latch = new CountDownLatch(threads);
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    for (int t = 0; t < threads; t++) {
+      executor.execute(() -> {
+        try {
+          long last = 0;
+          for (int i = 0; i < perThread; i++) {
+            long id = snowFlake.next();
+            // 同一线程内递增
+            assertTrue(id > last);
+            last = id;
+            idSet.add(id);
+          }
+          stripeSet.add(snowFlake.decode(last).getStripe());
+        } finally {
+          latch.countDown();
+        }
+      });
+    }
+    assertTrue(latch.await(1, TimeUnit.MINUTES));
+    executor.shutdown();
+    assertEquals(threads * perThread, idSet.size());
+    assertEquals(8, stripeSet.size());
+
+    long beforeTimeMillis = System.currentTimeMillis();
+    SnowFlakeInfo info = snowFlake.decode(snowFlake.next());
+    assertTrue(info.getTimeMillis() >= beforeTimeMillis && info.getTimeMillis() <= System.currentTimeMillis());
+    assertEquals(3, info.getDataCenterId());
+    assertEquals(5, info.getMachineId());
+  }
+
+  @DisplayName("解析 ID")
+  @Test
+  void testDecode() {
+    assertThrows(IllegalArgumentException.class, () -> new SnowFlakeDecoder(6, 5));
+    assertThrows(IllegalArgumentException.class, () -> new SnowFlakeDecoder(AtomicSnowFlake.DEFAULT_START_TIME_MILLIS, 5, 5, 12));
+
+    long beforeTimeMillis = System.currentTimeMillis();
+    SnowFlakeInfo info = new SnowFlakeDecoder(7, 3).decode(AtomicSnowFlake.builder().dataCenterBit(7).dataCenterId(100).machineId(6).build().next());
+    assertTrue(info.getTimeMillis() >= beforeTimeMillis && info.getTimeMillis() <= System.currentTimeMillis());
+    assertEquals(100, info.getDataCenterId());
+    assertEquals(6, info.getMachineId());
+    assertEquals(0, info.getStripe());
+    assertEquals(0, info.getSequence());
+
+    // SnowFlakeBuilder 的二进制位布局
+    beforeTimeMillis = System.currentTimeMillis();
+    info = new SnowFlakeDecoder(4, 6).decode(SnowFlake.builder().dataCenterBit(4).dataCenterId(9).machineId(60).build().next());
+    assertTrue(info.getTimeMillis() >= beforeTimeMillis && info.getTimeMillis() <= System.currentTimeMillis());
+    assertEquals(9, info.getDataCenterId());
+    assertEquals(60, info.getMachineId());
+    info = new SnowFlakeDecoder().decode(new SnowFlake(3, 5).next());
+    assertEquals(3, info.getDataCenterId());
+    assertEquals(5, info.getMachineId());
+  }
 }